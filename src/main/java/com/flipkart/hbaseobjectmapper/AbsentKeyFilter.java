@@ -0,0 +1,175 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Remembers row keys known not to exist, backing {@link AbstractHBDAO} when {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig) enabled}. For internal use only.
+ * <br><br>
+ * A row key is reported absent only if it's in the negative cache or if a (fresh enough) Bloom filter says it definitely doesn't exist. Writes made through the DAO are registered with this filter <u>before</u> they're sent to HBase and again once they complete, so that a reader never misses a row written by the same DAO.
+ * <br><br>
+ * A reader that found a row absent may get to remembering that after a concurrent write has already registered itself. To not remember stale absence, every registered write stamps a slot (picked by hash of row key) with a sequence number: a reader takes a {@link #stamp()} <u>before</u> it fetches and {@link #markAbsent(Serializable, long) marks} the row absent only if no write stamped it's slot since. Writes that share a slot only cost an entry of negative cache.
+ *
+ * @param <R> Data type of row key
+ */
+class AbsentKeyFilter<R extends Serializable & Comparable<R>> {
+
+    interface RowKeysSource {
+        void forEachRowKey(Consumer<byte[]> consumer) throws IOException;
+    }
+
+    private static final int WRITE_STAMP_SLOTS = 1024;
+
+    private final Cache<R, Boolean> negativeCache;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLongArray writeStamps = new AtomicLongArray(WRITE_STAMP_SLOTS); // sequence number of latest write, by slot
+    private final long bloomFilterExpectedInsertions;
+    private final double bloomFilterFpp;
+    private final long bloomFilterMaxAgeNanos;
+    private final ReadWriteLock bloomFilterLock = new ReentrantReadWriteLock();
+    private final ReentrantLock seedLock = new ReentrantLock();
+    private BloomFilter<byte[]> bloomFilter; // guarded by bloomFilterLock
+    private BloomFilter<byte[]> bloomFilterBeingSeeded; // guarded by bloomFilterLock
+    private long bloomFilterSeededAtNanos; // guarded by bloomFilterLock
+
+    AbsentKeyFilter(AbsentKeyFilterConfig config) {
+        this.negativeCache = config.getNegativeCacheSize() == 0 ? null : CacheBuilder.newBuilder()
+                .maximumSize(config.getNegativeCacheSize())
+                .expireAfterWrite(config.getNegativeCacheTtlNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        this.bloomFilterExpectedInsertions = config.getBloomFilterExpectedInsertions();
+        this.bloomFilterFpp = config.getBloomFilterFpp();
+        this.bloomFilterMaxAgeNanos = config.getBloomFilterMaxAgeNanos();
+    }
+
+    boolean isBloomFilterEnabled() {
+        return bloomFilterExpectedInsertions > 0;
+    }
+
+    boolean isKnownAbsent(R rowKey, byte[] rowKeyBytes) {
+        if (negativeCache != null && negativeCache.getIfPresent(rowKey) != null) {
+            return true;
+        }
+        if (!isBloomFilterEnabled()) {
+            return false;
+        }
+        bloomFilterLock.readLock().lock();
+        try {
+            if (bloomFilter == null || System.nanoTime() - bloomFilterSeededAtNanos > bloomFilterMaxAgeNanos) {
+                return false;
+            }
+            return !bloomFilter.mightContain(rowKeyBytes);
+        } finally {
+            bloomFilterLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Stamp to be taken before fetching rows that may be {@link #markAbsent(Serializable, long) marked absent} afterwards
+     */
+    long stamp() {
+        return writeSequence.get();
+    }
+
+    /**
+     * Remembers given row key as absent, unless a write to it was registered since given stamp was taken
+     */
+    void markAbsent(R rowKey, long stamp) {
+        if (negativeCache == null) {
+            return;
+        }
+        negativeCache.put(rowKey, Boolean.TRUE);
+        if (writeStamps.get(slot(rowKey)) > stamp) {
+            negativeCache.invalidate(rowKey); // a concurrent write may have created the row after it was fetched
+        }
+    }
+
+    /**
+     * Registers a write (of any kind) to given row key
+     */
+    void forgetAbsent(R rowKey) {
+        if (negativeCache != null) {
+            writeStamps.accumulateAndGet(slot(rowKey), writeSequence.incrementAndGet(), Math::max); // before invalidating, so that markAbsent either sees the stamp or gets invalidated
+            negativeCache.invalidate(rowKey);
+        }
+    }
+
+    private static int slot(Object rowKey) {
+        return (rowKey.hashCode() & Integer.MAX_VALUE) % WRITE_STAMP_SLOTS;
+    }
+
+    void markPresent(R rowKey, byte[] rowKeyBytes) {
+        forgetAbsent(rowKey);
+        if (!isBloomFilterEnabled()) {
+            return;
+        }
+        bloomFilterLock.writeLock().lock();
+        try {
+            if (bloomFilter != null) {
+                bloomFilter.put(rowKeyBytes);
+            }
+            if (bloomFilterBeingSeeded != null) {
+                bloomFilterBeingSeeded.put(rowKeyBytes);
+            }
+        } finally {
+            bloomFilterLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a fresh Bloom filter from given row keys and swaps it in. Writes registered (through {@link #markPresent}) while seeding is in progress go into the fresh filter as well.
+     */
+    void seed(RowKeysSource rowKeysSource) throws IOException {
+        if (!isBloomFilterEnabled()) {
+            throw new IllegalStateException("Bloom filter is not enabled in configuration of absent-key filter");
+        }
+        seedLock.lock();
+        try {
+            final BloomFilter<byte[]> freshBloomFilter = BloomFilter.create(Funnels.byteArrayFunnel(), bloomFilterExpectedInsertions, bloomFilterFpp);
+            final long startedAtNanos = System.nanoTime();
+            bloomFilterLock.writeLock().lock();
+            try {
+                bloomFilterBeingSeeded = freshBloomFilter;
+            } finally {
+                bloomFilterLock.writeLock().unlock();
+            }
+            boolean seeded = false;
+            try {
+                rowKeysSource.forEachRowKey(rowKeyBytes -> {
+                    bloomFilterLock.writeLock().lock();
+                    try {
+                        freshBloomFilter.put(rowKeyBytes);
+                    } finally {
+                        bloomFilterLock.writeLock().unlock();
+                    }
+                });
+                seeded = true;
+            } finally {
+                bloomFilterLock.writeLock().lock();
+                try {
+                    bloomFilterBeingSeeded = null;
+                    if (seeded) {
+                        bloomFilter = freshBloomFilter;
+                        bloomFilterSeededAtNanos = startedAtNanos;
+                    }
+                } finally {
+                    bloomFilterLock.writeLock().unlock();
+                }
+            }
+        } finally {
+            seedLock.unlock();
+        }
+    }
+}
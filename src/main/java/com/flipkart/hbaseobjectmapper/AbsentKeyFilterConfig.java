@@ -0,0 +1,105 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the (optional) absent-key filter of {@link AbstractHBDAO}, to be passed through {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig)}
+ * <br><br>
+ * The filter lets {@link AbstractHBDAO#get(java.io.Serializable) get} return <code>null</code> without an RPC for row keys known not to exist. It combines:
+ * <ul>
+ * <li>a <b>negative cache</b>: row keys that were recently found absent (or deleted through the DAO), bounded in size and time-to-live</li>
+ * <li>an optional <b>Bloom filter</b> of row keys that exist, seeded by {@link AbstractHBDAO#seedAbsentKeyFilter()} and kept up-to-date by writes made through the DAO</li>
+ * </ul>
+ * A false positive of the Bloom filter (a row key that "might exist" but doesn't) only costs an RPC. However, both structures only know of writes made through the same DAO instance: a row written by some other process may be reported absent till the negative cache entry expires (see {@link #negativeCacheTtl(long, TimeUnit)}) or the Bloom filter is too old to be trusted (see {@link #bloomFilterMaxAge(long, TimeUnit)}). Both are always bounded (1 minute by default), so staleness never outlives them; keep them short if rows are written by other processes. For example:
+ * <pre>
+ * new AbsentKeyFilterConfig()
+ *   .negativeCacheSize(100_000)
+ *   .negativeCacheTtl(30, TimeUnit.SECONDS)
+ *   .bloomFilter(10_000_000, 0.01)
+ *   .bloomFilterMaxAge(1, TimeUnit.HOURS);
+ * </pre>
+ */
+public class AbsentKeyFilterConfig {
+    private long negativeCacheSize = 10_000;
+    private long negativeCacheTtlNanos = TimeUnit.MINUTES.toNanos(1);
+    private long bloomFilterExpectedInsertions = -1;
+    private double bloomFilterFpp = 0.01;
+    private long bloomFilterMaxAgeNanos = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * @param negativeCacheSize Maximum number of absent row keys to remember (<code>0</code> disables the negative cache)
+     * @return This object (for method chaining)
+     */
+    public AbsentKeyFilterConfig negativeCacheSize(long negativeCacheSize) {
+        if (negativeCacheSize < 0) {
+            throw new IllegalArgumentException("Negative cache size can't be negative");
+        }
+        this.negativeCacheSize = negativeCacheSize;
+        return this;
+    }
+
+    /**
+     * @param duration Duration for which a row key is remembered as absent (this bounds staleness when rows are written by other processes)
+     * @param unit     Unit of duration
+     * @return This object (for method chaining)
+     */
+    public AbsentKeyFilterConfig negativeCacheTtl(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Time-to-live of negative cache must be positive");
+        }
+        this.negativeCacheTtlNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Enables Bloom filter of existing row keys. The filter is effective only after {@link AbstractHBDAO#seedAbsentKeyFilter()} is called.
+     *
+     * @param expectedInsertions Expected number of rows in the table (beyond this, false positive probability degrades)
+     * @param fpp                Desired false positive probability (e.g. <code>0.01</code>)
+     * @return This object (for method chaining)
+     */
+    public AbsentKeyFilterConfig bloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1 (both exclusive)");
+        }
+        this.bloomFilterExpectedInsertions = expectedInsertions;
+        this.bloomFilterFpp = fpp;
+        return this;
+    }
+
+    /**
+     * @param duration Duration (since it was seeded) after which the Bloom filter is no longer trusted, till it's seeded again (this bounds staleness when rows are written by other processes)
+     * @param unit     Unit of duration
+     * @return This object (for method chaining)
+     */
+    public AbsentKeyFilterConfig bloomFilterMaxAge(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Maximum age of Bloom filter must be positive");
+        }
+        this.bloomFilterMaxAgeNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public long getNegativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    public long getNegativeCacheTtlNanos() {
+        return negativeCacheTtlNanos;
+    }
+
+    public long getBloomFilterExpectedInsertions() {
+        return bloomFilterExpectedInsertions;
+    }
+
+    public double getBloomFilterFpp() {
+        return bloomFilterFpp;
+    }
+
+    public long getBloomFilterMaxAgeNanos() {
+        return bloomFilterMaxAgeNanos;
+    }
+}
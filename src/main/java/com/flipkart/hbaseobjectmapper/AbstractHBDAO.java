@@ -2,30 +2,62 @@ package com.flipkart.hbaseobjectmapper;
 
 import com.flipkart.hbaseobjectmapper.annotations.HBTable;
 import com.flipkart.hbaseobjectmapper.codec.Codec;
+import com.flipkart.hbaseobjectmapper.exceptions.MultiGetFailedException;
+import com.google.common.cache.CacheStats;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.client.*;
-
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.RandomRowFilter;
+import org.apache.hadoop.hbase.io.TimeRange;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A <i>Data Access Object</i> (DAO) class that enables simple random access (read/write) of HBase rows.
  * <br><br>
- * <b>This class is thread-safe.</b> This is designed such that only one instance of each DAO class needs to be maintained for the entire lifecycle of your program.
+ * <b>This class is thread-safe.</b> This is designed such that only one instance of each DAO class needs to be maintained for the entire lifecycle of your program. {@link #close() Close} it when your program no longer needs it.
  *
  * @param <R> Data type of row key (must be '{@link Comparable} with itself' and must be {@link Serializable})
  * @param <T> Entity type that maps to an HBase row (this type must have implemented {@link HBRecord} interface)
  * @see <a href="https://en.wikipedia.org/wiki/Data_access_object">Data access object</a>
  */
 @SuppressWarnings("WeakerAccess")
-public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T extends HBRecord<R>> {
+public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T extends HBRecord<R>> implements Closeable {
+
+    private static final int KEYS_SCAN_CACHING = 1000;
 
     protected final HBObjectMapper hbObjectMapper;
     protected final Connection connection;
@@ -33,19 +65,28 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
     protected final Class<T> hbRecordClass;
     protected final WrappedHBTable<R, T> hbTable;
     private final Map<String, Field> fields;
+    private final ExecutorService executorService;
+    private final MultiGetOptions multiGetOptions;
+    private final EntityCache<R, T> entityCache;
+    private final AbsentKeyFilter<R> absentKeyFilter;
+    private final ReadCoalescer readCoalescer;
+    private final MicroBatcher microBatcher;
+    private final WriteBehindBuffer<R> writeBehindBuffer;
+    private final DirtyFieldTracker dirtyFieldTracker;
+    private final CounterAccumulator<R> counterAccumulator;
+    private final TableHandles tableHandles;
 
     /**
-     * Constructs a data access object using your custom {@link HBObjectMapper}
-     * <p>
-     * <br>
-     * <b>Note: </b>If you want to use the default {@link HBObjectMapper}, just use the constructor {@link #AbstractHBDAO(Connection)}
+     * Constructs a data access object using your custom {@link HBObjectMapper} and optional features (e.g. read-through cache)
      *
      * @param connection     HBase Connection
      * @param hbObjectMapper Your custom {@link HBObjectMapper}
-     * @throws IllegalStateException Annotation(s) on base entity may be incorrect
+     * @param options        Optional features and tuning of this DAO (see {@link HBDAOOptions})
+     * @throws IllegalStateException    Annotation(s) on base entity may be incorrect
+     * @throws IllegalArgumentException Options are invalid (e.g. cache is not bounded)
      */
     @SuppressWarnings("unchecked")
-    protected AbstractHBDAO(Connection connection, HBObjectMapper hbObjectMapper) {
+    protected AbstractHBDAO(Connection connection, HBObjectMapper hbObjectMapper, HBDAOOptions options) {
         this.connection = connection;
         this.hbObjectMapper = hbObjectMapper;
         hbRecordClass = (Class<T>) new TypeToken<T>(getClass()) {
@@ -61,6 +102,51 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         }
         hbTable = new WrappedHBTable<>(hbRecordClass);
         fields = hbObjectMapper.getHBColumnFields0(hbRecordClass);
+        executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("hbase-orm-" + hbTable + "-%d")
+                .build());
+        tableHandles = new TableHandles(connection, hbTable.getName(), options);
+        multiGetOptions = options.getMultiGetOptions();
+        entityCache = options.getEntityCache() == null ? null : new EntityCache<>(options.getEntityCache(), hbObjectMapper, hbRecordClass,
+                rowKeys -> fetchResults(rowKeys, 1, multiGetOptions), executorService);
+        absentKeyFilter = options.getAbsentKeyFilter() == null ? null : new AbsentKeyFilter<>(options.getAbsentKeyFilter());
+        readCoalescer = options.isReadCoalescing() ? new ReadCoalescer() : null;
+        microBatcher = options.getMicroBatching() == null ? null : new MicroBatcher(options.getMicroBatching(), tableHandles::table, executorService, "hbase-orm-" + hbTable + "-batcher");
+        writeBehindBuffer = options.getWriteBehind() == null ? null : new WriteBehindBuffer<>(options.getWriteBehind(), writeBehindBufferSize(connection, options),
+                (actions, results) -> tableHandles.table().batch(actions, results), "hbase-orm-" + hbTable + "-flusher");
+        dirtyFieldTracker = options.isDirtyFieldTracking() ? new DirtyFieldTracker(options.isDeleteNulledFields()) : null;
+        counterAccumulator = options.getCounterAccumulation() == null ? null : new CounterAccumulator<>(options.getCounterAccumulation(), (rowKeys, increments, results) -> {
+            try {
+                tableHandles.table().batch(increments, results);
+            } finally {
+                invalidateCached(rowKeys);
+            }
+        }, "hbase-orm-" + hbTable + "-counters");
+    }
+
+    private static long writeBehindBufferSize(Connection connection, HBDAOOptions options) {
+        if (options.getWriteBehind().getWriteBufferSize() > 0) {
+            return options.getWriteBehind().getWriteBufferSize();
+        }
+        if (options.getWriteBufferSize() > 0) {
+            return options.getWriteBufferSize();
+        }
+        return connection.getConfiguration().getLong(ConnectionConfiguration.WRITE_BUFFER_SIZE_KEY, ConnectionConfiguration.WRITE_BUFFER_SIZE_DEFAULT);
+    }
+
+    /**
+     * Constructs a data access object using your custom {@link HBObjectMapper}
+     * <p>
+     * <br>
+     * <b>Note: </b>If you want to use the default {@link HBObjectMapper}, just use the constructor {@link #AbstractHBDAO(Connection)}
+     *
+     * @param connection     HBase Connection
+     * @param hbObjectMapper Your custom {@link HBObjectMapper}
+     * @throws IllegalStateException Annotation(s) on base entity may be incorrect
+     */
+    protected AbstractHBDAO(Connection connection, HBObjectMapper hbObjectMapper) {
+        this(connection, hbObjectMapper, new HBDAOOptions());
     }
 
     /**
@@ -92,6 +178,19 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         this(connection, HBObjectMapperFactory.construct(codec));
     }
 
+    /**
+     * Constructs a data access object using your custom codec and optional features (e.g. read-through cache)
+     *
+     * @param connection HBase Connection
+     * @param codec      Your custom codec. If <code>null</code>, default codec is used.
+     * @param options    Optional features and tuning of this DAO (see {@link HBDAOOptions})
+     * @throws IllegalStateException    Annotation(s) on base entity may be incorrect
+     * @throws IllegalArgumentException Options are invalid (e.g. cache is not bounded)
+     */
+    protected AbstractHBDAO(Connection connection, Codec codec, HBDAOOptions options) {
+        this(connection, HBObjectMapperFactory.construct(codec), options);
+    }
+
     /**
      * Constructs a data access object using your custom codec
      * <p>
@@ -117,6 +216,18 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         this(connection, (Codec) null);
     }
 
+    /**
+     * Constructs a data access object with optional features (e.g. read-through cache)
+     *
+     * @param connection HBase Connection
+     * @param options    Optional features and tuning of this DAO (see {@link HBDAOOptions})
+     * @throws IllegalStateException    Annotation(s) on base entity may be incorrect
+     * @throws IllegalArgumentException Options are invalid (e.g. cache is not bounded)
+     */
+    protected AbstractHBDAO(Connection connection, HBDAOOptions options) {
+        this(connection, (Codec) null, options);
+    }
+
     /**
      * Constructs a data access object
      *
@@ -130,6 +241,9 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
 
     /**
      * Get specified number of versions of a row from HBase table by it's row key
+     * <br><br>
+     * If read-through cache is {@link HBDAOOptions#setEntityCache(EntityCacheConfig) enabled}, single-version reads are served from it.
+     * If absent-key filter is {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig) enabled}, row keys known not to exist are returned as <code>null</code> without an RPC.
      *
      * @param rowKey             Row key
      * @param numVersionsToFetch Number of versions to be retrieved
@@ -137,11 +251,159 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public T get(R rowKey, int numVersionsToFetch) throws IOException {
+        if (absentKeyFilter == null) {
+            return getPossiblyCached(rowKey, numVersionsToFetch);
+        }
+        if (absentKeyFilter.isKnownAbsent(rowKey, toBytes(rowKey))) {
+            return null;
+        }
+        final long absentStamp = absentKeyFilter.stamp();
+        T record = getPossiblyCached(rowKey, numVersionsToFetch);
+        if (record == null) {
+            absentKeyFilter.markAbsent(rowKey, absentStamp);
+        }
+        return record;
+    }
+
+    private T getPossiblyCached(R rowKey, int numVersionsToFetch) throws IOException {
+        if (entityCache != null && numVersionsToFetch == 1) {
+            return tracked(entityCache.get(rowKey));
+        }
         //循环
-        try (Table table = getHBaseTable()) {
-            Result result = table.get(new Get(toBytes(rowKey)).readVersions(numVersionsToFetch));
-            return hbObjectMapper.readValue(rowKey, result, hbRecordClass);
+        Result result = fetchRow(new Get(toBytes(rowKey)).readVersions(numVersionsToFetch));
+        return decode(rowKey, result);
+    }
+
+    private T decode(R rowKey, Result result) {
+        return tracked(hbObjectMapper.readValue(rowKey, result, hbRecordClass));
+    }
+
+    private T decode(Result result) {
+        return tracked(hbObjectMapper.readValue(result, hbRecordClass));
+    }
+
+    /**
+     * Snapshots given record (read through this DAO), if {@link HBDAOOptions#setDirtyFieldTracking(boolean) dirty-field tracking} is enabled
+     */
+    private T tracked(T record) {
+        if (dirtyFieldTracker != null && record != null) {
+            dirtyFieldTracker.snapshot(record, hbObjectMapper.writeValueAsPut(record));
+        }
+        return record;
+    }
+
+    private List<T> tracked(List<T> records) {
+        if (dirtyFieldTracker != null) {
+            for (T record : records) {
+                tracked(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Get specified number of versions of a row from HBase table by it's row key, considering only cells whose timestamps fall in given bounds (e.g. state of row {@link TimeBounds#asOf(long) as of} a point in time)
+     * <br><br>
+     * The time range is applied by HBase (on {@link Get}). Read-through cache, if enabled, is bypassed. A row with no cells in given bounds is returned as <code>null</code> (but isn't remembered as absent).
+     *
+     * @param rowKey             Row key
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return HBase row, deserialized as object of your bean-like class (that implements {@link HBRecord})
+     * @throws IOException When HBase call fails
+     */
+    public T get(R rowKey, TimeBounds timeBounds, int numVersionsToFetch) throws IOException {
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        if (absentKeyFilter != null && absentKeyFilter.isKnownAbsent(rowKey, rowKeyBytes)) {
+            return null;
+        }
+        Result result = fetchRow(timeBounds.applyTo(new Get(rowKeyBytes).readVersions(numVersionsToFetch)));
+        return decode(rowKey, result);
+    }
+
+    private Result fetchRow(Get get) throws IOException {
+        if (readCoalescer != null) {
+            return readCoalescer.fetch(get, this::fetchRowFromTable);
+        }
+        return fetchRowFromTable(get);
+    }
+
+    private Result fetchRowFromTable(Get get) throws IOException {
+        if (microBatcher != null) {
+            return microBatcher.execute(get);
+        }
+        return tableHandles.table().get(get);
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(Serializable, int) get(R, int)}: fetches row on a background thread of this DAO
+     * <br><br>
+     * If read coalescing is {@link HBDAOOptions#setReadCoalescing(boolean) enabled}, this shares the in-flight fetch (if any) of the same row, without blocking a thread for it.
+     *
+     * @param rowKey             Row key
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return Future of HBase row, deserialized as object of your bean-like class (completes exceptionally if HBase call fails)
+     */
+    public CompletableFuture<T> getAsync(final R rowKey, int numVersionsToFetch) {
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        if (absentKeyFilter != null && absentKeyFilter.isKnownAbsent(rowKey, rowKeyBytes)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final long absentStamp = absentStamp();
+        CompletableFuture<T> future;
+        if (entityCache != null && numVersionsToFetch == 1) {
+            future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return tracked(entityCache.get(rowKey));
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executorService);
+        } else {
+            final Get get;
+            try {
+                get = new Get(rowKeyBytes).readVersions(numVersionsToFetch);
+            } catch (IOException e) {
+                CompletableFuture<T> failedFuture = new CompletableFuture<>();
+                failedFuture.completeExceptionally(e);
+                return failedFuture;
+            }
+            final CompletableFuture<Result> resultFuture;
+            if (readCoalescer != null) {
+                resultFuture = readCoalescer.fetchAsync(get, this::fetchRowFromTable, executorService);
+            } else if (microBatcher != null) {
+                resultFuture = microBatcher.submit(get);
+            } else {
+                resultFuture = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return fetchRowFromTable(get);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executorService);
+            }
+            future = resultFuture.thenApply(result -> decode(rowKey, result));
         }
+        if (absentKeyFilter != null) {
+            future = future.thenApply(record -> {
+                if (record == null) {
+                    absentKeyFilter.markAbsent(rowKey, absentStamp);
+                }
+                return record;
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(Serializable) get(R)}
+     *
+     * @param rowKey Row key
+     * @return Future of HBase row, deserialized as object of your bean-like class (completes exceptionally if HBase call fails)
+     * @see #getAsync(Serializable, int)
+     */
+    public CompletableFuture<T> getAsync(R rowKey) {
+        return getAsync(rowKey, 1);
     }
 
     /**
@@ -177,10 +439,8 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public T getOnGet(Get get) throws IOException {
-        try (Table table = getHBaseTable()) {
-            Result result = table.get(get);
-            return hbObjectMapper.readValue(result, hbRecordClass);
-        }
+        Result result = fetchRow(get);
+        return decode(result);
     }
 
     /**
@@ -191,12 +451,10 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
     @SuppressWarnings("unused")
     public List<T> getOnGets(List<Get> gets) throws IOException {
         List<T> records = new ArrayList<>(gets.size());
-        try (Table table = getHBaseTable()) {
-            //批量获取
-            Result[] results = table.get(gets);
-            for (Result result : results) {
-                records.add(hbObjectMapper.readValue(result, hbRecordClass));
-            }
+        //批量获取
+        Result[] results = tableHandles.table().get(gets);
+        for (Result result : results) {
+            records.add(decode(result));
         }
         return records;
     }
@@ -204,6 +462,8 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
 
     /**
      * Get specified number of versions of rows from HBase table by array of row keys (This method is a bulk variant of {@link #get(Serializable, int) get(R, int)} method)
+     * <br><br>
+     * Row keys are fetched in chunks, as per {@link HBDAOOptions#setMultiGetOptions(MultiGetOptions) options of this DAO}. Use {@link #get(List, int, MultiGetOptions)} for finer control.
      *
      * @param rowKeys            Row keys to fetch
      * @param numVersionsToFetch Number of versions to be retrieved
@@ -211,18 +471,9 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public T[] get(R[] rowKeys, int numVersionsToFetch) throws IOException {
-        List<Get> gets = new ArrayList<>(rowKeys.length);
-        for (R rowKey : rowKeys) {
-            gets.add(new Get(toBytes(rowKey)).readVersions(numVersionsToFetch));
-        }
+        final List<T> recordsList = get(Arrays.asList(rowKeys), numVersionsToFetch);
         @SuppressWarnings("unchecked") T[] records = (T[]) Array.newInstance(hbRecordClass, rowKeys.length);
-        try (Table table = getHBaseTable()) {
-            Result[] results = table.get(gets);
-            for (int i = 0; i < records.length; i++) {
-                records[i] = hbObjectMapper.readValue(rowKeys[i], results[i], hbRecordClass);
-            }
-        }
-        return records;
+        return recordsList.toArray(records);
     }
 
     /**
@@ -238,6 +489,10 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
 
     /**
      * Get specified number of versions of rows from HBase table by list of row keys (This method is a multi-version variant of {@link #get(List)} method)
+     * <br><br>
+     * Row keys are fetched in chunks, as per {@link HBDAOOptions#setMultiGetOptions(MultiGetOptions) options of this DAO}. Use {@link #get(List, int, MultiGetOptions)} for finer control.
+     * If read-through cache is {@link HBDAOOptions#setEntityCache(EntityCacheConfig) enabled}, single-version reads are served from it (and only rows missing in cache are fetched).
+     * If absent-key filter is {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig) enabled}, row keys known not to exist are not fetched at all.
      *
      * @param rowKeys            Row keys to fetch
      * @param numVersionsToFetch Number of versions to be retrieved
@@ -245,18 +500,176 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public List<T> get(List<R> rowKeys, int numVersionsToFetch) throws IOException {
+        if (absentKeyFilter == null) {
+            return getPossiblyCached(rowKeys, numVersionsToFetch);
+        }
+        int[] candidatePositions = new int[rowKeys.size()];
+        List<R> candidateRowKeys = filterKnownAbsent(rowKeys, candidatePositions);
+        final long absentStamp = absentKeyFilter.stamp();
+        List<T> candidateRecords = candidateRowKeys.isEmpty() ? Collections.<T>emptyList() : getPossiblyCached(candidateRowKeys, numVersionsToFetch);
+        List<T> records = new ArrayList<>(Collections.<T>nCopies(rowKeys.size(), null));
+        for (int i = 0; i < candidateRecords.size(); i++) {
+            T record = candidateRecords.get(i);
+            if (record == null) {
+                absentKeyFilter.markAbsent(candidateRowKeys.get(i), absentStamp);
+            } else {
+                records.set(candidatePositions[i], record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Get specified number of versions of rows from HBase table by list of row keys, considering only cells whose timestamps fall in given bounds (time-bound variant of {@link #get(List, int)})
+     * <br><br>
+     * The time range is applied by HBase (on each {@link Get}). Read-through cache, if enabled, is bypassed.
+     *
+     * @param rowKeys            Row keys to fetch
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return List of rows corresponding to row keys passed (in the same order), deserialized as objects of your bean-like class (<code>null</code> for rows that have no cells in given bounds)
+     * @throws IOException When HBase call fails
+     */
+    public List<T> get(List<R> rowKeys, TimeBounds timeBounds, int numVersionsToFetch) throws IOException {
+        if (absentKeyFilter == null) {
+            return getInChunks(rowKeys, numVersionsToFetch, multiGetOptions, timeBounds);
+        }
+        int[] candidatePositions = new int[rowKeys.size()];
+        List<R> candidateRowKeys = filterKnownAbsent(rowKeys, candidatePositions);
+        List<T> candidateRecords = candidateRowKeys.isEmpty() ? Collections.<T>emptyList() : getInChunks(candidateRowKeys, numVersionsToFetch, multiGetOptions, timeBounds);
+        List<T> records = new ArrayList<>(Collections.<T>nCopies(rowKeys.size(), null));
+        for (int i = 0; i < candidateRecords.size(); i++) {
+            records.set(candidatePositions[i], candidateRecords.get(i));
+        }
+        return records;
+    }
+
+    /**
+     * Filters out row keys known not to exist (absent-key filter must be enabled)
+     *
+     * @param positions Receives position (in given list) of each row key retained, in order
+     * @return Row keys retained
+     */
+    private List<R> filterKnownAbsent(List<R> rowKeys, int[] positions) {
+        List<R> candidateRowKeys = new ArrayList<>(rowKeys.size());
+        for (int i = 0; i < rowKeys.size(); i++) {
+            R rowKey = rowKeys.get(i);
+            if (!absentKeyFilter.isKnownAbsent(rowKey, toBytes(rowKey))) {
+                positions[candidateRowKeys.size()] = i;
+                candidateRowKeys.add(rowKey);
+            }
+        }
+        return candidateRowKeys;
+    }
+
+    private List<T> getPossiblyCached(List<R> rowKeys, int numVersionsToFetch) throws IOException {
+        if (entityCache != null && numVersionsToFetch == 1) {
+            return tracked(entityCache.getAll(rowKeys));
+        }
+        return get(rowKeys, numVersionsToFetch, multiGetOptions);
+    }
+
+    /**
+     * Get specified number of versions of rows from HBase table by list of row keys, by splitting row keys into chunks and fetching chunks concurrently (as per options provided)
+     * <br><br>
+     * Each chunk is decoded as soon as it is fetched. Hence, network time of one chunk overlaps with decoding of another.
+     *
+     * @param rowKeys            Row keys to fetch
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @param options            Chunk size, bound on number of chunks in flight etc.
+     * @return List of rows corresponding to row keys passed (in the same order), deserialized as objects of your bean-like class (<code>null</code> for rows that don't exist)
+     * @throws MultiGetFailedException When one or more chunks fail (other chunks are fetched regardless)
+     * @throws IOException             When HBase call fails
+     * @see #get(List, int, MultiGetOptions, MultiGetListener)
+     */
+    public List<T> get(List<R> rowKeys, final int numVersionsToFetch, MultiGetOptions options) throws IOException {
+        return getInChunks(rowKeys, numVersionsToFetch, options, null);
+    }
+
+    /**
+     * @param timeBounds Bounds on timestamps of cells to fetch (<code>null</code> for no bounds)
+     */
+    private List<T> getInChunks(List<R> rowKeys, final int numVersionsToFetch, MultiGetOptions options, TimeBounds timeBounds) throws IOException {
+        final List<T> records = new ArrayList<>(Collections.<T>nCopies(rowKeys.size(), null));
+        ChunkedMultiGet.executeAll(rowKeys, options, executorService,
+                chunk -> getChunk(chunk, numVersionsToFetch, timeBounds),
+                (offset, chunk, chunkRecords) -> {
+                    for (int i = 0; i < chunkRecords.size(); i++) {
+                        records.set(offset + i, chunkRecords.get(i));
+                    }
+                });
+        return records;
+    }
+
+    /**
+     * Streaming variant of {@link #get(List, int, MultiGetOptions)}: records are handed over to listener chunk by chunk, as soon as each chunk is fetched and decoded (instead of being collected into a list)
+     * <br><br>
+     * This method returns after all chunks have either been delivered to {@link MultiGetListener#onChunk} or reported to {@link MultiGetListener#onChunkFailure}.
+     *
+     * @param rowKeys            Row keys to fetch
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @param options            Chunk size, bound on number of chunks in flight etc.
+     * @param listener           Callback that receives records (or failure) of each chunk
+     * @throws IOException When interrupted while waiting for chunks
+     */
+    public void get(List<R> rowKeys, final int numVersionsToFetch, MultiGetOptions options, final MultiGetListener<R, T> listener) throws IOException {
+        ChunkedMultiGet.execute(rowKeys, options, executorService,
+                chunk -> getChunk(chunk, numVersionsToFetch, null),
+                new ChunkedMultiGet.ChunkConsumer<R, List<T>>() {
+                    @Override
+                    public void accept(int chunkIndex, int offset, List<R> chunk, List<T> chunkRecords) {
+                        listener.onChunk(chunkIndex, chunk, chunkRecords);
+                    }
+
+                    @Override
+                    public void failed(int chunkIndex, int offset, List<R> chunk, Throwable cause) {
+                        listener.onChunkFailure(chunkIndex, chunk, cause);
+                    }
+                });
+    }
+
+    /**
+     * @param projection Columns to fetch (<code>null</code> for all)
+     * @param timeBounds Bounds on timestamps of cells to fetch (<code>null</code> for no bounds)
+     */
+    private Result[] getChunkResults(List<R> rowKeys, int numVersionsToFetch, List<WrappedHBColumn> projection, TimeBounds timeBounds) throws IOException {
         List<Get> gets = new ArrayList<>(rowKeys.size());
-        //封装多个rowKey
         for (R rowKey : rowKeys) {
-            gets.add(new Get(toBytes(rowKey)).readVersions(numVersionsToFetch));
-        }
-        //获取
-        List<T> records = new ArrayList<>(rowKeys.size());
-        try (Table table = getHBaseTable()) {
-            Result[] results = table.get(gets);
-            for (Result result : results) {
-                records.add(hbObjectMapper.readValue(result, hbRecordClass));
+            Get get = new Get(toBytes(rowKey)).readVersions(numVersionsToFetch);
+            if (projection != null) {
+                for (WrappedHBColumn hbColumn : projection) {
+                    get.addColumn(hbColumn.familyBytes(), hbColumn.columnBytes());
+                }
+            }
+            if (timeBounds != null) {
+                timeBounds.applyTo(get);
             }
+            gets.add(get);
+        }
+        return tableHandles.table().get(gets);
+    }
+
+    private Result[] fetchResults(List<R> rowKeys, final int numVersionsToFetch, MultiGetOptions options) throws IOException {
+        return fetchResults(rowKeys, numVersionsToFetch, options, null, null);
+    }
+
+    /**
+     * @param projection Columns to fetch (<code>null</code> for all)
+     * @param timeBounds Bounds on timestamps of cells to fetch (<code>null</code> for no bounds)
+     */
+    private Result[] fetchResults(List<R> rowKeys, final int numVersionsToFetch, MultiGetOptions options, List<WrappedHBColumn> projection, TimeBounds timeBounds) throws IOException {
+        final Result[] results = new Result[rowKeys.size()];
+        ChunkedMultiGet.executeAll(rowKeys, options, executorService,
+                chunk -> getChunkResults(chunk, numVersionsToFetch, projection, timeBounds),
+                (offset, chunk, chunkResults) -> System.arraycopy(chunkResults, 0, results, offset, chunkResults.length));
+        return results;
+    }
+
+    private List<T> getChunk(List<R> rowKeys, int numVersionsToFetch, TimeBounds timeBounds) throws IOException {
+        Result[] results = getChunkResults(rowKeys, numVersionsToFetch, null, timeBounds);
+        List<T> records = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            records.add(decode(rowKeys.get(i), results[i]));
         }
         return records;
     }
@@ -273,6 +686,184 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         return get(rowKeys, 1);
     }
 
+    /**
+     * Get a row from HBase table by it's row key, possibly from a region replica (as per options passed)
+     * <br><br>
+     * If {@link ReadOptions#hedgeAfter(long, java.util.concurrent.TimeUnit) hedging} is enabled and the read doesn't complete within the hedge delay, a duplicate read is sent to a replica, and whichever succeeds first is returned. Read-through cache, read coalescing and micro-batching, if enabled, are bypassed.
+     *
+     * @param rowKey  Row key
+     * @param options Consistency, replica and hedging options
+     * @return HBase row, deserialized as object of your bean-like class, along with whether it may be stale
+     * @throws IOException When HBase call fails (when hedged, when both reads fail)
+     */
+    public ReadResult<T> get(R rowKey, ReadOptions options) throws IOException {
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        if (absentKeyFilter != null && absentKeyFilter.isKnownAbsent(rowKey, rowKeyBytes)) {
+            return new ReadResult<>(null, false);
+        }
+        final Get get = options.applyTo(new Get(rowKeyBytes));
+        final Result result = options.isHedged() ? fetchHedged(get, options) : tableHandles.table().get(get);
+        return new ReadResult<>(decode(rowKey, result), result.isStale());
+    }
+
+    private Result fetchHedged(Get get, ReadOptions options) throws IOException {
+        final CompletableFuture<Result> primary = fetchAsync(get);
+        try {
+            return primary.get(options.getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // slow to respond: hedge below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for read of a row").initCause(e);
+        } catch (ExecutionException e) {
+            return FutureResults.get(primary, "read of a row"); // rethrows failure of read
+        }
+        final CompletableFuture<Result> hedge = fetchAsync(options.toHedge(get));
+        final CompletableFuture<Result> firstSuccess = new CompletableFuture<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final BiConsumer<Result, Throwable> onCompletion = (result, cause) -> {
+            if (cause == null) {
+                firstSuccess.complete(result);
+            } else if (failures.incrementAndGet() == 2) {
+                firstSuccess.completeExceptionally(cause);
+            }
+        };
+        primary.whenComplete(onCompletion);
+        hedge.whenComplete(onCompletion);
+        try {
+            return FutureResults.get(firstSuccess, "hedged read of a row");
+        } finally {
+            primary.cancel(false); // no-op for completed ones
+            hedge.cancel(false);
+        }
+    }
+
+    private CompletableFuture<Result> fetchAsync(Get get) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return tableHandles.table().get(get);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executorService);
+    }
+
+    /**
+     * Get rows from HBase table by list of row keys, possibly from region replicas (as per options passed)
+     * <br><br>
+     * Row keys are fetched in chunks, as per {@link HBDAOOptions#setMultiGetOptions(MultiGetOptions) options of this DAO}. Hedging doesn't apply to this method (with {@link org.apache.hadoop.hbase.client.Consistency#TIMELINE TIMELINE} consistency, HBase itself falls back to replicas for slow regions).
+     *
+     * @param rowKeys Row keys to fetch
+     * @param options Consistency and replica options
+     * @return Rows corresponding to row keys passed (in the same order), along with whether they may be stale
+     * @throws MultiGetFailedException When one or more chunks fail (other chunks are fetched regardless)
+     * @throws IOException             When HBase call fails
+     */
+    public List<ReadResult<T>> get(List<R> rowKeys, final ReadOptions options) throws IOException {
+        final List<ReadResult<T>> readResults = new ArrayList<>(Collections.<ReadResult<T>>nCopies(rowKeys.size(), null));
+        ChunkedMultiGet.executeAll(rowKeys, multiGetOptions, executorService,
+                chunk -> {
+                    List<Get> gets = new ArrayList<>(chunk.size());
+                    for (R rowKey : chunk) {
+                        gets.add(options.applyTo(new Get(toBytes(rowKey))));
+                    }
+                    Result[] results = tableHandles.table().get(gets);
+                    List<ReadResult<T>> chunkResults = new ArrayList<>(results.length);
+                    for (int i = 0; i < results.length; i++) {
+                        chunkResults.add(new ReadResult<>(decode(chunk.get(i), results[i]), results[i].isStale()));
+                    }
+                    return chunkResults;
+                },
+                (offset, chunk, chunkResults) -> {
+                    for (int i = 0; i < chunkResults.size(); i++) {
+                        readResults.set(offset + i, chunkResults.get(i));
+                    }
+                });
+        return readResults;
+    }
+
+    /**
+     * Get records from HBase table for a given {@link Scan} object, possibly from region replicas (as per options passed)
+     * <br><br>
+     * Hedging doesn't apply to this method.
+     * <br><br>
+     * <b>Caution:</b> If you expect large number or rows for given scan criteria, do <u>not</u> use this method.
+     *
+     * @param scan    HBase's scan object (not modified by this method)
+     * @param options Consistency and replica options
+     * @return Records corresponding to {@link Scan} object passed, along with whether they may be stale
+     * @throws IOException When HBase call fails
+     */
+    public List<ReadResult<T>> get(Scan scan, ReadOptions options) throws IOException {
+        List<ReadResult<T>> readResults = new ArrayList<>();
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(options.applyTo(new Scan(scan)))) {
+            for (Result result : scanner) {
+                readResults.add(new ReadResult<>(decode(result), result.isStale()));
+            }
+        }
+        return readResults;
+    }
+
+    /**
+     * Check whether a row exists, without fetching it's contents (only existence is sent back by HBase)
+     * <br><br>
+     * If absent-key filter is {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig) enabled}, row keys known not to exist are answered without an RPC.
+     *
+     * @param rowKey Row key
+     * @return <code>true</code> if row exists
+     * @throws IOException When HBase call fails
+     */
+    public boolean exists(R rowKey) throws IOException {
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        if (absentKeyFilter != null && absentKeyFilter.isKnownAbsent(rowKey, rowKeyBytes)) {
+            return false;
+        }
+        final long absentStamp = absentStamp();
+        final boolean exists = tableHandles.table().exists(new Get(rowKeyBytes));
+        if (!exists && absentKeyFilter != null) {
+            absentKeyFilter.markAbsent(rowKey, absentStamp);
+        }
+        return exists;
+    }
+
+    /**
+     * Check whether rows exist, without fetching their contents (bulk variant of {@link #exists(Serializable) exists(R)})
+     * <br><br>
+     * Row keys are checked in chunks, concurrently, as per {@link HBDAOOptions#setMultiGetOptions(MultiGetOptions) options of this DAO}. Each chunk is a single batched existence check, so only existence bits cross the network.
+     *
+     * @param rowKeys Row keys to check
+     * @return Existence of rows, in the same order as row keys passed
+     * @throws MultiGetFailedException When one or more chunks fail (other chunks are checked regardless)
+     * @throws IOException             When HBase call fails
+     */
+    public boolean[] exists(List<R> rowKeys) throws IOException {
+        final boolean[] exists = new boolean[rowKeys.size()];
+        final int[] candidatePositions = absentKeyFilter == null ? null : new int[rowKeys.size()];
+        final List<R> candidateRowKeys = absentKeyFilter == null ? rowKeys : filterKnownAbsent(rowKeys, candidatePositions);
+        final long absentStamp = absentStamp();
+        ChunkedMultiGet.executeAll(candidateRowKeys, multiGetOptions, executorService,
+                chunk -> {
+                    List<Get> gets = new ArrayList<>(chunk.size());
+                    for (R rowKey : chunk) {
+                        gets.add(new Get(toBytes(rowKey)));
+                    }
+                    return tableHandles.table().exists(gets);
+                },
+                (offset, chunk, chunkExists) -> {
+                    for (int i = 0; i < chunkExists.length; i++) {
+                        exists[candidatePositions == null ? offset + i : candidatePositions[offset + i]] = chunkExists[i];
+                    }
+                });
+        if (absentKeyFilter != null) {
+            for (int i = 0; i < candidateRowKeys.size(); i++) {
+                if (!exists[candidatePositions[i]]) {
+                    absentKeyFilter.markAbsent(candidateRowKeys.get(i), absentStamp);
+                }
+            }
+        }
+        return exists;
+    }
+
     /**
      * Get specified number of versions of rows from HBase table by a range of row keys - start key (inclusive) to end key (exclusive)
      * <br><br>
@@ -295,6 +886,45 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         return get(scan);
     }
 
+    /**
+     * Get specified number of versions of rows from HBase table by a range of row keys - start key (inclusive) to end key (exclusive), in given direction and up to given number of rows
+     * <br><br>
+     * The limit is applied by HBase (see {@link Scan#setLimit(int)}), so region servers stop after that many rows. When reversed, rows are returned from end key (exclusive) down to start key (inclusive), i.e. the range is the same as that of a forward scan.
+     *
+     * @param startRowKey        Row start (inclusive)
+     * @param endRowKey          Row end (exclusive)
+     * @param reversed           Whether to scan in descending order of row keys
+     * @param limit              Maximum number of records to fetch (<code>0</code> for no limit)
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return List of rows corresponding to row keys passed (in order of scan), deserialized as objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public List<T> get(R startRowKey, R endRowKey, boolean reversed, int limit, int numVersionsToFetch) throws IOException {
+        return get(limit(rangeScan(startRowKey, endRowKey, reversed), limit).readVersions(numVersionsToFetch));
+    }
+
+    /**
+     * Get specified number of versions of rows from HBase table by a range of row keys - start key (inclusive) to end key (exclusive), considering only cells whose timestamps fall in given bounds
+     * <br><br>
+     * The time range is applied by HBase (on {@link Scan}), so store files and cells outside it are skipped by region servers. Rows with no cells in given bounds aren't returned.
+     * <br><br>
+     * <b>Caution:</b> If you expect large number or rows for given start and end row keys, do <u>not</u> use this method. Use the iterable variant {@link #records(Serializable, Serializable, TimeBounds, int) records(R, R, TimeBounds, int)} instead.
+     *
+     * @param startRowKey        Row start
+     * @param endRowKey          Row end
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return List of rows corresponding to row keys passed, deserialized as objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public List<T> get(R startRowKey, R endRowKey, TimeBounds timeBounds, int numVersionsToFetch) throws IOException {
+        Scan scan = new Scan()
+                .withStartRow(toBytes(startRowKey))
+                .withStopRow(toBytes(endRowKey))
+                .readVersions(numVersionsToFetch);
+        return get(timeBounds.applyTo(scan));
+    }
+
     /**
      * Get specified number of versions of rows from HBase table by a range of row keys - start key (inclusive) to end key (exclusive)
      * <br><br>
@@ -328,31 +958,84 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      */
     public List<T> get(Scan scan) throws IOException {
         List<T> records = new ArrayList<>();
-        try (Table table = getHBaseTable();
-             ResultScanner scanner = table.getScanner(scan)) {
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(scan)) {
+            if (RowAssemblingIterator.isNeededFor(scan)) {
+                Records.iterator(hbObjectMapper, hbRecordClass, scanner.iterator(), true).forEachRemaining(records::add);
+                return tracked(records);
+            }
             for (Result result : scanner) {
-                records.add(hbObjectMapper.readValue(result, hbRecordClass));
+                records.add(decode(result));
             }
         }
         return records;
     }
 
     /**
-     * Get records whose row keys match provided prefix
+     * Get a page of records matching given {@link Scan} object, resuming after the previous page (if any)
      * <br><br>
-     * <b>Caution:</b> If you expect large number or rows for given row key prefix, do <u>not</u> use this method. Use the iterable variant {@link #recordsByPrefix(byte[], int)} instead.
+     * Each call is a single bounded scan (limited to <code>pageSize + 1</code> rows), with nothing held open across calls. Pages are delimited by row keys, so a page never repeats or skips rows that existed throughout the paging. Reversed scans are supported.
+     * <br><br>
+     * If given scan isn't restricted to a time range, the first page restricts it to cells written till then and the cursor carries this time range forward, so that subsequent pages don't see cells written after paging began (for a consistent view). Note that this relies on clocks of region servers and this process being roughly in sync.
      *
-     * @param rowPrefix          Prefix to scan for
-     * @param numVersionsToFetch Number of versions to be retrieved
-     * @return Records corresponding to provided prefix, deserialized as list of objects of your bean-like class
-     * @throws IOException When HBase call fails
+     * @param scan     HBase's scan object (not modified by this method). Pass the same scan for every page. It's limit, if any, is ignored.
+     * @param pageSize Maximum number of records per page
+     * @param cursor   Cursor returned with the previous page (see {@link Page#getCursor()}), <code>null</code> for the first page
+     * @return A page of records, along with a cursor for the next page
+     * @throws IOException              When HBase call fails
+     * @throws IllegalArgumentException When cursor is malformed or doesn't match scan's direction
      */
-    public List<T> getByPrefix(byte[] rowPrefix, int numVersionsToFetch) throws IOException {
-        Scan scan = new Scan()
-                .setRowPrefixFilter(rowPrefix)
-                .readVersions(numVersionsToFetch);
-        return get(scan);
-    }
+    public Page<T> page(Scan scan, int pageSize, byte[] cursor) throws IOException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be a positive number (found " + pageSize + ")");
+        }
+        final Scan pageScan = new Scan(scan)
+                .setLimit(pageSize + 1)
+                .setCaching(pageSize + 1);
+        if (cursor == null) {
+            if (scan.getTimeRange().isAllTime()) {
+                pageScan.setTimeRange(0, System.currentTimeMillis() + 1);
+            }
+        } else {
+            final PageCursor pageCursor = PageCursor.fromBytes(cursor);
+            if (pageCursor.isReversed() != scan.isReversed()) {
+                throw new IllegalArgumentException("Cursor was issued for a " + (pageCursor.isReversed() ? "reversed" : "forward") + " scan, but scan is " + (scan.isReversed() ? "reversed" : "forward"));
+            }
+            pageScan.withStartRow(pageCursor.getLastRow(), false)
+                    .setTimeRange(pageCursor.getMinStamp(), pageCursor.getMaxStamp());
+        }
+        final TimeRange timeRange = pageScan.getTimeRange();
+        final List<T> records = new ArrayList<>(pageSize);
+        byte[] lastRow = null;
+        boolean hasMore = false;
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(pageScan)) {
+            for (Result result : scanner) {
+                if (records.size() == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                records.add(decode(result));
+                lastRow = result.getRow();
+            }
+        }
+        return new Page<>(records, hasMore ? new PageCursor(scan.isReversed(), timeRange, lastRow).toBytes() : null);
+    }
+
+    /**
+     * Get records whose row keys match provided prefix
+     * <br><br>
+     * <b>Caution:</b> If you expect large number or rows for given row key prefix, do <u>not</u> use this method. Use the iterable variant {@link #recordsByPrefix(byte[], int)} instead.
+     *
+     * @param rowPrefix          Prefix to scan for
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return Records corresponding to provided prefix, deserialized as list of objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public List<T> getByPrefix(byte[] rowPrefix, int numVersionsToFetch) throws IOException {
+        Scan scan = new Scan()
+                .setRowPrefixFilter(rowPrefix)
+                .readVersions(numVersionsToFetch);
+        return get(scan);
+    }
 
     /**
      * Get records whose row keys match provided prefix
@@ -367,15 +1050,214 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         return getByPrefix(rowPrefix, 1);
     }
 
+    /**
+     * Get records whose row keys match provided prefix, in given direction and up to given number of rows
+     * <br><br>
+     * The limit is applied by HBase (see {@link Scan#setLimit(int)}), so region servers stop after that many rows. For example, if row keys end with a timestamp, <code>getByPrefix(prefix, true, 10, 1)</code> fetches the 10 newest records under <code>prefix</code>.
+     *
+     * @param rowPrefix          Prefix to scan for
+     * @param reversed           Whether to scan in descending order of row keys
+     * @param limit              Maximum number of records to fetch (<code>0</code> for no limit)
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return Records corresponding to provided prefix (in order of scan), deserialized as list of objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public List<T> getByPrefix(byte[] rowPrefix, boolean reversed, int limit, int numVersionsToFetch) throws IOException {
+        return get(limit(prefixScan(rowPrefix, reversed), limit).readVersions(numVersionsToFetch));
+    }
+
+    /**
+     * Get last few records (in order of row keys) whose row keys match provided prefix, last one first
+     * <br><br>
+     * This is a shorthand for <code>getByPrefix(rowPrefix, true, numRecords, 1)</code>. When row keys end with a time component (e.g. <code>user#timestamp</code>), these are the latest records under the prefix.
+     *
+     * @param rowPrefix  Prefix to scan for
+     * @param numRecords Maximum number of records to fetch
+     * @return Records corresponding to provided prefix, in descending order of row keys
+     * @throws IOException When HBase call fails
+     */
+    public List<T> getLastByPrefix(byte[] rowPrefix, int numRecords) throws IOException {
+        if (numRecords < 1) {
+            throw new IllegalArgumentException("Number of records must be a positive number (found " + numRecords + ")");
+        }
+        return getByPrefix(rowPrefix, true, numRecords, 1);
+    }
+
+    /**
+     * @return A scan over rows whose keys start with given prefix, in given direction
+     */
+    private static Scan prefixScan(byte[] rowPrefix, boolean reversed) {
+        if (!reversed) {
+            return new Scan().setRowPrefixFilter(rowPrefix);
+        }
+        // A reversed scan starts at the larger row key: just before the first row key beyond the prefix and stops at (and includes) the prefix itself
+        final byte[] prefixEnd = nextPrefix(rowPrefix);
+        return new Scan()
+                .withStartRow(prefixEnd, prefixEnd.length == 0)
+                .withStopRow(rowPrefix, true)
+                .setReversed(true);
+    }
+
+    /**
+     * @return Smallest byte array that's greater than all byte arrays starting with given prefix (an empty array, to denote end of table, if there's no such array)
+     */
+    private static byte[] nextPrefix(byte[] rowPrefix) {
+        int length = rowPrefix.length;
+        while (length > 0 && rowPrefix[length - 1] == (byte) 0xFF) {
+            length--;
+        }
+        if (length == 0) {
+            return HConstants.EMPTY_END_ROW;
+        }
+        final byte[] nextPrefix = Arrays.copyOf(rowPrefix, length);
+        nextPrefix[length - 1]++;
+        return nextPrefix;
+    }
+
+    /**
+     * @return A scan over range of row keys [startRowKey, endRowKey), in given direction
+     */
+    private Scan rangeScan(R startRowKey, R endRowKey, boolean reversed) {
+        if (!reversed) {
+            return new Scan()
+                    .withStartRow(toBytes(startRowKey))
+                    .withStopRow(toBytes(endRowKey));
+        }
+        return new Scan()
+                .withStartRow(toBytes(endRowKey), false)
+                .withStopRow(toBytes(startRowKey), true)
+                .setReversed(true);
+    }
+
+    private static Scan limit(Scan scan, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be negative (found " + limit + ")");
+        }
+        if (limit > 0) {
+            scan.setLimit(limit).setCaching(limit);
+        }
+        return scan;
+    }
+
+    /**
+     * Get a stream of records matching given {@link Scan} object
+     * <br><br>
+     * The stream can be made {@link Stream#parallel() parallel}: it splits along region boundaries first and then into batches of raw rows, which are decoded by the threads consuming them. A parallel stream scans regions concurrently, hence don't use it if ordering of rows matters to an unordered terminal operation (e.g. <code>forEach</code>). Reversed scans and scans with a limit are never split by region.
+     * <br><br>
+     * <b>Note</b>: The stream holds scanners open till it's closed. Hence, use it in a try-with-resources block:
+     * <pre>
+     * try (Stream&lt;Citizen&gt; citizens = citizenDao.stream(scan)) {
+     *   citizens.parallel().filter(...).collect(...);
+     * }
+     * </pre>
+     *
+     * @param scan HBase's scan object
+     * @return A stream of records matching the scan criteria, deserialized as objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public Stream<T> stream(Scan scan) throws IOException {
+        return stream(scan, result -> decode(result));
+    }
+
+    private <E> Stream<E> stream(Scan scan, Function<Result, E> decoder) throws IOException {
+        if (RowAssemblingIterator.isNeededFor(scan)) {
+            throw new IllegalArgumentException("Streams don't support scans with partial results or batching (use records(Scan) to iterate over such scans)");
+        }
+        final List<Scan> scans = RegionRanges.split(connection, hbTable.getName(), scan);
+        final Set<ResultScanner> openScanners = ConcurrentHashMap.newKeySet();
+        return StreamSupport.stream(new ScanSpliterator<>(tableHandles::scanTable, scans, decoder, openScanners), false)
+                .onClose(() -> {
+                    for (ResultScanner scanner : openScanners) {
+                        scanner.close();
+                    }
+                    openScanners.clear();
+                });
+    }
+
+    /**
+     * Stream row keys of rows matching given {@link Scan} object, without fetching their contents
+     * <br><br>
+     * Only the key of first cell of each row (without it's value) is fetched from HBase. If given scan has a filter, the filter is retained but all cells of each row are fetched (without values), so that the filter gets to see them. The stream can be {@link Stream#parallel() parallelized}, in which case regions of the table are scanned in parallel. Close the stream if you abandon it midway.
+     *
+     * @param scan HBase's scan object (not modified by this method)
+     * @return Stream of row keys, in order of rows in HBase
+     * @throws IOException When HBase call fails
+     */
+    public Stream<R> keys(Scan scan) throws IOException {
+        return stream(keysOnly(scan), result -> hbObjectMapper.<R, T>bytesToRowKey(result.getRow(), hbTable.getCodecFlags(), hbRecordClass));
+    }
+
+    /**
+     * Stream row keys for a range of row keys (start to end), without fetching contents of rows
+     *
+     * @param startRowKey Row start (inclusive)
+     * @param endRowKey   Row end (exclusive)
+     * @return Stream of row keys, in order of rows in HBase
+     * @throws IOException When HBase call fails
+     * @see #keys(Scan)
+     */
+    public Stream<R> keys(R startRowKey, R endRowKey) throws IOException {
+        return keys(new Scan()
+                .withStartRow(toBytes(startRowKey))
+                .withStopRow(toBytes(endRowKey))
+                .setCaching(KEYS_SCAN_CACHING));
+    }
+
+    /**
+     * Same as {@link #keys(Scan)}, except that row keys are returned as is (i.e. not decoded)
+     *
+     * @param scan HBase's scan object (not modified by this method)
+     * @return Stream of row keys (as stored in HBase), in order of rows in HBase
+     * @throws IOException When HBase call fails
+     */
+    public Stream<byte[]> rawKeys(Scan scan) throws IOException {
+        return stream(keysOnly(scan), Result::getRow);
+    }
+
+    private static Scan keysOnly(Scan scan) throws IOException {
+        final Filter filter;
+        if (scan.getFilter() == null) {
+            filter = new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter());
+        } else {
+            filter = new FilterList(scan.getFilter(), new KeyOnlyFilter());
+        }
+        return new Scan(scan).setFilter(filter);
+    }
+
     /**
      * Get an iterable to iterate over records matching given {@link Scan} object
+     * <br><br>
+     * For very wide rows (e.g. entities with {@link com.flipkart.hbaseobjectmapper.annotations.HBColumnMultiVersion multi-version} fields over families with many versions), let HBase return rows in parts, for example:
+     * <pre>
+     * new Scan()
+     *   .readVersions(10)
+     *   .setAllowPartialResults(true)
+     *   .setMaxResultSize(2 * 1024 * 1024);
+     * </pre>
+     * Parts of a row are merged into a single record as they arrive (without holding on to them), so memory per RPC stays bounded on both region server and client. {@link Scan#setBatch(int)} is supported likewise.
      *
      * @param scan HBase's scan object
      * @return An iterable to iterate over records matching the scan criteria
      * @throws IOException When HBase call fails
      */
     public Records<T> records(Scan scan) throws IOException {
-        return new Records<>(connection, hbObjectMapper, hbRecordClass, hbTable.getName(), scan);
+        return new Records<>(tableHandles.scanTable(), hbObjectMapper, hbRecordClass, scan)
+                .onRecord(dirtyFieldTracker == null ? null : this::tracked);
+    }
+
+    /**
+     * Get an iterable to iterate over records matching given {@link Scan} object, with rows fetched and decoded ahead of your iteration in background threads
+     * <br><br>
+     * Suited for long-running, single-threaded consumers (e.g. an export loop), whose throughput would otherwise be bound by network wait and decoding time put together. Records are returned in scan order. Close the returned object to stop background threads, if you abandon iteration midway.
+     *
+     * @param scan           HBase's scan object
+     * @param pipelineConfig Decode parallelism, buffer size etc. (see {@link ScanPipelineConfig})
+     * @return An iterable to iterate over records matching the scan criteria
+     * @throws IOException When HBase call fails
+     */
+    public Records<T> records(Scan scan, ScanPipelineConfig pipelineConfig) throws IOException {
+        return new Records<>(tableHandles.scanTable(), result -> hbObjectMapper.readValue(result, hbRecordClass), scan, pipelineConfig, "hbase-orm-" + hbTable + "-pipeline")
+                .onRecord(dirtyFieldTracker == null ? null : this::tracked);
     }
 
     /**
@@ -404,6 +1286,20 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         return records(scan);
     }
 
+    /**
+     * Get an iterable to iterate over records matching given row key prefix, in given direction and up to given number of rows (limit is applied by HBase)
+     *
+     * @param rowPrefix          Prefix to scan for
+     * @param reversed           Whether to scan in descending order of row keys
+     * @param limit              Maximum number of records to fetch (<code>0</code> for no limit)
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return An iterable over objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public Records<T> recordsByPrefix(byte[] rowPrefix, boolean reversed, int limit, int numVersionsToFetch) throws IOException {
+        return records(limit(prefixScan(rowPrefix, reversed), limit).readVersions(numVersionsToFetch));
+    }
+
     /**
      * Get an iterable to iterate over records matching range of row keys (start to end)
      *
@@ -460,6 +1356,41 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         return records(scan);
     }
 
+    /**
+     * Get an iterable to iterate over records matching range of row keys (start to end), in given direction and up to given number of rows (limit is applied by HBase)
+     *
+     * @param startRowKey        Row start (inclusive)
+     * @param endRowKey          Row end (exclusive)
+     * @param reversed           Whether to scan in descending order of row keys (i.e. from end key down to start key)
+     * @param limit              Maximum number of records to fetch (<code>0</code> for no limit)
+     * @param numVersionsToFetch Number of versions to be retrieved
+     * @return An iterable over objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public Records<T> records(R startRowKey, R endRowKey, boolean reversed, int limit, int numVersionsToFetch) throws IOException {
+        return records(limit(rangeScan(startRowKey, endRowKey, reversed), limit).readVersions(numVersionsToFetch));
+    }
+
+    /**
+     * Get an iterable to iterate over records matching range of row keys (start to end), considering only cells whose timestamps fall in given bounds (e.g. for incremental jobs that process rows {@link TimeBounds#since(long) changed since} their last run)
+     * <br><br>
+     * The time range is applied by HBase (on {@link Scan}), so store files and cells outside it are skipped by region servers. Rows with no cells in given bounds aren't returned.
+     *
+     * @param startRowKey        Row start (inclusive)
+     * @param endRowKey          Row end (exclusive)
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return An iterable over objects of your bean-like class
+     * @throws IOException When HBase call fails
+     */
+    public Records<T> records(R startRowKey, R endRowKey, TimeBounds timeBounds, int numVersionsToFetch) throws IOException {
+        Scan scan = new Scan()
+                .withStartRow(toBytes(startRowKey))
+                .withStopRow(toBytes(endRowKey))
+                .readVersions(numVersionsToFetch);
+        return records(timeBounds.applyTo(scan));
+    }
+
     private WrappedHBColumn validateAndGetLongColumn(String fieldName) {
         Field field = getField(fieldName);
         if (!Long.class.equals(field.getType())) {
@@ -480,8 +1411,12 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
     public long increment(R rowKey, String fieldName, long amount) throws IOException {
         //获取包装类
         WrappedHBColumn hbColumn = validateAndGetLongColumn(fieldName);
-        try (Table table = getHBaseTable()) {
-            return table.incrementColumnValue(toBytes(rowKey), hbColumn.familyBytes(), hbColumn.columnBytes(), amount);
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        markPresent(rowKey, rowKeyBytes);
+        try {
+            return tableHandles.table().incrementColumnValue(rowKeyBytes, hbColumn.familyBytes(), hbColumn.columnBytes(), amount);
+        } finally {
+            invalidateCached(rowKey);
         }
     }
 
@@ -497,8 +1432,67 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      */
     public long increment(R rowKey, String fieldName, long amount, Durability durability) throws IOException {
         WrappedHBColumn hbColumn = validateAndGetLongColumn(fieldName);
-        try (Table table = getHBaseTable()) {
-            return table.incrementColumnValue(toBytes(rowKey), hbColumn.familyBytes(), hbColumn.columnBytes(), amount, durability);
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        markPresent(rowKey, rowKeyBytes);
+        try {
+            return tableHandles.table().incrementColumnValue(rowKeyBytes, hbColumn.familyBytes(), hbColumn.columnBytes(), amount, durability);
+        } finally {
+            invalidateCached(rowKey);
+        }
+    }
+
+    /**
+     * Increments field by specified amount, locally: the increment is sent to HBase later, summed up with other increments of the same row and field (see {@link CounterAccumulatorConfig})
+     * <br><br>
+     * Use this instead of {@link #increment(Serializable, String, long) increment(R, String, long)} for hot counters, whose exact value is rarely read. Reads (other than {@link #fetchCounterValue(Serializable, String) fetchCounterValue(R, String)}) don't reflect the increment till it's flushed.
+     *
+     * @param rowKey    Row key of the record whose column needs to be incremented
+     * @param fieldName Field that needs to be incremented (this must be of {@link Long} type)
+     * @param amount    Amount by which the HBase column needs to be incremented
+     * @throws IllegalStateException When counter accumulation is not {@link HBDAOOptions#setCounterAccumulation(CounterAccumulatorConfig) enabled} for this DAO (or this DAO is closed)
+     */
+    public void accumulate(R rowKey, String fieldName, long amount) {
+        if (counterAccumulator == null) {
+            throw new IllegalStateException("Counter accumulation is not enabled for this DAO (see " + HBDAOOptions.class.getSimpleName() + ")");
+        }
+        WrappedHBColumn hbColumn = validateAndGetLongColumn(fieldName);
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        markPresent(rowKey, rowKeyBytes);
+        counterAccumulator.add(new CounterAccumulator.CounterKey<>(rowKey, rowKeyBytes, fieldName, hbColumn.familyBytes(), hbColumn.columnBytes()), amount);
+    }
+
+    /**
+     * Fetch value of a counter (a field of {@link Long} type), including increments {@link #accumulate(Serializable, String, long) accumulated} locally but not yet flushed to HBase (read-your-writes)
+     * <br><br>
+     * This waits for a flush in progress, if any.
+     *
+     * @param rowKey    Row key of the record
+     * @param fieldName Field whose value needs to be fetched (this must be of {@link Long} type)
+     * @return Value of counter (<code>0</code> if it doesn't exist and has no pending increments)
+     * @throws IOException When HBase call fails
+     */
+    public long fetchCounterValue(R rowKey, String fieldName) throws IOException {
+        WrappedHBColumn hbColumn = validateAndGetLongColumn(fieldName);
+        CounterAccumulator.StoredValueReader storedValueReader = () -> {
+            Long value = (Long) fetchFieldValue(rowKey, fieldName);
+            return value == null ? 0 : value;
+        };
+        if (counterAccumulator == null) {
+            return storedValueReader.read();
+        }
+        return counterAccumulator.read(new CounterAccumulator.CounterKey<>(rowKey, toBytes(rowKey), fieldName, hbColumn.familyBytes(), hbColumn.columnBytes()), storedValueReader);
+    }
+
+    /**
+     * Sends increments {@link #accumulate(Serializable, String, long) accumulated} locally to HBase and waits for them (does nothing if counter accumulation is not {@link HBDAOOptions#setCounterAccumulation(CounterAccumulatorConfig) enabled})
+     * <br><br>
+     * Increments that fail are kept locally, to be retried by next flush. Note that an increment that failed after HBase applied it (e.g. timed out) is applied twice.
+     *
+     * @throws IOException When one or more increments fail
+     */
+    public void flushCounters() throws IOException {
+        if (counterAccumulator != null) {
+            counterAccumulator.flush();
         }
     }
 
@@ -525,9 +1519,12 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public T increment(Increment increment) throws IOException {
-        try (Table table = getHBaseTable()) {
-            Result result = table.increment(increment);
-            return hbObjectMapper.readValue(result, hbRecordClass);
+        markPresent(increment.getRow());
+        try {
+            Result result = tableHandles.table().increment(increment);
+            return decode(result);
+        } finally {
+            invalidateCached(increment.getRow());
         }
     }
 
@@ -604,9 +1601,12 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public T append(Append append) throws IOException {
-        try (Table table = getHBaseTable()) {
-            Result result = table.append(append);
-            return hbObjectMapper.readValue(result, hbRecordClass);
+        markPresent(append.getRow());
+        try {
+            Result result = tableHandles.table().append(append);
+            return decode(result);
+        } finally {
+            invalidateCached(append.getRow());
         }
     }
 
@@ -624,6 +1624,8 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
 
     /**
      * Persist your bean-like object (of a class that implements {@link HBRecord}) to HBase table
+     * <br><br>
+     * If {@link HBDAOOptions#setDirtyFieldTracking(boolean) dirty-field tracking} is enabled and the object was read through this DAO, only fields that changed since it was read are written (nothing at all, if none changed), along with deletes of fields set to <code>null</code> if {@link HBDAOOptions#setDeleteNulledFields(boolean) so configured}, in a single atomic {@link RowMutations}.
      *
      * @param record Object that needs to be persisted
      * @return Row key of the persisted object, represented as a {@link String}
@@ -631,14 +1633,43 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      */
     public R persist(HBRecord<R> record) throws IOException {
         Put put = hbObjectMapper.writeValueAsPut(record);
-        try (Table table = getHBaseTable()) {
-            table.put(put);
-            return record.composeRowKey();
+        R rowKey = record.composeRowKey();
+        if (dirtyFieldTracker != null) {
+            DirtyFieldTracker.Changes changes = dirtyFieldTracker.changes(record, put);
+            if (changes.isEmpty()) {
+                return rowKey;
+            }
+            markPresent(rowKey, put.getRow());
+            try {
+                if (changes.delete.isEmpty()) {
+                    mutateRow(changes.put);
+                } else {
+                    tableHandles.table().mutateRow(RowMutations.of(changes.put.isEmpty()
+                            ? Collections.singletonList(changes.delete)
+                            : Arrays.asList(changes.put, changes.delete)));
+                }
+            } catch (IOException | RuntimeException e) {
+                dirtyFieldTracker.forget(record); // the write may have been applied regardless
+                throw e;
+            } finally {
+                invalidateCached(rowKey);
+            }
+            dirtyFieldTracker.snapshot(record, put);
+            return rowKey;
+        }
+        markPresent(rowKey, put.getRow());
+        try {
+            mutateRow(put);
+            return rowKey;
+        } finally {
+            invalidateCached(rowKey);
         }
     }
 
     /**
      * Persist a list of your bean-like objects (of a class that implements {@link HBRecord}) to HBase table (this is a bulk variant of {@link #persist(HBRecord)} method)
+     * <br><br>
+     * With {@link HBDAOOptions#setDirtyFieldTracking(boolean) dirty-field tracking}, only changed fields are written, as in {@link #persist(HBRecord)}. However, writes and deletes of a row aren't applied atomically here.
      *
      * @param records List of objects that needs to be persisted
      * @return Row keys of the persisted objects, represented as a {@link String}
@@ -651,13 +1682,195 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
             puts.add(hbObjectMapper.writeValueAsPut(object));
             rowKeys.add(object.composeRowKey());
         }
-        try (Table table = getHBaseTable()) {
-            table.put(puts);
+        List<Mutation> mutations = new ArrayList<>(puts.size());
+        if (dirtyFieldTracker != null) {
+            for (int i = 0; i < puts.size(); i++) {
+                DirtyFieldTracker.Changes changes = dirtyFieldTracker.changes(records.get(i), puts.get(i));
+                if (!changes.put.isEmpty()) {
+                    mutations.add(changes.put);
+                }
+                if (!changes.delete.isEmpty()) {
+                    mutations.add(changes.delete); // columns of put and delete of a row are disjoint, hence their order doesn't matter
+                }
+            }
+        } else {
+            mutations.addAll(puts);
+        }
+        for (int i = 0; i < puts.size(); i++) {
+            markPresent(rowKeys.get(i), puts.get(i).getRow());
+        }
+        try {
+            tableHandles.mutateAndFlush(mutations);
+        } catch (IOException | RuntimeException e) {
+            if (dirtyFieldTracker != null) {
+                for (T record : records) {
+                    dirtyFieldTracker.forget(record);
+                }
+            }
+            throw e;
+        } finally {
+            invalidateCached(rowKeys);
+        }
+        if (dirtyFieldTracker != null) {
+            for (int i = 0; i < puts.size(); i++) {
+                dirtyFieldTracker.snapshot(records.get(i), puts.get(i));
+            }
         }
         return rowKeys;
     }
 
 
+    /**
+     * Persist a (potentially huge) stream of your bean-like objects (of a class that implements {@link HBRecord}) to HBase table, e.g. for a backfill, with default {@link BulkPersistOptions options}
+     *
+     * @param records Objects that need to be persisted
+     * @return Outcome of bulk persist (number of records written, throughput etc.)
+     * @throws IOException When HBase call fails
+     * @see #bulkPersist(Iterator, BulkPersistOptions, BulkPersistListener)
+     */
+    public BulkPersistStats bulkPersist(Iterable<T> records) throws IOException {
+        return bulkPersist(records.iterator(), new BulkPersistOptions(), null);
+    }
+
+    /**
+     * Persist a (potentially huge) stream of your bean-like objects (of a class that implements {@link HBRecord}) to HBase table, e.g. for a backfill
+     * <br><br>
+     * Unlike {@link #persist(List)}, records are serialized in parallel and aren't all held in memory at once: they're read off the iterator only as fast as they can be written (see {@link BulkPersistOptions#maxInFlightBytes(long)}). Serialized records are grouped by the region they belong to (as per region boundaries when this method is called) and each chunk of a region is written in one call, so that every call goes to a single region server.
+     * <br><br>
+     * On failure, this method stops reading records, waits for writes in flight and throws. Records written till then stay written.
+     *
+     * @param records  Objects that need to be persisted (the iterator is consumed on the calling thread)
+     * @param options  Chunk size, parallelism and memory bound (see {@link BulkPersistOptions})
+     * @param listener Callback to track progress, invoked after each chunk is written (<code>null</code> if not needed)
+     * @return Outcome of bulk persist (number of records written, throughput, records written per region)
+     * @throws IOException When HBase call fails
+     */
+    public BulkPersistStats bulkPersist(Iterator<T> records, BulkPersistOptions options, BulkPersistListener listener) throws IOException {
+        final List<HRegionLocation> regionLocations;
+        try (RegionLocator regionLocator = connection.getRegionLocator(hbTable.getName())) {
+            regionLocations = new ArrayList<>(regionLocator.getAllRegionLocations());
+        }
+        regionLocations.sort((a, b) -> Bytes.compareTo(a.getRegion().getStartKey(), b.getRegion().getStartKey()));
+        final byte[][] startKeys = new byte[regionLocations.size()][];
+        final String[] regionNames = new String[regionLocations.size()];
+        for (int i = 0; i < regionLocations.size(); i++) {
+            startKeys[i] = regionLocations.get(i).getRegion().getStartKey();
+            regionNames[i] = regionLocations.get(i).getRegion().getRegionNameAsString();
+        }
+        return new RegionGroupedPersister<>(records, startKeys, regionNames, options, executorService,
+                hbObjectMapper::writeValueAsPut,
+                puts -> {
+                    for (Put put : puts) {
+                        markPresent(put.getRow());
+                    }
+                    try {
+                        tableHandles.table().put(puts);
+                    } finally {
+                        for (Put put : puts) {
+                            invalidateCached(put.getRow());
+                        }
+                    }
+                },
+                listener).execute();
+    }
+
+    /**
+     * Persist your bean-like object (of a class that implements {@link HBRecord}) to HBase table, without waiting for HBase to acknowledge the write (write-behind)
+     * <br><br>
+     * The record is serialized right away (so it may be modified once this method returns) and buffered, to be sent to HBase along with other buffered writes as per {@link WriteBehindConfig}. Reads of this DAO may not reflect the write till it's acknowledged.
+     *
+     * @param record Object that needs to be persisted
+     * @return Future that completes with row key of the persisted object once HBase acknowledges the write, or fails with the reason the write failed
+     * @throws IllegalStateException When write-behind is not {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled} for this DAO
+     */
+    public CompletableFuture<R> persistAsync(HBRecord<R> record) {
+        if (writeBehindBuffer == null) {
+            throw new IllegalStateException("Write-behind is not enabled for this DAO (see " + HBDAOOptions.class.getSimpleName() + ")");
+        }
+        Put put = hbObjectMapper.writeValueAsPut(record);
+        R rowKey = record.composeRowKey();
+        markPresent(rowKey, put.getRow());
+        invalidateCached(rowKey);
+        return writeBehindBuffer.put(put, rowKey)
+                .whenComplete((persistedRowKey, e) -> invalidateCached(rowKey));
+    }
+
+    /**
+     * Delete a row from HBase table, without waiting for HBase to acknowledge the delete (write-behind)
+     * <br><br>
+     * The delete cancels writes to the same row buffered before it (see {@link WriteBehindConfig}).
+     *
+     * @param rowKey Row key of the row to delete
+     * @return Future that completes with given row key once HBase acknowledges the delete, or fails with the reason the delete failed
+     * @throws IllegalStateException When write-behind is not {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled} for this DAO
+     */
+    public CompletableFuture<R> deleteAsync(R rowKey) {
+        if (writeBehindBuffer == null) {
+            throw new IllegalStateException("Write-behind is not enabled for this DAO (see " + HBDAOOptions.class.getSimpleName() + ")");
+        }
+        invalidateCached(rowKey);
+        return writeBehindBuffer.delete(rowKey, toBytes(rowKey))
+                .whenComplete((deletedRowKey, e) -> invalidateCached(rowKey)); // not marked absent: a write buffered after the delete may have recreated the row
+    }
+
+    /**
+     * Increments field by specified amount, without waiting for HBase to acknowledge the increment (write-behind)
+     * <br><br>
+     * Increments of the same field that are buffered together are summed into one (see {@link WriteBehindConfig}). Unlike {@link #increment(Serializable, String, long)}, this doesn't return the new value.
+     *
+     * @param rowKey    Row key of the record whose column needs to be incremented
+     * @param fieldName Field that needs to be incremented (this must be of {@link Long} type)
+     * @param amount    Amount by which the HBase column needs to be incremented
+     * @return Future that completes with given row key once HBase acknowledges the increment, or fails with the reason the increment failed
+     * @throws IllegalStateException When write-behind is not {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled} for this DAO
+     */
+    public CompletableFuture<R> incrementAsync(R rowKey, String fieldName, long amount) {
+        if (writeBehindBuffer == null) {
+            throw new IllegalStateException("Write-behind is not enabled for this DAO (see " + HBDAOOptions.class.getSimpleName() + ")");
+        }
+        WrappedHBColumn hbColumn = validateAndGetLongColumn(fieldName);
+        final byte[] rowKeyBytes = toBytes(rowKey);
+        markPresent(rowKey, rowKeyBytes);
+        invalidateCached(rowKey);
+        return writeBehindBuffer.increment(rowKey, rowKeyBytes, hbColumn.familyBytes(), hbColumn.columnBytes(), amount)
+                .whenComplete((incrementedRowKey, e) -> invalidateCached(rowKey));
+    }
+
+    /**
+     * Persist a list of your bean-like objects (of a class that implements {@link HBRecord}) to HBase table, without waiting for HBase to acknowledge the writes (this is a bulk variant of {@link #persistAsync(HBRecord)} method)
+     *
+     * @param records List of objects that needs to be persisted
+     * @return Future that completes with row keys of the persisted objects once HBase acknowledges all writes, or fails if any of the writes fails (use {@link #persistAsync(HBRecord)} to track writes individually)
+     * @throws IllegalStateException When write-behind is not {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled} for this DAO
+     */
+    public CompletableFuture<List<R>> persistAsync(List<T> records) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(records.size());
+        for (HBRecord<R> record : records) {
+            futures.add(persistAsync(record));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<R> rowKeys = new ArrayList<>(futures.size());
+                    for (CompletableFuture<R> future : futures) {
+                        rowKeys.add(future.join());
+                    }
+                    return rowKeys;
+                });
+    }
+
+    /**
+     * Sends writes buffered by {@link #persistAsync(HBRecord)} (and by {@link #deleteAsync(Serializable)} and {@link #incrementAsync(Serializable, String, long)}) to HBase and waits till they're acknowledged (does nothing if write-behind is not {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled})
+     * <br><br>
+     * Writes that fail don't fail this method; they fail their own futures.
+     *
+     * @throws IOException When the flush itself fails (e.g. when interrupted)
+     */
+    public void flush() throws IOException {
+        if (writeBehindBuffer != null) {
+            writeBehindBuffer.flush();
+        }
+    }
+
     /**
      * Delete a row from an HBase table for a given row key
      *
@@ -666,9 +1879,13 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      */
     public void delete(R rowKey) throws IOException {
         Delete delete = new Delete(toBytes(rowKey));
-        try (Table table = getHBaseTable()) {
-            table.delete(delete);
+        final long absentStamp = absentStamp();
+        try {
+            mutateRow(delete);
+        } finally {
+            invalidateCached(rowKey, false);
         }
+        markAbsent(Collections.singletonList(rowKey), absentStamp);
     }
 
     /**
@@ -692,9 +1909,15 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         for (R rowKey : rowKeys) {
             deletes.add(new Delete(toBytes(rowKey)));
         }
-        try (Table table = getHBaseTable()) {
-            table.delete(deletes);
+        final long absentStamp = absentStamp();
+        try {
+            tableHandles.mutateAndFlush(deletes);
+        } finally {
+            for (R rowKey : rowKeys) {
+                invalidateCached(rowKey, false);
+            }
         }
+        markAbsent(Arrays.asList(rowKeys), absentStamp);
     }
 
     /**
@@ -705,12 +1928,137 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      */
     public void delete(List<T> records) throws IOException {
         List<Delete> deletes = new ArrayList<>(records.size());
+        List<R> rowKeys = new ArrayList<>(records.size());
         for (HBRecord<R> record : records) {
-            deletes.add(new Delete(toBytes(record.composeRowKey())));
+            R rowKey = record.composeRowKey();
+            deletes.add(new Delete(toBytes(rowKey)));
+            rowKeys.add(rowKey);
+        }
+        final long absentStamp = absentStamp();
+        try {
+            tableHandles.mutateAndFlush(deletes);
+        } finally {
+            for (R rowKey : rowKeys) {
+                invalidateCached(rowKey, false);
+            }
+        }
+        markAbsent(rowKeys, absentStamp);
+    }
+
+    private void mutateRow(Mutation mutation) throws IOException {
+        if (microBatcher != null) {
+            microBatcher.execute(mutation);
+            return;
+        }
+        Table table = tableHandles.table();
+        if (mutation instanceof Put) {
+            table.put((Put) mutation);
+        } else {
+            table.delete((Delete) mutation);
+        }
+    }
+
+    /**
+     * Drops whatever this DAO remembers about given row (cached row, absent-key entry, in-flight fetch). Called after every write (successful or not), since the write may have been applied regardless.
+     */
+    private void invalidateCached(R rowKey) {
+        invalidateCached(rowKey, true);
+    }
+
+    /**
+     * @param forgetAbsent Whether to drop (and stamp) absent-key entry too. Deletes don't, as they mark rows absent right after (as of a stamp taken before they're sent, so that any concurrent write overrules them).
+     */
+    private void invalidateCached(R rowKey, boolean forgetAbsent) {
+        if (entityCache != null) {
+            entityCache.invalidate(rowKey);
+        }
+        if (absentKeyFilter != null && forgetAbsent) {
+            absentKeyFilter.forgetAbsent(rowKey);
+        }
+        if (readCoalescer != null) {
+            readCoalescer.forget(toBytes(rowKey));
+        }
+    }
+
+    private void invalidateCached(List<R> rowKeys) {
+        for (R rowKey : rowKeys) {
+            invalidateCached(rowKey);
+        }
+    }
+
+    private void invalidateCached(byte[] rowKeyBytes) {
+        if (entityCache != null || absentKeyFilter != null || readCoalescer != null) {
+            invalidateCached(hbObjectMapper.<R, T>bytesToRowKey(rowKeyBytes, hbTable.getCodecFlags(), hbRecordClass));
+        }
+    }
+
+    /**
+     * Registers a row that's about to be written with the absent-key filter (before the write is sent, so that concurrent readers don't miss it)
+     */
+    private void markPresent(R rowKey, byte[] rowKeyBytes) {
+        if (absentKeyFilter != null) {
+            absentKeyFilter.markPresent(rowKey, rowKeyBytes);
         }
-        try (Table table = getHBaseTable()) {
-            table.delete(deletes);
+    }
+
+    private void markPresent(byte[] rowKeyBytes) {
+        if (absentKeyFilter != null) {
+            absentKeyFilter.markPresent(hbObjectMapper.<R, T>bytesToRowKey(rowKeyBytes, hbTable.getCodecFlags(), hbRecordClass), rowKeyBytes);
+        }
+    }
+
+    private long absentStamp() {
+        return absentKeyFilter == null ? 0 : absentKeyFilter.stamp();
+    }
+
+    private void markAbsent(List<R> rowKeys, long absentStamp) {
+        if (absentKeyFilter != null) {
+            for (R rowKey : rowKeys) {
+                absentKeyFilter.markAbsent(rowKey, absentStamp);
+            }
+        }
+    }
+
+    /**
+     * (Re)builds Bloom filter of absent-key filter from a keys-only scan of the entire table. Till this is called, only the negative cache (if any) is effective.
+     * <br><br>
+     * The fresh filter is swapped in atomically once the scan completes; rows written through this DAO during the scan aren't missed. Call this periodically (e.g. well within {@link AbsentKeyFilterConfig#bloomFilterMaxAge(long, java.util.concurrent.TimeUnit) maximum age}) to keep the filter effective.
+     *
+     * @throws IOException           When HBase call fails
+     * @throws IllegalStateException When absent-key filter (or it's Bloom filter) is not enabled for this DAO
+     */
+    public void seedAbsentKeyFilter() throws IOException {
+        if (absentKeyFilter == null) {
+            throw new IllegalStateException("Absent-key filter is not enabled for this DAO (see " + HBDAOOptions.class.getSimpleName() + ")");
         }
+        absentKeyFilter.seed(consumer -> {
+            Scan scan = keysOnly(new Scan()
+                    .setCaching(KEYS_SCAN_CACHING)
+                    .setCacheBlocks(false));
+            try (ResultScanner scanner = tableHandles.scanTable().getScanner(scan)) {
+                for (Result result : scanner) {
+                    consumer.accept(result.getRow());
+                }
+            }
+        });
+    }
+
+    /**
+     * Statistics of read-through cache of this DAO (hit rate, load time, evictions etc.)
+     *
+     * @return Cache statistics, or <code>null</code> if cache is not {@link HBDAOOptions#setEntityCache(EntityCacheConfig) enabled}
+     */
+    public CacheStats getCacheStats() {
+        return entityCache == null ? null : entityCache.stats();
+    }
+
+    /**
+     * Statistics of micro-batching of this DAO (number of batches, distribution of batch sizes etc.)
+     *
+     * @return Micro-batching statistics, or <code>null</code> if micro-batching is not {@link HBDAOOptions#setMicroBatching(MicroBatchConfig) enabled}
+     */
+    public MicroBatchStats getMicroBatchStats() {
+        return microBatcher == null ? null : microBatcher.stats();
     }
 
     /**
@@ -742,13 +2090,43 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
 
 
     /**
-     * Get reference to HBase table
+     * Get reference to HBase table, with timeouts as per {@link HBDAOOptions options of this DAO}
+     * <br><br>
+     * This returns a fresh {@link Table} object on every call, which the caller is expected to close. (Methods of this DAO use long-lived table handles internally.)
      *
      * @return {@link HTable} object
      * @throws IOException When table reference couldn't be resolved through connection
      */
     public Table getHBaseTable() throws IOException {
-        return connection.getTable(hbTable.getName());
+        return tableHandles.newTable();
+    }
+
+    /**
+     * Releases resources held by this DAO: flushes increments accumulated by {@link #accumulate(Serializable, String, long)} and writes buffered by {@link #persistAsync(HBRecord)}, closes it's table handles and stops it's background threads. Operations still in progress may fail.
+     * <br><br>
+     * <b>Note</b>: The HBase {@link Connection} is <u>not</u> closed.
+     *
+     * @throws IOException When flushing buffered writes fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (microBatcher != null) {
+            microBatcher.close();
+        }
+        try {
+            if (counterAccumulator != null) {
+                counterAccumulator.close();
+            }
+        } finally {
+            try {
+                if (writeBehindBuffer != null) {
+                    writeBehindBuffer.close();
+                }
+            } finally {
+                executorService.shutdown();
+                tableHandles.close();
+            }
+        }
     }
 
     private Field getField(String fieldName) {
@@ -765,15 +2143,15 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
         }
         WrappedHBColumn hbColumn = new WrappedHBColumn(field, true);
         List<Cell> cells = result.getColumnCells(hbColumn.familyBytes(), hbColumn.columnBytes());
+        if (cells.isEmpty()) {
+            return;
+        }
+        //获取属性对应的类型
+        Type fieldType = hbObjectMapper.getFieldType(field, hbColumn.isMultiVersioned());
+        final R rowKey = hbObjectMapper.bytesToRowKey(result.getRow(), hbTable.getCodecFlags(), hbRecordClass); // all cells of a result belong to the same row
+        NavigableMap<Long, Object> versions = map.computeIfAbsent(rowKey, k -> new TreeMap<>());
         for (Cell cell : cells) {
-            //获取属性对应的类型
-            Type fieldType = hbObjectMapper.getFieldType(field, hbColumn.isMultiVersioned());
-            @SuppressWarnings("unchecked")
-            final R rowKey = hbObjectMapper.bytesToRowKey(CellUtil.cloneRow(cell), hbTable.getCodecFlags(), (Class<T>) field.getDeclaringClass());
-            if (!map.containsKey(rowKey)) {
-                map.put(rowKey, new TreeMap<>());
-            }
-            map.get(rowKey).put(cell.getTimestamp(), hbObjectMapper.byteArrayToValue(CellUtil.cloneValue(cell), fieldType, hbColumn.codecFlags()));
+            versions.put(cell.getTimestamp(), hbObjectMapper.byteArrayToValue(CellUtil.cloneValue(cell), fieldType, hbColumn.codecFlags()));
         }
     }
 
@@ -846,14 +2224,31 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @throws IOException When HBase call fails
      */
     public NavigableMap<R, NavigableMap<Long, Object>> fetchFieldValues(R startRowKey, R endRowKey, String fieldName, int numVersionsToFetch) throws IOException {
+        return fetchFieldValues(startRowKey, endRowKey, fieldName, null, numVersionsToFetch);
+    }
+
+    /**
+     * Fetch specified number of versions of values of an HBase column for a range of row keys (start and end) and field name, considering only cells whose timestamps fall in given bounds
+     *
+     * @param startRowKey        Start row key (scan start)
+     * @param endRowKey          End row key (scan end)
+     * @param fieldName          Name of the private variable of your bean-like object (of a class that implements {@link HBRecord}) whose corresponding column needs to be fetched
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved (<code>null</code> for no bounds)
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return Map of row key and column values (versioned)
+     * @throws IOException When HBase call fails
+     */
+    public NavigableMap<R, NavigableMap<Long, Object>> fetchFieldValues(R startRowKey, R endRowKey, String fieldName, TimeBounds timeBounds, int numVersionsToFetch) throws IOException {
         Field field = getField(fieldName);
         WrappedHBColumn hbColumn = new WrappedHBColumn(field, true);
         Scan scan = new Scan().withStartRow(toBytes(startRowKey)).withStopRow(toBytes(endRowKey));
         scan.addColumn(hbColumn.familyBytes(), hbColumn.columnBytes());
         scan.readVersions(numVersionsToFetch);
+        if (timeBounds != null) {
+            timeBounds.applyTo(scan);
+        }
         NavigableMap<R, NavigableMap<Long, Object>> map = new TreeMap<>();
-        try (Table table = getHBaseTable();
-             ResultScanner scanner = table.getScanner(scan)) {
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(scan)) {
             for (Result result : scanner) {
                 populateFieldValuesToMap(field, result, map);
             }
@@ -883,24 +2278,452 @@ public abstract class AbstractHBDAO<R extends Serializable & Comparable<R>, T ex
      * @return Map of row key and column values (versioned)
      * @throws IOException When HBase call fails
      */
-    public Map<R, NavigableMap<Long, Object>> fetchFieldValues(R[] rowKeys, String fieldName, int numVersionsToFetch) throws IOException {
-        Field field = getField(fieldName);
-        WrappedHBColumn hbColumn = new WrappedHBColumn(field, true);
-        List<Get> gets = new ArrayList<>(rowKeys.length);
-        for (R rowKey : rowKeys) {
-            Get get = new Get(toBytes(rowKey));
-            get.readVersions(numVersionsToFetch);
-            get.addColumn(hbColumn.familyBytes(), hbColumn.columnBytes());
-            gets.add(get);
+    public Map<R, NavigableMap<Long, Object>> fetchFieldValues(R[] rowKeys, String fieldName, final int numVersionsToFetch) throws IOException {
+        return fetchFieldValues(rowKeys, fieldName, null, numVersionsToFetch);
+    }
+
+    /**
+     * Fetch specified number of versions of values of an HBase column for an array of row keys, considering only cells whose timestamps fall in given bounds
+     *
+     * @param rowKeys            Array of row keys to fetch
+     * @param fieldName          Name of the private variable of your bean-like object (of a class that implements {@link HBRecord}) whose corresponding column needs to be fetched
+     * @param timeBounds         Bounds on timestamps of cells to be retrieved (<code>null</code> for no bounds)
+     * @param numVersionsToFetch Number of versions to be retrieved (within bounds)
+     * @return Map of row key and column values (versioned)
+     * @throws IOException When HBase call fails
+     */
+    public Map<R, NavigableMap<Long, Object>> fetchFieldValues(R[] rowKeys, String fieldName, final TimeBounds timeBounds, final int numVersionsToFetch) throws IOException {
+        final Field field = getField(fieldName);
+        final WrappedHBColumn hbColumn = new WrappedHBColumn(field, true);
+        final Map<R, NavigableMap<Long, Object>> map = new HashMap<>(rowKeys.length, 1.0f);
+        ChunkedMultiGet.executeAll(Arrays.asList(rowKeys), multiGetOptions, executorService,
+                chunk -> {
+                    List<Get> gets = new ArrayList<>(chunk.size());
+                    for (R rowKey : chunk) {
+                        Get get = new Get(toBytes(rowKey));
+                        get.readVersions(numVersionsToFetch);
+                        get.addColumn(hbColumn.familyBytes(), hbColumn.columnBytes());
+                        if (timeBounds != null) {
+                            timeBounds.applyTo(get);
+                        }
+                        gets.add(get);
+                    }
+                    Map<R, NavigableMap<Long, Object>> chunkMap = new HashMap<>(chunk.size(), 1.0f);
+                    Result[] results = tableHandles.table().get(gets);
+                    for (Result result : results) {
+                        populateFieldValuesToMap(field, result, chunkMap);
+                    }
+                    return chunkMap;
+                },
+                (offset, chunk, chunkMap) -> map.putAll(chunkMap));
+        return map;
+    }
+
+    /**
+     * Fetch values of multiple fields for rows matching given {@link Scan} object, in a single scan, laid out column-wise (see {@link ColumnBatch})
+     * <br><br>
+     * Only columns of given fields (latest version) are fetched from HBase, and no records are constructed. Rows that have none of the fields are left out.
+     * <br><br>
+     * <b>Caution:</b> All values are held in memory. If you expect large number of rows, fetch them in batches (e.g. by key ranges).
+     *
+     * @param scan       HBase's scan object (not modified by this method)
+     * @param fieldNames Names of the private variables of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be fetched
+     * @return Values of fields, one column per field
+     * @throws IOException When HBase call fails
+     */
+    public ColumnBatch<R> fetchColumns(Scan scan, String... fieldNames) throws IOException {
+        final List<WrappedHBColumn> projection = toProjection(fieldNames);
+        final Scan projectedScan = new Scan(scan).readVersions(1);
+        for (WrappedHBColumn hbColumn : projection) {
+            projectedScan.addColumn(hbColumn.familyBytes(), hbColumn.columnBytes());
         }
-        Map<R, NavigableMap<Long, Object>> map = new HashMap<>(rowKeys.length, 1.0f);
-        try (Table table = getHBaseTable()) {
-            Result[] results = table.get(gets);
-            for (Result result : results) {
-                populateFieldValuesToMap(field, result, map);
+        final List<Result> results = new ArrayList<>();
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(projectedScan)) {
+            for (Result result : scanner) {
+                results.add(result);
             }
         }
-        return map;
+        return toColumnBatch(null, results, fieldNames, projection);
+    }
+
+    /**
+     * Fetch values of multiple fields for a range of row keys (start to end), in a single scan, laid out column-wise (see {@link ColumnBatch})
+     *
+     * @param startRowKey Row start (inclusive)
+     * @param endRowKey   Row end (exclusive)
+     * @param fieldNames  Names of the private variables of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be fetched
+     * @return Values of fields, one column per field
+     * @throws IOException When HBase call fails
+     * @see #fetchColumns(Scan, String...)
+     */
+    public ColumnBatch<R> fetchColumns(R startRowKey, R endRowKey, String... fieldNames) throws IOException {
+        return fetchColumns(new Scan().withStartRow(toBytes(startRowKey)).withStopRow(toBytes(endRowKey)), fieldNames);
+    }
+
+    /**
+     * Fetch values of multiple fields for given row keys, in a multi-get (chunked as per {@link MultiGetOptions options of this DAO}), laid out column-wise (see {@link ColumnBatch})
+     * <br><br>
+     * Rows are in order of given row keys. Rows that don't exist or have none of the fields are left out.
+     *
+     * @param rowKeys    Row keys to fetch
+     * @param fieldNames Names of the private variables of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be fetched
+     * @return Values of fields, one column per field
+     * @throws IOException When HBase call fails
+     */
+    public ColumnBatch<R> fetchColumns(List<R> rowKeys, String... fieldNames) throws IOException {
+        final List<WrappedHBColumn> projection = toProjection(fieldNames);
+        final Result[] results = fetchResults(rowKeys, 1, multiGetOptions, projection, null);
+        final List<R> foundRowKeys = new ArrayList<>(rowKeys.size());
+        final List<Result> foundResults = new ArrayList<>(rowKeys.size());
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null && !results[i].isEmpty()) {
+                foundRowKeys.add(rowKeys.get(i));
+                foundResults.add(results[i]);
+            }
+        }
+        return toColumnBatch(foundRowKeys, foundResults, fieldNames, projection);
+    }
+
+    private List<WrappedHBColumn> toProjection(String[] fieldNames) {
+        if (fieldNames.length == 0) {
+            throw new IllegalArgumentException("Specify at least one field");
+        }
+        final List<WrappedHBColumn> projection = new ArrayList<>(fieldNames.length);
+        for (String fieldName : fieldNames) {
+            projection.add(new WrappedHBColumn(getField(fieldName), true));
+        }
+        return projection;
+    }
+
+    /**
+     * @param rowKeys Row keys of results (<code>null</code>, if they need to be decoded from results)
+     */
+    private ColumnBatch<R> toColumnBatch(List<R> rowKeys, List<Result> results, String[] fieldNames, List<WrappedHBColumn> projection) {
+        final int size = results.size();
+        @SuppressWarnings("unchecked")
+        final R[] rowKeyArray = (R[]) Array.newInstance(rowKeyClass, size);
+        for (int i = 0; i < size; i++) {
+            rowKeyArray[i] = rowKeys == null ? hbObjectMapper.<R, T>bytesToRowKey(results.get(i).getRow(), hbTable.getCodecFlags(), hbRecordClass) : rowKeys.get(i);
+        }
+        final Map<String, Object> columns = new LinkedHashMap<>(fieldNames.length, 1.0f);
+        final Map<String, BitSet> presence = new HashMap<>(fieldNames.length, 1.0f);
+        for (int f = 0; f < fieldNames.length; f++) {
+            final WrappedHBColumn hbColumn = projection.get(f);
+            final Type fieldType = hbObjectMapper.getFieldType(getField(fieldNames[f]), hbColumn.isMultiVersioned());
+            final Object column = ColumnBatch.newColumn(fieldType, size);
+            final BitSet present = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                final Cell cell = results.get(i).getColumnLatestCell(hbColumn.familyBytes(), hbColumn.columnBytes());
+                if (cell == null) {
+                    continue;
+                }
+                final Object value = hbObjectMapper.byteArrayToValue(CellUtil.cloneValue(cell), fieldType, hbColumn.codecFlags());
+                if (value != null) {
+                    ColumnBatch.setValue(column, i, value);
+                    present.set(i);
+                }
+            }
+            columns.put(fieldNames[f], column);
+            presence.put(fieldNames[f], present);
+        }
+        return new ColumnBatch<>(rowKeyArray, columns, presence);
+    }
+
+    /**
+     * Count rows matching given {@link Scan} object
+     * <br><br>
+     * Only row keys are fetched from HBase (first cell of each row, without it's value, unless the scan has a filter of it's own) and regions are counted in parallel, on threads of this DAO.
+     *
+     * @param scan HBase's scan object (not modified by this method)
+     * @return Number of rows
+     * @throws IOException When HBase call fails
+     * @see #count(Scan, RowCountListener)
+     */
+    public long count(Scan scan) throws IOException {
+        return count(scan, null);
+    }
+
+    /**
+     * Count rows in a range of row keys - start key (inclusive) to end key (exclusive)
+     *
+     * @param startRowKey Row start (inclusive)
+     * @param endRowKey   Row end (exclusive)
+     * @return Number of rows
+     * @throws IOException When HBase call fails
+     * @see #count(Scan)
+     */
+    public long count(R startRowKey, R endRowKey) throws IOException {
+        return count(new Scan()
+                .withStartRow(toBytes(startRowKey))
+                .withStopRow(toBytes(endRowKey)));
+    }
+
+    /**
+     * Count rows matching given {@link Scan} object, reporting progress as each region is counted (useful on large tables)
+     * <br><br>
+     * Reversed scans and scans with a limit are not split (and hence, are counted on a single thread).
+     *
+     * @param scan     HBase's scan object (not modified by this method)
+     * @param listener Callback invoked after each region is counted (<code>null</code> if progress needn't be tracked)
+     * @return Number of rows
+     * @throws IOException When HBase call fails
+     */
+    public long count(Scan scan, RowCountListener listener) throws IOException {
+        final Scan countScan = keysOnly(scan).setCacheBlocks(false);
+        if (countScan.getCaching() <= 0) {
+            countScan.setCaching(KEYS_SCAN_CACHING);
+        }
+        final List<Scan> regionScans = RegionRanges.split(connection, hbTable.getName(), countScan);
+        final CompletionService<Long> completionService = new ExecutorCompletionService<>(executorService);
+        final List<Future<Long>> futures = new ArrayList<>(regionScans.size());
+        for (Scan regionScan : regionScans) {
+            futures.add(completionService.submit(() -> countRows(regionScan)));
+        }
+        long rowsCounted = 0;
+        try {
+            for (int regionsCounted = 1; regionsCounted <= futures.size(); regionsCounted++) {
+                final Future<Long> future;
+                try {
+                    future = completionService.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for row count of a region").initCause(e);
+                }
+                rowsCounted += FutureResults.get(future, "row count of a region");
+                if (listener != null) {
+                    listener.onRegionCounted(regionsCounted, futures.size(), rowsCounted);
+                }
+            }
+        } finally {
+            for (Future<Long> future : futures) {
+                future.cancel(false); // no-op for completed ones
+            }
+        }
+        return rowsCounted;
+    }
+
+    private long countRows(Scan scan) throws IOException {
+        long count = 0;
+        try (ResultScanner scanner = tableHandles.scanTable().getScanner(scan)) {
+            while (scanner.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute aggregations (count, sum etc.) over values of a field, for rows matching given {@link Scan} object
+     * <br><br>
+     * Only the field's column is fetched from HBase (latest version), and values are folded into running totals as they're scanned, without constructing records. When only {@link Aggregation#COUNT} is requested, values aren't even fetched (only their lengths are).
+     * <br><br>
+     * <b>Note</b>: Since the scan is restricted to the field's column, filters of given scan can only see that column.
+     *
+     * @param scan         HBase's scan object (not modified by this method)
+     * @param fieldName    Name of the private variable of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be aggregated
+     * @param aggregations Aggregations to compute (all but {@link Aggregation#COUNT} need a numeric field)
+     * @return Values of requested aggregations
+     * @throws IOException              When HBase call fails
+     * @throws IllegalArgumentException When field is unrecognized or isn't numeric (for aggregations other than {@link Aggregation#COUNT})
+     * @throws ArithmeticException      When sum of an integral field overflows a <code>long</code>
+     */
+    public AggregationResult aggregate(Scan scan, String fieldName, Aggregation... aggregations) throws IOException {
+        final FieldAggregation aggregation = new FieldAggregation(scan, fieldName, aggregations);
+        return aggregation.aggregateRegion(aggregation.scan).toResult(aggregation.aggregations);
+    }
+
+    /**
+     * Same as {@link #aggregate(Scan, String, Aggregation...)}, except that each region of the table is scanned in parallel (on threads of this DAO) and partial results are merged
+     * <br><br>
+     * Reversed scans and scans with a limit are not split (and hence, are executed on a single thread).
+     *
+     * @param scan         HBase's scan object (not modified by this method)
+     * @param fieldName    Name of the private variable of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be aggregated
+     * @param aggregations Aggregations to compute (all but {@link Aggregation#COUNT} need a numeric field)
+     * @return Values of requested aggregations
+     * @throws IOException              When HBase call fails (for any region)
+     * @throws IllegalArgumentException When field is unrecognized or isn't numeric (for aggregations other than {@link Aggregation#COUNT})
+     * @throws ArithmeticException      When sum of an integral field overflows a <code>long</code>
+     */
+    public AggregationResult aggregateInParallel(Scan scan, String fieldName, Aggregation... aggregations) throws IOException {
+        final FieldAggregation aggregation = new FieldAggregation(scan, fieldName, aggregations);
+        return aggregateRegions(aggregation).toResult(aggregation.aggregations);
+    }
+
+    private FieldAggregator aggregateRegions(FieldAggregation aggregation) throws IOException {
+        final List<CompletableFuture<FieldAggregator>> futures = new ArrayList<>();
+        for (Scan regionScan : RegionRanges.split(connection, hbTable.getName(), aggregation.scan)) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return aggregation.aggregateRegion(regionScan);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executorService));
+        }
+        final FieldAggregator total = aggregation.newAggregator();
+        try {
+            for (CompletableFuture<FieldAggregator> future : futures) {
+                total.merge(FutureResults.get(future, "aggregation over a region"));
+            }
+        } finally {
+            for (CompletableFuture<FieldAggregator> future : futures) {
+                future.cancel(false); // no-op for completed ones
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Get a random sample of records matching given {@link Scan} object, each row being picked independently with given probability
+     * <br><br>
+     * Rows are picked by HBase (using a {@link RandomRowFilter}), so rows left out of the sample aren't sent to this process. Each region is sampled separately, in parallel (on threads of this DAO), so the sample is spread over the whole key range. Records are returned in order of row keys.
+     * <br><br>
+     * <b>Caution:</b> Size of sample is only approximately <code>fraction</code> times number of rows matching scan, and differs between calls.
+     *
+     * @param scan     HBase's scan object (not modified by this method)
+     * @param fraction Probability with which each row is picked (greater than 0 and at most 1)
+     * @return Sampled records
+     * @throws IOException When HBase call fails
+     */
+    public List<T> sample(Scan scan, double fraction) throws IOException {
+        final List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+        for (Scan regionScan : RegionRanges.split(connection, hbTable.getName(), sampled(scan, fraction))) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return get(regionScan);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executorService));
+        }
+        final List<T> records = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                records.addAll(FutureResults.get(future, "sample of a region"));
+            }
+        } finally {
+            for (CompletableFuture<List<T>> future : futures) {
+                future.cancel(false); // no-op for completed ones
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Get a random sample of approximately given number of records, from those matching given {@link Scan} object
+     * <br><br>
+     * This {@link #count(Scan) counts} rows matching scan (a keys-only scan) to work out the fraction of rows to be sampled and then calls {@link #sample(Scan, double)}. If you know (roughly) how many rows match, call that directly instead.
+     *
+     * @param scan       HBase's scan object (not modified by this method)
+     * @param approxRows Desired size of sample
+     * @return Sampled records
+     * @throws IOException When HBase call fails
+     */
+    public List<T> sample(Scan scan, int approxRows) throws IOException {
+        if (approxRows < 1) {
+            throw new IllegalArgumentException("Size of sample must be a positive number (found " + approxRows + ")");
+        }
+        final long numRows = count(scan);
+        if (numRows == 0) {
+            return new ArrayList<>();
+        }
+        return sample(scan, Math.min(1.0, (double) approxRows / numRows));
+    }
+
+    /**
+     * Estimate count and mean of values of a numeric field over rows matching given {@link Scan} object, from a random sample of those rows (e.g. for dashboards that can trade accuracy for speed)
+     * <br><br>
+     * Rows are sampled by HBase (as in {@link #sample(Scan, double)}) and values are aggregated as in {@link #aggregateInParallel(Scan, String, Aggregation...)}: only the field's column is fetched and no records are constructed.
+     *
+     * @param scan      HBase's scan object (not modified by this method)
+     * @param fraction  Probability with which each row is sampled (greater than 0 and at most 1)
+     * @param fieldName Name of the private variable of your bean-like object (of a class that implements {@link HBRecord}) whose values need to be estimated
+     * @return Estimates, along with their standard errors
+     * @throws IOException              When HBase call fails
+     * @throws IllegalArgumentException When field is unrecognized or isn't numeric
+     */
+    public SampleEstimate estimate(Scan scan, double fraction, String fieldName) throws IOException {
+        final FieldAggregation aggregation = new FieldAggregation(sampled(scan, fraction), fieldName, new Aggregation[]{Aggregation.COUNT, Aggregation.AVG});
+        final FieldAggregator aggregator = aggregateRegions(aggregation);
+        return new SampleEstimate(fraction, aggregator.getCount(), aggregator.getSum(), aggregator.getSumOfSquares());
+    }
+
+    /**
+     * @return A copy of given scan, that lets each row through with given probability
+     */
+    private static Scan sampled(Scan scan, double fraction) throws IOException {
+        if (!(fraction > 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Fraction of rows to sample must be greater than 0 and at most 1 (found " + fraction + ")");
+        }
+        final Scan sampleScan = new Scan(scan);
+        if (fraction < 1) {
+            final RandomRowFilter randomRowFilter = new RandomRowFilter((float) fraction);
+            sampleScan.setFilter(scan.getFilter() == null ? randomRowFilter : new FilterList(randomRowFilter, scan.getFilter()));
+        }
+        return sampleScan;
+    }
+
+    /**
+     * Validated inputs of an aggregation over a field, and the projected scan that fetches it's values
+     */
+    private class FieldAggregation {
+        private final EnumSet<Aggregation> aggregations;
+        private final WrappedHBColumn hbColumn;
+        private final Type fieldType;
+        private final boolean countOnly;
+        private final boolean integral;
+        private final Scan scan;
+
+        FieldAggregation(Scan scan, String fieldName, Aggregation[] aggregations) throws IOException {
+            if (aggregations.length == 0) {
+                throw new IllegalArgumentException("Specify at least one aggregation");
+            }
+            this.aggregations = EnumSet.copyOf(Arrays.asList(aggregations));
+            final Field field = getField(fieldName);
+            this.hbColumn = new WrappedHBColumn(field, true);
+            this.fieldType = hbObjectMapper.getFieldType(field, hbColumn.isMultiVersioned());
+            this.countOnly = this.aggregations.equals(EnumSet.of(Aggregation.COUNT));
+            if (!countOnly && !(fieldType instanceof Class && Number.class.isAssignableFrom((Class<?>) fieldType))) {
+                throw new IllegalArgumentException(String.format("Invalid attempt to compute %s over a non-numeric field (%s.%s)", this.aggregations, hbRecordClass.getName(), fieldName));
+            }
+            this.integral = !countOnly && FieldAggregator.isIntegral((Class<?>) fieldType);
+            this.scan = new Scan(scan)
+                    .addColumn(hbColumn.familyBytes(), hbColumn.columnBytes())
+                    .readVersions(1);
+            if (countOnly) {
+                final KeyOnlyFilter lengthOnly = new KeyOnlyFilter(true); // replaces value with it's length
+                this.scan.setFilter(scan.getFilter() == null ? lengthOnly : new FilterList(scan.getFilter(), lengthOnly));
+            }
+        }
+
+        FieldAggregator newAggregator() {
+            return new FieldAggregator(integral);
+        }
+
+        FieldAggregator aggregateRegion(Scan scan) throws IOException {
+            final FieldAggregator aggregator = newAggregator();
+            final byte[] family = hbColumn.familyBytes(), column = hbColumn.columnBytes();
+            try (ResultScanner scanner = tableHandles.scanTable().getScanner(scan)) {
+                for (Result result : scanner) {
+                    final Cell cell = result.getColumnLatestCell(family, column);
+                    if (cell == null) {
+                        continue;
+                    }
+                    if (countOnly) {
+                        if (Bytes.toInt(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()) > 0) {
+                            aggregator.count();
+                        }
+                    } else {
+                        final Object value = hbObjectMapper.byteArrayToValue(CellUtil.cloneValue(cell), fieldType, hbColumn.codecFlags());
+                        if (value != null) {
+                            aggregator.accept((Number) value);
+                        }
+                    }
+                }
+            }
+            return aggregator;
+        }
     }
 
     /**
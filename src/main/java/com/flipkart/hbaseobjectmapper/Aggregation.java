@@ -0,0 +1,27 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Aggregations that {@link AbstractHBDAO#aggregate(org.apache.hadoop.hbase.client.Scan, String, Aggregation...)} can compute over values of a field
+ */
+public enum Aggregation {
+    /**
+     * Number of rows in which the field has a value (works for fields of any type)
+     */
+    COUNT,
+    /**
+     * Sum of values of the field (field must be numeric)
+     */
+    SUM,
+    /**
+     * Smallest value of the field (field must be numeric)
+     */
+    MIN,
+    /**
+     * Largest value of the field (field must be numeric)
+     */
+    MAX,
+    /**
+     * Arithmetic mean of values of the field (field must be numeric)
+     */
+    AVG
+}
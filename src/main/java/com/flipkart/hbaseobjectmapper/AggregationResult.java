@@ -0,0 +1,56 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Outcome of {@link AbstractHBDAO#aggregate(org.apache.hadoop.hbase.client.Scan, String, Aggregation...)}
+ * <br><br>
+ * Values are typed as follows:
+ * <ul>
+ * <li>{@link Aggregation#COUNT}: {@link Long}</li>
+ * <li>{@link Aggregation#SUM}, {@link Aggregation#MIN} and {@link Aggregation#MAX}: {@link Long} for integral fields ({@link Byte}, {@link Short}, {@link Integer}, {@link Long}) and {@link Double} for others</li>
+ * <li>{@link Aggregation#AVG}: {@link Double}</li>
+ * </ul>
+ * Objects of this class are immutable.
+ */
+public class AggregationResult {
+    private final Map<Aggregation, Number> values;
+
+    AggregationResult(EnumMap<Aggregation, Number> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param aggregation Aggregation whose value is needed
+     * @return Value of aggregation, <code>null</code> if it wasn't requested or if there were no values to aggregate (for {@link Aggregation#MIN}, {@link Aggregation#MAX} and {@link Aggregation#AVG})
+     */
+    public Number get(Aggregation aggregation) {
+        return values.get(aggregation);
+    }
+
+    /**
+     * @return Number of rows in which the field has a value
+     * @throws IllegalStateException If {@link Aggregation#COUNT} wasn't requested
+     */
+    public long getCount() {
+        final Number count = values.get(Aggregation.COUNT);
+        if (count == null) {
+            throw new IllegalStateException("Aggregation " + Aggregation.COUNT + " wasn't requested");
+        }
+        return count.longValue();
+    }
+
+    /**
+     * @return Requested aggregations and their values
+     */
+    public Map<Aggregation, Number> asMap() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
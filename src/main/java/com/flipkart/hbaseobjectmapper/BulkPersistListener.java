@@ -0,0 +1,19 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Callback to track progress of a bulk persist ({@link AbstractHBDAO#bulkPersist(java.util.Iterator, BulkPersistOptions, BulkPersistListener)}), which writes records region by region, one chunk at a time
+ * <br><br>
+ * This is always invoked on the thread that called the bulk persist, one chunk at a time. Hence, implementations need <u>not</u> be thread-safe.
+ */
+@FunctionalInterface
+public interface BulkPersistListener {
+
+    /**
+     * Invoked each time a chunk of records has been written
+     *
+     * @param regionName  Name of region to which records of the chunk belong (as per region boundaries when bulk persist started)
+     * @param recordCount Number of records in the chunk
+     * @param progress    Progress so far (including this chunk)
+     */
+    void onChunkPersisted(String regionName, int recordCount, BulkPersistStats progress);
+}
@@ -0,0 +1,65 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Options of bulk persist of a (potentially huge) stream of records, to be passed to {@link AbstractHBDAO#bulkPersist(java.util.Iterator, BulkPersistOptions, BulkPersistListener)}. For example:
+ * <pre>
+ * new BulkPersistOptions()
+ *   .chunkSize(500)
+ *   .parallelism(8)
+ *   .maxInFlightBytes(128L &lt;&lt; 20);
+ * </pre>
+ * Records are serialized on worker threads, grouped by region they belong to and written one chunk (of a single region) at a time. Memory held is bounded by {@link #maxInFlightBytes(long)}: once serialized records waiting to be written (or being written) reach that much, no more records are read off the input till some chunk is written.
+ */
+public class BulkPersistOptions {
+    private int chunkSize = 1000;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long maxInFlightBytes = 64L << 20;
+
+    /**
+     * @param chunkSize Number of records serialized by a worker thread in one go, and also number of records (of a single region) written to HBase in one call
+     * @return This object (for method chaining)
+     */
+    public BulkPersistOptions chunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be a positive number (found " + chunkSize + ")");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param parallelism Maximum number of chunks being serialized at a time (and, separately, of chunks being written at a time)
+     * @return This object (for method chaining)
+     */
+    public BulkPersistOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be a positive number (found " + parallelism + ")");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * @param maxInFlightBytes Cap on (estimated heap) size of serialized records waiting to be written or being written
+     * @return This object (for method chaining)
+     */
+    public BulkPersistOptions maxInFlightBytes(long maxInFlightBytes) {
+        if (maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("Maximum in-flight bytes must be positive");
+        }
+        this.maxInFlightBytes = maxInFlightBytes;
+        return this;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress (or outcome) of a bulk persist, as reported by {@link AbstractHBDAO#bulkPersist(java.util.Iterator, BulkPersistOptions, BulkPersistListener)}
+ * <br><br>
+ * Objects of this class are immutable snapshots.
+ */
+public class BulkPersistStats {
+    private final long recordCount;
+    private final long byteCount;
+    private final long elapsedNanos;
+    private final Map<String, Long> recordsPerRegion;
+
+    BulkPersistStats(long recordCount, long byteCount, long elapsedNanos, Map<String, Long> recordsPerRegion) {
+        this.recordCount = recordCount;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+        this.recordsPerRegion = Collections.unmodifiableMap(recordsPerRegion);
+    }
+
+    /**
+     * @return Number of records written
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return Estimated (heap) size of records written, in bytes
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @param unit Unit of time
+     * @return Time elapsed since bulk persist started
+     */
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return Records written per second (on average, since bulk persist started)
+     */
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : recordCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return Bytes written per second (on average, since bulk persist started)
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : byteCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return Number of records written to each region (by region name, in order of row keys)
+     */
+    public Map<String, Long> getRecordsPerRegion() {
+        return recordsPerRegion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkPersistStats{recordCount=%d, byteCount=%d, elapsedMillis=%d, recordsPerSecond=%.1f, regions=%d}", recordCount, byteCount, getElapsed(TimeUnit.MILLISECONDS), getRecordsPerSecond(), recordsPerRegion.size());
+    }
+}
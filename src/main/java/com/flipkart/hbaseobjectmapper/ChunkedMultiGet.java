@@ -0,0 +1,111 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.flipkart.hbaseobjectmapper.exceptions.MultiGetFailedException;
+import com.google.common.collect.Lists;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+
+/**
+ * Splits a (potentially huge) list of row keys into chunks and reads them with a bound on number of chunks in flight. For internal use only.
+ * <br><br>
+ * Each chunk is read (fetched <u>and</u> decoded) by a {@link ChunkReader}, on a worker thread when more than one chunk may be in flight. Outcome of each chunk is handed over to a {@link ChunkConsumer} on the calling thread, as and when the chunk completes.
+ */
+class ChunkedMultiGet {
+
+    private ChunkedMultiGet() {
+        throw new UnsupportedOperationException();
+    }
+
+    interface ChunkReader<R, C> {
+        C read(List<R> rowKeys) throws IOException;
+    }
+
+    interface ChunkConsumer<R, C> {
+        void accept(int chunkIndex, int offset, List<R> rowKeys, C chunkResult);
+
+        void failed(int chunkIndex, int offset, List<R> rowKeys, Throwable cause);
+    }
+
+    interface ChunkAcceptor<R, C> {
+        void accept(int offset, List<R> rowKeys, C chunkResult);
+    }
+
+    /**
+     * Variant of {@link #execute(List, MultiGetOptions, ExecutorService, ChunkReader, ChunkConsumer)} that collects failures of chunks and reports them together, after all chunks are done
+     *
+     * @throws MultiGetFailedException When one or more chunks fail (other chunks are still handed over to given acceptor)
+     */
+    static <R, C> void executeAll(List<R> rowKeys, MultiGetOptions options, ExecutorService defaultExecutor, ChunkReader<R, C> reader, final ChunkAcceptor<R, C> acceptor) throws IOException {
+        final Map<Integer, Throwable> failures = new TreeMap<>();
+        execute(rowKeys, options, defaultExecutor, reader, new ChunkConsumer<R, C>() {
+            @Override
+            public void accept(int chunkIndex, int offset, List<R> chunk, C chunkResult) {
+                acceptor.accept(offset, chunk, chunkResult);
+            }
+
+            @Override
+            public void failed(int chunkIndex, int offset, List<R> chunk, Throwable cause) {
+                failures.put(chunkIndex, cause);
+            }
+        });
+        if (!failures.isEmpty()) {
+            throw new MultiGetFailedException(failures, options.getChunkSize(), rowKeys.size());
+        }
+    }
+
+    static <R, C> void execute(List<R> rowKeys, MultiGetOptions options, ExecutorService defaultExecutor, final ChunkReader<R, C> reader, ChunkConsumer<R, C> consumer) throws InterruptedIOException {
+        final int chunkSize = options.getChunkSize();
+        final List<List<R>> chunks = Lists.partition(rowKeys, chunkSize);
+        if (chunks.size() <= 1 || options.getMaxInFlightChunks() <= 1) {
+            for (int i = 0; i < chunks.size(); i++) {
+                final List<R> chunk = chunks.get(i);
+                C chunkResult;
+                try {
+                    chunkResult = reader.read(chunk);
+                } catch (IOException | RuntimeException e) {
+                    consumer.failed(i, i * chunkSize, chunk, e);
+                    continue;
+                }
+                consumer.accept(i, i * chunkSize, chunk, chunkResult);
+            }
+            return;
+        }
+        final ExecutorService executor = options.getExecutor() == null ? defaultExecutor : options.getExecutor();
+        final CompletionService<C> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<C>, Integer> inFlight = new HashMap<>(options.getMaxInFlightChunks(), 1.0f);
+        int nextChunk = 0;
+        try {
+            while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+                while (nextChunk < chunks.size() && inFlight.size() < options.getMaxInFlightChunks()) {
+                    final List<R> chunk = chunks.get(nextChunk);
+                    inFlight.put(completionService.submit(() -> reader.read(chunk)), nextChunk);
+                    nextChunk++;
+                }
+                final Future<C> completed = completionService.take();
+                final int i = inFlight.remove(completed);
+                final List<R> chunk = chunks.get(i);
+                C chunkResult;
+                try {
+                    chunkResult = completed.get();
+                } catch (ExecutionException e) {
+                    consumer.failed(i, i * chunkSize, chunk, e.getCause());
+                    continue;
+                }
+                consumer.accept(i, i * chunkSize, chunk, chunkResult);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for chunks of a bulk get").initCause(e);
+        } finally {
+            for (Future<C> future : inFlight.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Values of a few fields over a set of rows, laid out column-wise, as returned by 'fetchColumns' methods of {@link AbstractHBDAO} (e.g. {@link AbstractHBDAO#fetchColumns(org.apache.hadoop.hbase.client.Scan, String...)})
+ * <br><br>
+ * Row <code>i</code> of the batch has row key <code>getRowKeys()[i]</code> and it's value of a field is the <code>i</code>th element of that field's column. Columns of fields of types {@link Long}, {@link Integer}, {@link Short}, {@link Byte}, {@link Double}, {@link Float} and {@link Boolean} are primitive arrays (e.g. <code>long[]</code>), with missing values (i.e. <code>null</code>s) left as <code>0</code>/<code>false</code>; use {@link #isNull(String, int)} to tell them apart. Columns of fields of other types are arrays of the field's type.
+ * <br><br>
+ * For efficiency, arrays are <u>not</u> copied, neither when the batch is built nor when they're accessed. Do not modify them, if you share the batch across threads.
+ *
+ * @param <R> Data type of row key
+ */
+public class ColumnBatch<R extends Serializable & Comparable<R>> {
+    private final R[] rowKeys;
+    private final Map<String, Object> columns;
+    private final Map<String, BitSet> presence;
+
+    ColumnBatch(R[] rowKeys, Map<String, Object> columns, Map<String, BitSet> presence) {
+        this.rowKeys = rowKeys;
+        this.columns = Collections.unmodifiableMap(columns);
+        this.presence = presence;
+    }
+
+    /**
+     * @return Number of rows in this batch
+     */
+    public int size() {
+        return rowKeys.length;
+    }
+
+    /**
+     * @return Row keys, in row order
+     */
+    public R[] getRowKeys() {
+        return rowKeys;
+    }
+
+    /**
+     * @return Names of fields in this batch, in the order they were requested
+     */
+    public Set<String> getFieldNames() {
+        return columns.keySet();
+    }
+
+    /**
+     * @param fieldName Name of field
+     * @return Column of given field (a primitive array, for fields of boxed primitive types)
+     * @throws IllegalArgumentException If field isn't part of this batch
+     */
+    public Object getColumn(String fieldName) {
+        final Object column = columns.get(fieldName);
+        if (column == null) {
+            throw new IllegalArgumentException(String.format("Field '%s' isn't part of this batch. Choose one of %s", fieldName, columns.keySet()));
+        }
+        return column;
+    }
+
+    /**
+     * @param fieldName Name of field
+     * @param row       Index of row
+     * @return <code>true</code> if given row has no value for given field
+     */
+    public boolean isNull(String fieldName, int row) {
+        getColumn(fieldName);
+        if (row < 0 || row >= rowKeys.length) {
+            throw new IndexOutOfBoundsException("Row index " + row + " is out of bounds (size of batch is " + rowKeys.length + ")");
+        }
+        return !presence.get(fieldName).get(row);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Long}
+     * @return Column of given field
+     */
+    public long[] getLongColumn(String fieldName) {
+        return getColumn(fieldName, long[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Integer}
+     * @return Column of given field
+     */
+    public int[] getIntColumn(String fieldName) {
+        return getColumn(fieldName, int[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Short}
+     * @return Column of given field
+     */
+    public short[] getShortColumn(String fieldName) {
+        return getColumn(fieldName, short[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Byte}
+     * @return Column of given field
+     */
+    public byte[] getByteColumn(String fieldName) {
+        return getColumn(fieldName, byte[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Double}
+     * @return Column of given field
+     */
+    public double[] getDoubleColumn(String fieldName) {
+        return getColumn(fieldName, double[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Float}
+     * @return Column of given field
+     */
+    public float[] getFloatColumn(String fieldName) {
+        return getColumn(fieldName, float[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field of type {@link Boolean}
+     * @return Column of given field
+     */
+    public boolean[] getBooleanColumn(String fieldName) {
+        return getColumn(fieldName, boolean[].class);
+    }
+
+    /**
+     * @param fieldName Name of a field whose type isn't a boxed primitive type
+     * @return Column of given field (an array of field's type, if field's type is a class, or of {@link Object} otherwise)
+     */
+    public Object[] getObjectColumn(String fieldName) {
+        return getColumn(fieldName, Object[].class);
+    }
+
+    private <A> A getColumn(String fieldName, Class<A> arrayType) {
+        final Object column = getColumn(fieldName);
+        if (!arrayType.isInstance(column)) {
+            throw new IllegalArgumentException(String.format("Column of field '%s' is a %s[] (not %s)", fieldName, column.getClass().getComponentType().getSimpleName(), arrayType.getSimpleName()));
+        }
+        return arrayType.cast(column);
+    }
+
+    /**
+     * @return An empty column for a field of given type
+     */
+    static Object newColumn(Type fieldType, int size) {
+        if (fieldType == Long.class) {
+            return new long[size];
+        } else if (fieldType == Integer.class) {
+            return new int[size];
+        } else if (fieldType == Short.class) {
+            return new short[size];
+        } else if (fieldType == Byte.class) {
+            return new byte[size];
+        } else if (fieldType == Double.class) {
+            return new double[size];
+        } else if (fieldType == Float.class) {
+            return new float[size];
+        } else if (fieldType == Boolean.class) {
+            return new boolean[size];
+        } else if (fieldType instanceof Class && !((Class<?>) fieldType).isPrimitive()) {
+            return Array.newInstance((Class<?>) fieldType, size);
+        } else {
+            return new Object[size];
+        }
+    }
+
+    static void setValue(Object column, int row, Object value) {
+        if (column instanceof long[]) {
+            ((long[]) column)[row] = (Long) value;
+        } else if (column instanceof int[]) {
+            ((int[]) column)[row] = (Integer) value;
+        } else if (column instanceof short[]) {
+            ((short[]) column)[row] = (Short) value;
+        } else if (column instanceof byte[]) {
+            ((byte[]) column)[row] = (Byte) value;
+        } else if (column instanceof double[]) {
+            ((double[]) column)[row] = (Double) value;
+        } else if (column instanceof float[]) {
+            ((float[]) column)[row] = (Float) value;
+        } else if (column instanceof boolean[]) {
+            ((boolean[]) column)[row] = (Boolean) value;
+        } else {
+            ((Object[]) column)[row] = value;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Accumulates increments of counters (row and field) locally and flushes them to HBase in batches, backing {@link AbstractHBDAO#accumulate(java.io.Serializable, String, long)} when {@link HBDAOOptions#setCounterAccumulation(CounterAccumulatorConfig) enabled}. For internal use only.
+ * <br><br>
+ * Each counter is a {@link LongAdder} (striped internally, so that concurrent increments of a hot counter don't contend). A flush removes counters from the map and drains them. A thread that looked a counter up just before it's removal may still add to it; hence removed counters are drained once more at the next flush, before being dropped.
+ * <br><br>
+ * Flushes hold an exclusive lock and {@link #read(CounterKey, StoredValueReader) read-your-writes reads} a shared one, so that a read never sees a delta both in HBase and locally (or in neither). Plain increments don't take the lock.
+ *
+ * @param <R> Data type of row key
+ */
+class CounterAccumulator<R> implements Closeable {
+
+    interface IncrementWriter<R> {
+        /**
+         * Writes given increments (as in {@link org.apache.hadoop.hbase.client.Table#batch(List, Object[])})
+         *
+         * @param rowKeys Row keys of increments, in the same order
+         */
+        void write(List<R> rowKeys, List<Increment> increments, Object[] results) throws IOException, InterruptedException;
+    }
+
+    interface StoredValueReader {
+        /**
+         * @return Value of counter, as stored in HBase
+         */
+        long read() throws IOException;
+    }
+
+    /**
+     * A counter: row and field
+     */
+    static class CounterKey<R> {
+        private final R rowKey;
+        private final byte[] rowKeyBytes;
+        private final String fieldName;
+        private final byte[] family;
+        private final byte[] column;
+
+        CounterKey(R rowKey, byte[] rowKeyBytes, String fieldName, byte[] family, byte[] column) {
+            this.rowKey = rowKey;
+            this.rowKeyBytes = rowKeyBytes;
+            this.fieldName = fieldName;
+            this.family = family;
+            this.column = column;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey<?> that = (CounterKey<?>) o;
+            return rowKey.equals(that.rowKey) && fieldName.equals(that.fieldName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rowKey.hashCode() + fieldName.hashCode();
+        }
+    }
+
+    private final int maxPendingCounters;
+    private final Durability durability;
+    private final IncrementWriter<R> writer;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentMap<CounterKey<R>, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile Map<CounterKey<R>, LongAdder> retiring = Collections.emptyMap(); // removed at previous flush, to be drained once more
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushTriggered = new AtomicBoolean();
+    private volatile boolean closed;
+
+    CounterAccumulator(CounterAccumulatorConfig config, IncrementWriter<R> writer, String name) {
+        this.maxPendingCounters = config.getMaxPendingCounters();
+        this.durability = config.getDurability();
+        this.writer = writer;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long flushIntervalMillis = config.getFlushIntervalMillis();
+        if (flushIntervalMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void add(CounterKey<R> key, long amount) {
+        if (closed) {
+            throw new IllegalStateException("Counter accumulation of this DAO is closed");
+        }
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+        if (counters.size() >= maxPendingCounters && flushTriggered.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushTriggered.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushTriggered.set(false); // closed concurrently, which flushes anyway
+            }
+        }
+    }
+
+    /**
+     * @return Value of counter stored in HBase plus local delta not yet flushed
+     */
+    long read(CounterKey<R> key, StoredValueReader storedValueReader) throws IOException {
+        lock.readLock().lock();
+        try {
+            return storedValueReader.read() + pending(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long pending(CounterKey<R> key) {
+        long pending = 0;
+        final LongAdder counter = counters.get(key), retiringCounter = retiring.get(key);
+        if (counter != null) {
+            pending += counter.sum();
+        }
+        if (retiringCounter != null) {
+            pending += retiringCounter.sum();
+        }
+        return pending;
+    }
+
+    /**
+     * Sends local deltas to HBase, as one {@link Increment} per row. Deltas of increments that fail are added back, to be retried by next flush.
+     *
+     * @throws IOException When one or more increments fail
+     */
+    void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            final Map<CounterKey<R>, Long> deltas = new LinkedHashMap<>();
+            drain(retiring, deltas);
+            final Map<CounterKey<R>, LongAdder> removed = new HashMap<>();
+            for (CounterKey<R> key : counters.keySet()) {
+                final LongAdder counter = counters.remove(key);
+                if (counter != null) {
+                    removed.put(key, counter);
+                }
+            }
+            drain(removed, deltas);
+            retiring = removed;
+            final Map<R, Increment> increments = new LinkedHashMap<>();
+            final Map<R, List<CounterKey<R>>> keysByRow = new HashMap<>();
+            for (Map.Entry<CounterKey<R>, Long> e : deltas.entrySet()) {
+                final CounterKey<R> key = e.getKey();
+                if (e.getValue() == 0) {
+                    continue;
+                }
+                increments.computeIfAbsent(key.rowKey, r -> new Increment(key.rowKeyBytes).setDurability(durability))
+                        .addColumn(key.family, key.column, e.getValue());
+                keysByRow.computeIfAbsent(key.rowKey, r -> new ArrayList<>()).add(key);
+            }
+            if (increments.isEmpty()) {
+                return;
+            }
+            final List<R> rowKeys = new ArrayList<>(increments.keySet());
+            final Object[] results = new Object[rowKeys.size()];
+            IOException failure = null;
+            try {
+                writer.write(rowKeys, new ArrayList<>(increments.values()), results);
+            } catch (RetriesExhaustedWithDetailsException e) {
+                failure = e; // failures of individual increments are available in 'results'
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = (InterruptedIOException) new InterruptedIOException("Interrupted while flushing counters").initCause(e);
+                Arrays.fill(results, null);
+            } catch (IOException e) {
+                failure = e;
+                Arrays.fill(results, null);
+            }
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null || results[i] instanceof Throwable) {
+                    for (CounterKey<R> key : keysByRow.get(rowKeys.get(i))) {
+                        counters.computeIfAbsent(key, k -> new LongAdder()).add(deltas.get(key));
+                    }
+                    if (failure == null) {
+                        failure = new IOException("Outcome of increment is unknown (HBase returned no result for it)");
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <R> void drain(Map<CounterKey<R>, LongAdder> counters, Map<CounterKey<R>, Long> deltas) {
+        for (Map.Entry<CounterKey<R>, LongAdder> e : counters.entrySet()) {
+            final long delta = e.getValue().sum();
+            e.getValue().add(-delta); // unlike LongAdder#reset, doesn't lose concurrent additions
+            deltas.merge(e.getKey(), delta, Long::sum);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException ignored) {
+            // deltas of failed increments are retried by next flush
+        }
+    }
+
+    /**
+     * Stops periodic flushes and flushes local deltas. Increments after this fail.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        flusher.shutdown();
+        flush();
+        flush(); // drains counters removed by the previous flush, in case of late additions
+    }
+}
@@ -0,0 +1,71 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Durability;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of (optional) client-side accumulation of increments of {@link AbstractHBDAO}, to be passed through {@link HBDAOOptions#setCounterAccumulation(CounterAccumulatorConfig)}
+ * <br><br>
+ * When enabled, {@link AbstractHBDAO#accumulate(java.io.Serializable, String, long)} adds to a local counter (per row and field) instead of calling HBase. Local counters are sent to HBase as batched {@link org.apache.hadoop.hbase.client.Increment Increment}s, one per row, when the flush interval elapses, when number of counters pending reaches {@link #maxPendingCounters(int)} or when {@link AbstractHBDAO#flushCounters()} (or {@link AbstractHBDAO#close()}) is called. For example:
+ * <pre>
+ * new CounterAccumulatorConfig()
+ *   .flushInterval(200, TimeUnit.MILLISECONDS)
+ *   .durability(Durability.ASYNC_WAL);
+ * </pre>
+ * This turns many increments of a hot counter into one, at the cost of increments being visible in HBase only after a flush (and being lost if the process dies before that).
+ */
+public class CounterAccumulatorConfig {
+    private long flushIntervalMillis = 1000;
+    private int maxPendingCounters = 10_000;
+    private Durability durability = Durability.USE_DEFAULT;
+
+    /**
+     * @param interval Interval at which local counters are flushed by a background thread (<code>0</code> to disable periodic flushes)
+     * @param unit     Unit of interval
+     * @return This object (for method chaining)
+     */
+    public CounterAccumulatorConfig flushInterval(long interval, TimeUnit unit) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Flush interval can't be negative");
+        }
+        this.flushIntervalMillis = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * @param maxPendingCounters Number of distinct counters (row and field) pending, on reaching which a flush is triggered (in background)
+     * @return This object (for method chaining)
+     */
+    public CounterAccumulatorConfig maxPendingCounters(int maxPendingCounters) {
+        if (maxPendingCounters < 1) {
+            throw new IllegalArgumentException("Maximum number of pending counters must be a positive number (found " + maxPendingCounters + ")");
+        }
+        this.maxPendingCounters = maxPendingCounters;
+        return this;
+    }
+
+    /**
+     * @param durability The persistence guarantee for flushed increments (see {@link Durability})
+     * @return This object (for method chaining)
+     */
+    public CounterAccumulatorConfig durability(Durability durability) {
+        if (durability == null) {
+            throw new IllegalArgumentException("Durability can't be null");
+        }
+        this.durability = durability;
+        return this;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getMaxPendingCounters() {
+        return maxPendingCounters;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+}
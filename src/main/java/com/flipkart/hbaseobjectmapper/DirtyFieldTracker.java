@@ -0,0 +1,110 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tracks which fields of records loaded through an {@link AbstractHBDAO} have changed since they were loaded, backing {@link HBDAOOptions#setDirtyFieldTracking(boolean) dirty-field tracking}. For internal use only.
+ * <br><br>
+ * For each loaded record, a (murmur3) hash of every column it serializes to (all cells of the column, with their timestamps) is remembered. Records are held weakly and by identity, so that tracking doesn't keep records from being garbage collected. Columns whose hash differs at the time of persist (or which weren't in the snapshot) are dirty; columns in the snapshot that the record no longer serializes to are fields set to <code>null</code>.
+ */
+class DirtyFieldTracker {
+
+    /**
+     * Mutations needed to persist a record, as per it's snapshot
+     */
+    static class Changes {
+        final Put put;
+        final Delete delete;
+
+        private Changes(Put put, Delete delete) {
+            this.put = put;
+            this.delete = delete;
+        }
+
+        boolean isEmpty() {
+            return put.isEmpty() && delete.isEmpty();
+        }
+    }
+
+    private final boolean deleteNulledFields;
+    private final ConcurrentMap<HBRecord<?>, Map<FamilyAndColumn, Long>> snapshots = new MapMaker().weakKeys().makeMap();
+
+    DirtyFieldTracker(boolean deleteNulledFields) {
+        this.deleteNulledFields = deleteNulledFields;
+    }
+
+    /**
+     * Remembers given record's state
+     *
+     * @param put Record serialized as a {@link Put}
+     */
+    void snapshot(HBRecord<?> record, Put put) {
+        snapshots.put(record, hashColumns(put));
+    }
+
+    void forget(HBRecord<?> record) {
+        snapshots.remove(record);
+    }
+
+    /**
+     * @param put Record serialized as a {@link Put} (as it's now)
+     * @return Columns to write (and delete) to persist given record, as per it's snapshot. If record has no snapshot, all of given put.
+     */
+    Changes changes(HBRecord<?> record, Put put) throws IOException {
+        final Map<FamilyAndColumn, Long> before = snapshots.get(record);
+        final Delete delete = new Delete(put.getRow());
+        if (before == null) {
+            return new Changes(put, delete);
+        }
+        final Map<FamilyAndColumn, Long> after = hashColumns(put);
+        final Put dirtyPut = new Put(put.getRow());
+        for (List<Cell> cells : put.getFamilyCellMap().values()) {
+            for (Cell cell : cells) {
+                final FamilyAndColumn column = column(cell);
+                if (!after.get(column).equals(before.get(column))) {
+                    dirtyPut.add(cell);
+                }
+            }
+        }
+        if (deleteNulledFields) {
+            for (FamilyAndColumn column : before.keySet()) {
+                if (!after.containsKey(column)) {
+                    delete.addColumns(Bytes.toBytes(column.getFirst()), Bytes.toBytes(column.getSecond()));
+                }
+            }
+        }
+        return new Changes(dirtyPut, delete);
+    }
+
+    private static Map<FamilyAndColumn, Long> hashColumns(Put put) {
+        final Map<FamilyAndColumn, Hasher> hashers = new HashMap<>();
+        for (List<Cell> cells : put.getFamilyCellMap().values()) {
+            for (Cell cell : cells) {
+                hashers.computeIfAbsent(column(cell), k -> Hashing.murmur3_128().newHasher())
+                        .putLong(cell.getTimestamp())
+                        .putInt(cell.getValueLength())
+                        .putBytes(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            }
+        }
+        final Map<FamilyAndColumn, Long> hashes = new HashMap<>(hashers.size() * 2);
+        for (Map.Entry<FamilyAndColumn, Hasher> e : hashers.entrySet()) {
+            hashes.put(e.getKey(), e.getValue().hash().asLong());
+        }
+        return hashes;
+    }
+
+    private static FamilyAndColumn column(Cell cell) {
+        return new FamilyAndColumn(Bytes.toString(CellUtil.cloneFamily(cell)), Bytes.toString(CellUtil.cloneQualifier(cell)));
+    }
+}
@@ -0,0 +1,203 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.google.common.cache.*;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache of rows, backing {@link AbstractHBDAO} when {@link HBDAOOptions#setEntityCache(EntityCacheConfig) enabled}. For internal use only.
+ * <br><br>
+ * Rows are cached in their raw form (as HBase's {@link Result} objects, which are immutable) and decoded upon every read. Hence, every caller gets it's own instance of the record and is free to modify it. Rows that don't exist are cached as well (as empty {@link Result}s).
+ * <br><br>
+ * Invalidating a row doesn't stop a load (or refresh) of it that's already in flight, which would then cache the row as it was before the write. Hence, rows being loaded are tracked (along with number of times they're invalidated) and {@link #invalidate(Serializable)} marks the row if it's being loaded. A load whose row gets invalidated while it's fetched fetches the row again, before handing it over to the cache (so that cache statistics count it as one miss, load time included).
+ *
+ * @param <R> Data type of row key
+ * @param <T> Entity type
+ */
+class EntityCache<R extends Serializable & Comparable<R>, T extends HBRecord<R>> {
+
+    interface RowLoader<R> {
+        Result[] load(List<R> rowKeys) throws IOException;
+    }
+
+    private static class CachedRow {
+        private final Result result;
+        private final int weight;
+
+        CachedRow(Result result) {
+            this.result = result;
+            int weight = 0;
+            if (result != null && !result.isEmpty()) {
+                result.getMap(); // builds Result's (lazily initialized) family map before the result is shared across threads
+                for (Cell cell : result.rawCells()) {
+                    weight += cell.getRowLength() + cell.getFamilyLength() + cell.getQualifierLength() + cell.getValueLength();
+                }
+            }
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Loads of a row in flight (mutated only within {@link ConcurrentMap#compute(Object, java.util.function.BiFunction) compute} and the like, which serialize updates of a row)
+     */
+    private static class PendingLoad {
+        private int loads;
+        private long invalidations;
+    }
+
+    private final HBObjectMapper hbObjectMapper;
+    private final Class<T> clazz;
+    private final RowLoader<R> rowLoader;
+    private final LoadingCache<R, CachedRow> cache;
+    private final ConcurrentMap<R, PendingLoad> pendingLoads = new ConcurrentHashMap<>(); // rows being loaded
+
+    EntityCache(EntityCacheConfig config, HBObjectMapper hbObjectMapper, Class<T> clazz, final RowLoader<R> rowLoader, Executor refreshExecutor) {
+        if (config.getMaximumSize() < 0 && config.getMaximumWeightInBytes() < 0) {
+            throw new IllegalArgumentException(String.format("Cache of records of %s must be bounded (by either size or weight)", clazz.getName()));
+        }
+        this.hbObjectMapper = hbObjectMapper;
+        this.clazz = clazz;
+        this.rowLoader = rowLoader;
+        CacheLoader<R, CachedRow> loader = new CacheLoader<R, CachedRow>() {
+            @Override
+            public CachedRow load(R rowKey) throws IOException {
+                return loadAll(Collections.singletonList(rowKey)).get(rowKey);
+            }
+
+            @Override
+            public Map<R, CachedRow> loadAll(Iterable<? extends R> rowKeys) throws IOException {
+                List<R> rowKeysList = new ArrayList<>();
+                for (R rowKey : rowKeys) {
+                    rowKeysList.add(rowKey);
+                }
+                return EntityCache.this.load(rowKeysList);
+            }
+        };
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (config.getMaximumSize() >= 0) {
+            builder.maximumSize(config.getMaximumSize());
+        }
+        if (config.getExpireAfterWriteNanos() >= 0) {
+            builder.expireAfterWrite(config.getExpireAfterWriteNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (config.getRefreshAfterWriteNanos() >= 0) {
+            builder.refreshAfterWrite(config.getRefreshAfterWriteNanos(), TimeUnit.NANOSECONDS);
+            loader = CacheLoader.asyncReloading(loader, refreshExecutor);
+        }
+        if (config.getMaximumWeightInBytes() >= 0) {
+            this.cache = builder.maximumWeight(config.getMaximumWeightInBytes())
+                    .weigher(new Weigher<R, CachedRow>() {
+                        @Override
+                        public int weigh(R rowKey, CachedRow row) {
+                            return row.weight;
+                        }
+                    })
+                    .build(loader);
+        } else {
+            this.cache = builder.build(loader);
+        }
+    }
+
+    /**
+     * Loads given rows, fetching again those that get invalidated while they're fetched
+     */
+    private Map<R, CachedRow> load(List<R> rowKeys) throws IOException {
+        Map<R, CachedRow> rows = new HashMap<>(rowKeys.size(), 1.0f);
+        List<R> toFetch = rowKeys;
+        while (!toFetch.isEmpty()) {
+            long[] invalidations = new long[toFetch.size()];
+            for (int i = 0; i < invalidations.length; i++) {
+                final int index = i;
+                pendingLoads.compute(toFetch.get(i), (rowKey, p) -> {
+                    p = p == null ? new PendingLoad() : p;
+                    p.loads++;
+                    invalidations[index] = p.invalidations;
+                    return p;
+                });
+            }
+            List<R> invalidated = new ArrayList<>();
+            try {
+                Result[] results = rowLoader.load(toFetch);
+                for (int i = 0; i < results.length; i++) {
+                    rows.put(toFetch.get(i), new CachedRow(results[i]));
+                }
+            } finally {
+                for (int i = 0; i < invalidations.length; i++) {
+                    final long invalidationsBefore = invalidations[i];
+                    pendingLoads.compute(toFetch.get(i), (rowKey, p) -> {
+                        if (p.invalidations != invalidationsBefore) {
+                            invalidated.add(rowKey);
+                        }
+                        return --p.loads == 0 ? null : p;
+                    });
+                }
+            }
+            toFetch = invalidated;
+        }
+        return rows;
+    }
+
+    T get(R rowKey) throws IOException {
+        try {
+            return decode(rowKey, cache.get(rowKey));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw toIOException(e);
+        }
+    }
+
+    List<T> getAll(List<R> rowKeys) throws IOException {
+        Map<R, CachedRow> rows;
+        try {
+            rows = cache.getAll(rowKeys);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw toIOException(e);
+        }
+        List<T> records = new ArrayList<>(rowKeys.size());
+        for (R rowKey : rowKeys) {
+            records.add(decode(rowKey, rows.get(rowKey)));
+        }
+        return records;
+    }
+
+    /**
+     * Drops given row from cache. Called after a write to the row completes, so that loads that started before that are fetched again as well.
+     */
+    void invalidate(R rowKey) {
+        pendingLoads.computeIfPresent(rowKey, (k, p) -> { // before invalidating, so that a load that stores the row after this fetches it again
+            p.invalidations++;
+            return p;
+        });
+        cache.invalidate(rowKey);
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    private T decode(R rowKey, CachedRow row) {
+        return hbObjectMapper.readValue(rowKey, row.result, clazz);
+    }
+
+    private static IOException toIOException(Throwable e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException("Error while loading records into cache", cause);
+    }
+}
@@ -0,0 +1,87 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the (optional) read-through cache of {@link AbstractHBDAO}, to be passed through {@link HBDAOOptions#setEntityCache(EntityCacheConfig)}
+ * <br><br>
+ * A cache must be bounded, either by number of rows ({@link #maximumSize(long)}) or by their approximate size in bytes ({@link #maximumWeightInBytes(long)}), but not both. For example:
+ * <pre>
+ * new EntityCacheConfig()
+ *   .maximumSize(100_000)
+ *   .expireAfterWrite(10, TimeUnit.MINUTES)
+ *   .refreshAfterWrite(1, TimeUnit.MINUTES);
+ * </pre>
+ */
+public class EntityCacheConfig {
+    private long maximumSize = -1;
+    private long maximumWeightInBytes = -1;
+    private long expireAfterWriteNanos = -1;
+    private long refreshAfterWriteNanos = -1;
+
+    /**
+     * @param maximumSize Maximum number of rows to be cached
+     * @return This object (for method chaining)
+     */
+    public EntityCacheConfig maximumSize(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size can't be negative");
+        }
+        if (maximumWeightInBytes >= 0) {
+            throw new IllegalStateException("Cache is already bounded by weight (can't bound it by size as well)");
+        }
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * @param maximumWeightInBytes Maximum total size of cached rows, where size of a row is the sum of sizes of row key, family, column and value of every cell in the row
+     * @return This object (for method chaining)
+     */
+    public EntityCacheConfig maximumWeightInBytes(long maximumWeightInBytes) {
+        if (maximumWeightInBytes < 0) {
+            throw new IllegalArgumentException("Maximum weight can't be negative");
+        }
+        if (maximumSize >= 0) {
+            throw new IllegalStateException("Cache is already bounded by size (can't bound it by weight as well)");
+        }
+        this.maximumWeightInBytes = maximumWeightInBytes;
+        return this;
+    }
+
+    /**
+     * @param duration Duration (since a row was fetched from HBase) after which it is evicted from cache
+     * @param unit     Unit of duration
+     * @return This object (for method chaining)
+     */
+    public EntityCacheConfig expireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param duration Duration (since a row was fetched from HBase) after which it is refreshed asynchronously upon next read. Till the refresh completes, readers get the previously cached row.
+     * @param unit     Unit of duration
+     * @return This object (for method chaining)
+     */
+    public EntityCacheConfig refreshAfterWrite(long duration, TimeUnit unit) {
+        this.refreshAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaximumWeightInBytes() {
+        return maximumWeightInBytes;
+    }
+
+    public long getExpireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+    public long getRefreshAfterWriteNanos() {
+        return refreshAfterWriteNanos;
+    }
+}
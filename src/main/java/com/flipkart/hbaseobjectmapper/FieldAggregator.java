@@ -0,0 +1,110 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.EnumMap;
+import java.util.Set;
+
+/**
+ * Folds values of a field into primitive accumulators, backing {@link AbstractHBDAO#aggregate(org.apache.hadoop.hbase.client.Scan, String, Aggregation...)}. For internal use only.
+ * <br><br>
+ * Values of integral fields are accumulated as <code>long</code>s (hence, sums are exact, and overflow fails with an {@link ArithmeticException}) and others as <code>double</code>s.
+ * <br><br>
+ * <b>Note</b>: This class is <u>not</u> thread-safe. For parallel aggregation, use one object per thread and {@link #merge(FieldAggregator) merge} them.
+ */
+class FieldAggregator {
+    private final boolean integral;
+    private long count;
+    private long longSum;
+    private long longMin = Long.MAX_VALUE;
+    private long longMax = Long.MIN_VALUE;
+    private double doubleSum;
+    private double doubleMin = Double.POSITIVE_INFINITY;
+    private double doubleMax = Double.NEGATIVE_INFINITY;
+    private double sumOfSquares;
+
+    FieldAggregator(boolean integral) {
+        this.integral = integral;
+    }
+
+    static boolean isIntegral(Class<?> clazz) {
+        return clazz == Long.class || clazz == Integer.class || clazz == Short.class || clazz == Byte.class;
+    }
+
+    /**
+     * Counts a value without looking at it (for when only {@link Aggregation#COUNT} is requested)
+     */
+    void count() {
+        count++;
+    }
+
+    void accept(Number value) {
+        count++;
+        if (integral) {
+            final long v = value.longValue();
+            longSum = Math.addExact(longSum, v);
+            longMin = Math.min(longMin, v);
+            longMax = Math.max(longMax, v);
+            sumOfSquares += (double) v * v;
+        } else {
+            final double v = value.doubleValue();
+            doubleSum += v;
+            doubleMin = Math.min(doubleMin, v);
+            doubleMax = Math.max(doubleMax, v);
+            sumOfSquares += v * v;
+        }
+    }
+
+    void merge(FieldAggregator other) {
+        count += other.count;
+        longSum = Math.addExact(longSum, other.longSum);
+        longMin = Math.min(longMin, other.longMin);
+        longMax = Math.max(longMax, other.longMax);
+        doubleSum += other.doubleSum;
+        doubleMin = Math.min(doubleMin, other.doubleMin);
+        doubleMax = Math.max(doubleMax, other.doubleMax);
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getSum() {
+        return integral ? (double) longSum : doubleSum;
+    }
+
+    double getSumOfSquares() {
+        return sumOfSquares;
+    }
+
+    AggregationResult toResult(Set<Aggregation> aggregations) {
+        final EnumMap<Aggregation, Number> values = new EnumMap<>(Aggregation.class);
+        for (Aggregation aggregation : aggregations) {
+            switch (aggregation) {
+                case COUNT:
+                    values.put(aggregation, count);
+                    break;
+                case SUM:
+                    values.put(aggregation, integral ? (Number) longSum : (Number) doubleSum);
+                    break;
+                case MIN:
+                    if (count > 0) {
+                        values.put(aggregation, integral ? (Number) longMin : (Number) doubleMin);
+                    }
+                    break;
+                case MAX:
+                    if (count > 0) {
+                        values.put(aggregation, integral ? (Number) longMax : (Number) doubleMax);
+                    }
+                    break;
+                case AVG:
+                    if (count > 0) {
+                        values.put(aggregation, (integral ? (double) longSum : doubleSum) / count);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported aggregation: " + aggregation);
+            }
+        }
+        return new AggregationResult(values);
+    }
+}
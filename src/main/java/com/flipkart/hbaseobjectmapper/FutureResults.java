@@ -0,0 +1,35 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Waits on futures of HBase operations, rethrowing their failures as thrown by HBase's client. For internal use only.
+ */
+class FutureResults {
+
+    private FutureResults() {
+        throw new UnsupportedOperationException();
+    }
+
+    static <V> V get(Future<V> future, String whatIsAwaited) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for " + whatIsAwaited).initCause(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Failure while waiting for " + whatIsAwaited, cause);
+        }
+    }
+}
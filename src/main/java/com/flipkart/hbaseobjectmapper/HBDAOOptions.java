@@ -0,0 +1,244 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional features and tuning of an {@link AbstractHBDAO}, to be passed to it's constructor (e.g. {@link AbstractHBDAO#AbstractHBDAO(org.apache.hadoop.hbase.client.Connection, HBDAOOptions)}). For example:
+ * <pre>
+ * super(connection, new HBDAOOptions()
+ *   .setEntityCache(new EntityCacheConfig().maximumSize(10_000))
+ *   .setMultiGetOptions(MultiGetOptions.DEFAULT.withMaxInFlightChunks(4)));
+ * </pre>
+ * Options are read once, when the DAO is constructed. Changing this object afterwards has no effect on the DAO.
+ */
+public class HBDAOOptions {
+    private MultiGetOptions multiGetOptions = MultiGetOptions.DEFAULT;
+    private EntityCacheConfig entityCache;
+    private AbsentKeyFilterConfig absentKeyFilter;
+    private boolean readCoalescing;
+    private MicroBatchConfig microBatching;
+    private WriteBehindConfig writeBehind;
+    private boolean dirtyFieldTracking;
+    private boolean deleteNulledFields;
+    private CounterAccumulatorConfig counterAccumulation;
+    private int operationTimeoutMillis = -1;
+    private int rpcTimeoutMillis = -1;
+    private int readRpcTimeoutMillis = -1;
+    private int writeRpcTimeoutMillis = -1;
+    private int scanTimeoutMillis = -1;
+    private long writeBufferSize = -1;
+
+    /**
+     * @param multiGetOptions Options for bulk gets that don't take {@link MultiGetOptions} explicitly (e.g. {@link AbstractHBDAO#get(java.util.List)})
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setMultiGetOptions(MultiGetOptions multiGetOptions) {
+        if (multiGetOptions == null) {
+            throw new IllegalArgumentException("Multi-get options can't be null");
+        }
+        this.multiGetOptions = multiGetOptions;
+        return this;
+    }
+
+    /**
+     * @param entityCache Configuration of read-through cache of records (<code>null</code> to disable caching, which is the default)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setEntityCache(EntityCacheConfig entityCache) {
+        this.entityCache = entityCache;
+        return this;
+    }
+
+    /**
+     * @param absentKeyFilter Configuration of filter of row keys known not to exist (<code>null</code> to disable the filter, which is the default)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setAbsentKeyFilter(AbsentKeyFilterConfig absentKeyFilter) {
+        this.absentKeyFilter = absentKeyFilter;
+        return this;
+    }
+
+    /**
+     * @param readCoalescing Whether concurrent identical reads of a row (same row key, number of versions and columns) should share a single in-flight fetch (default is <code>false</code>)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setReadCoalescing(boolean readCoalescing) {
+        this.readCoalescing = readCoalescing;
+        return this;
+    }
+
+    /**
+     * @param microBatching Configuration of micro-batching of single-row operations issued concurrently (<code>null</code> to disable micro-batching, which is the default)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setMicroBatching(MicroBatchConfig microBatching) {
+        this.microBatching = microBatching;
+        return this;
+    }
+
+    /**
+     * @param writeBehind Configuration of write-behind persistence through {@link AbstractHBDAO#persistAsync(HBRecord)} (<code>null</code> to disable it, which is the default)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setWriteBehind(WriteBehindConfig writeBehind) {
+        this.writeBehind = writeBehind;
+        return this;
+    }
+
+    /**
+     * @param dirtyFieldTracking Whether records read through the DAO should be tracked, so that {@link AbstractHBDAO#persist(HBRecord)} (and it's bulk variant) writes only fields that changed since they were read (default is <code>false</code>). Records not read through the DAO are written entirely, as usual.
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setDirtyFieldTracking(boolean dirtyFieldTracking) {
+        this.dirtyFieldTracking = dirtyFieldTracking;
+        return this;
+    }
+
+    /**
+     * @param deleteNulledFields With {@link #setDirtyFieldTracking(boolean) dirty-field tracking}, whether a field that was set to <code>null</code> after it's record was read should be deleted from HBase on persist (default is <code>false</code>, i.e. such fields are left as they are in HBase, like without tracking)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setDeleteNulledFields(boolean deleteNulledFields) {
+        this.deleteNulledFields = deleteNulledFields;
+        return this;
+    }
+
+    /**
+     * @param counterAccumulation Configuration of client-side accumulation of increments through {@link AbstractHBDAO#accumulate(java.io.Serializable, String, long)} (<code>null</code> to disable it, which is the default)
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setCounterAccumulation(CounterAccumulatorConfig counterAccumulation) {
+        this.counterAccumulation = counterAccumulation;
+        return this;
+    }
+
+    /**
+     * @param timeout Timeout of an operation (including retries) on this DAO's table. If not set, the timeout configured on HBase connection applies.
+     * @param unit    Unit of timeout
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setOperationTimeout(long timeout, TimeUnit unit) {
+        this.operationTimeoutMillis = toMillis(timeout, unit, "Operation timeout");
+        return this;
+    }
+
+    /**
+     * @param timeout Timeout of each RPC (reads as well as writes) to this DAO's table. If not set, the timeout configured on HBase connection applies.
+     * @param unit    Unit of timeout
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setRpcTimeout(long timeout, TimeUnit unit) {
+        this.rpcTimeoutMillis = toMillis(timeout, unit, "RPC timeout");
+        return this;
+    }
+
+    /**
+     * @param timeout Timeout of each read RPC (e.g. get) to this DAO's table, overriding {@link #setRpcTimeout(long, TimeUnit) RPC timeout} for reads
+     * @param unit    Unit of timeout
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setReadRpcTimeout(long timeout, TimeUnit unit) {
+        this.readRpcTimeoutMillis = toMillis(timeout, unit, "Read RPC timeout");
+        return this;
+    }
+
+    /**
+     * @param timeout Timeout of each write RPC (e.g. put) to this DAO's table, overriding {@link #setRpcTimeout(long, TimeUnit) RPC timeout} for writes
+     * @param unit    Unit of timeout
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setWriteRpcTimeout(long timeout, TimeUnit unit) {
+        this.writeRpcTimeoutMillis = toMillis(timeout, unit, "Write RPC timeout");
+        return this;
+    }
+
+    /**
+     * @param timeout Timeout of each RPC of a scan (i.e. each fetch of a batch of rows) on this DAO's table, overriding {@link #setReadRpcTimeout(long, TimeUnit) read RPC timeout} for scans
+     * @param unit    Unit of timeout
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setScanTimeout(long timeout, TimeUnit unit) {
+        this.scanTimeoutMillis = toMillis(timeout, unit, "Scan timeout");
+        return this;
+    }
+
+    /**
+     * @param writeBufferSize Size (in bytes) of write buffer of {@link org.apache.hadoop.hbase.client.BufferedMutator BufferedMutator}s this DAO uses for bulk writes (e.g. {@link AbstractHBDAO#persist(java.util.List)}). If not set, the size configured on HBase connection applies.
+     * @return This object (for method chaining)
+     */
+    public HBDAOOptions setWriteBufferSize(long writeBufferSize) {
+        if (writeBufferSize <= 0) {
+            throw new IllegalArgumentException("Write buffer size must be positive");
+        }
+        this.writeBufferSize = writeBufferSize;
+        return this;
+    }
+
+    private static int toMillis(long timeout, TimeUnit unit, String what) {
+        final long millis = unit.toMillis(timeout);
+        if (millis <= 0 || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(what + " must be between 1 and " + Integer.MAX_VALUE + " milliseconds");
+        }
+        return (int) millis;
+    }
+
+    public MultiGetOptions getMultiGetOptions() {
+        return multiGetOptions;
+    }
+
+    public EntityCacheConfig getEntityCache() {
+        return entityCache;
+    }
+
+    public AbsentKeyFilterConfig getAbsentKeyFilter() {
+        return absentKeyFilter;
+    }
+
+    public boolean isReadCoalescing() {
+        return readCoalescing;
+    }
+
+    public MicroBatchConfig getMicroBatching() {
+        return microBatching;
+    }
+
+    public WriteBehindConfig getWriteBehind() {
+        return writeBehind;
+    }
+
+    public boolean isDirtyFieldTracking() {
+        return dirtyFieldTracking;
+    }
+
+    public boolean isDeleteNulledFields() {
+        return deleteNulledFields;
+    }
+
+    public CounterAccumulatorConfig getCounterAccumulation() {
+        return counterAccumulation;
+    }
+
+    public int getOperationTimeoutMillis() {
+        return operationTimeoutMillis;
+    }
+
+    public int getRpcTimeoutMillis() {
+        return rpcTimeoutMillis;
+    }
+
+    public int getReadRpcTimeoutMillis() {
+        return readRpcTimeoutMillis;
+    }
+
+    public int getWriteRpcTimeoutMillis() {
+        return writeRpcTimeoutMillis;
+    }
+
+    public int getScanTimeoutMillis() {
+        return scanTimeoutMillis;
+    }
+
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+}
@@ -40,6 +40,20 @@ public class HBObjectMapper {
 
     private static final Codec DEFAULT_CODEC = new BestSuitCodec();
 
+    /**
+     * Row key type (i.e. return type of <code>composeRowKey</code>) of each entity class, resolved reflectively only once per class
+     */
+    private static final ClassValue<Class<?>> ROW_KEY_TYPES = new ClassValue<Class<?>>() {
+        @Override
+        protected Class<?> computeValue(Class<?> entityClass) {
+            try {
+                return entityClass.getDeclaredMethod("composeRowKey").getReturnType();
+            } catch (NoSuchMethodException e) {
+                throw new InternalError(e);
+            }
+        }
+    };
+
     private final Codec codec;
 
     /**
@@ -86,11 +100,7 @@ public class HBObjectMapper {
      */
     @SuppressWarnings("unchecked")
     <R extends Serializable & Comparable<R>, T extends HBRecord<R>> R bytesToRowKey(byte[] rowKeyBytes, Map<String, String> codecFlags, Class<T> entityClass) {
-        try {
-            return (R) byteArrayToValue(rowKeyBytes, entityClass.getDeclaredMethod("composeRowKey").getReturnType(), codecFlags);
-        } catch (NoSuchMethodException e) {
-            throw new InternalError(e);
-        }
+        return (R) byteArrayToValue(rowKeyBytes, ROW_KEY_TYPES.get(entityClass), codecFlags);
     }
 
     /**
@@ -119,6 +129,16 @@ public class HBObjectMapper {
         } catch (Exception ex) {
             throw new RowKeyCouldNotBeParsedException(String.format("Supplied row key \"%s\" could not be parsed", rowKey), ex);
         }
+        populateFields(record, fields, map, false);
+        return record;
+    }
+
+    /**
+     * Sets fields of given record from columns in given map
+     *
+     * @param merge Whether to merge into values already set (for a row whose columns arrive in parts): columns in map overwrite single-versioned fields and add versions to multi-versioned fields
+     */
+    private void populateFields(Object record, Collection<Field> fields, NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> map, boolean merge) {
         for (Field field : fields) {
             //属性包装类：将Entity中Field进行映射
             WrappedHBColumn hbColumn = new WrappedHBColumn(field);
@@ -135,14 +155,16 @@ public class HBObjectMapper {
                 }
                 //当该行存在多版本时，只取出该行的最新数据（内部Map已排序）
                 Map.Entry<Long, byte[]> lastEntry = columnVersionsMap.lastEntry();
-
+                if (merge && (lastEntry.getValue() == null || lastEntry.getValue().length == 0)) {
+                    objectClearFieldValue(record, field);
+                    continue;
+                }
                 objectSetFieldValue(record, field, lastEntry.getValue(), hbColumn.codecFlags());
             } else {
                 //多版本，取出所有的数据，并封装到Map
-                objectSetFieldValue(record, field, columnVersionsMap, hbColumn.codecFlags());
+                objectSetFieldValue(record, field, columnVersionsMap, hbColumn.codecFlags(), merge);
             }
         }
-        return record;
     }
 
     /**
@@ -591,6 +613,18 @@ public class HBObjectMapper {
         return readValueFromRowAndResult(rowKeyToBytes(rowKey, WrappedHBTable.getCodecFlags(clazz)), result, clazz);
     }
 
+    /**
+     * Merges columns of a partial {@link Result} (i.e. a part of a row, as returned by scans with {@link org.apache.hadoop.hbase.client.Scan#setAllowPartialResults(boolean) partial results} or {@link org.apache.hadoop.hbase.client.Scan#setBatch(int) batching}) into a record built from earlier parts of the same row
+     *
+     * @param record Record built from earlier parts of the row (modified in place)
+     * @param result Next part of the row
+     */
+    <R extends Serializable & Comparable<R>, T extends HBRecord<R>> void mergeValue(T record, Result result, Class<T> clazz) {
+        if (!isResultEmpty(result)) {
+            populateFields(record, getHBColumnFields0(clazz).values(), result.getMap(), true);
+        }
+    }
+
     private boolean isResultEmpty(Result result) {
         return result == null || result.isEmpty() || result.getRow() == null || result.getRow().length == 0;
     }
@@ -615,15 +649,18 @@ public class HBObjectMapper {
      * @param field 属性
      * @param columnValuesVersioned 属性数据源
      * @param codecFlags
+     * @param merge Whether to add to versions already set on the field
      */
-    private void objectSetFieldValue(Object obj, Field field, NavigableMap<Long, byte[]> columnValuesVersioned, Map<String, String> codecFlags) {
+    private void objectSetFieldValue(Object obj, Field field, NavigableMap<Long, byte[]> columnValuesVersioned, Map<String, String> codecFlags, boolean merge) {
         if (columnValuesVersioned == null){
             return;
         }
         try {
             field.setAccessible(true);
             //多版本对象
-            NavigableMap<Long, Object> columnValuesVersionedBoxed = new TreeMap<>();
+            @SuppressWarnings("unchecked")
+            NavigableMap<Long, Object> existingValues = merge ? (NavigableMap<Long, Object>) field.get(obj) : null;
+            NavigableMap<Long, Object> columnValuesVersionedBoxed = existingValues == null ? new TreeMap<>() : existingValues;
             //循环取出该行的所有版本数据
             for (Map.Entry<Long, byte[]> versionAndValue : columnValuesVersioned.entrySet()) {
 
@@ -636,6 +673,15 @@ public class HBObjectMapper {
         }
     }
 
+    private void objectClearFieldValue(Object obj, Field field) {
+        try {
+            field.setAccessible(true);
+            field.set(obj, null);
+        } catch (IllegalAccessException e) {
+            throw new ConversionFailedException(String.format("Could not set value on field \"%s\" on instance of class %s", field.getName(), obj.getClass()), e);
+        }
+    }
+
     private void objectSetFieldValue(Object obj, Field field, byte[] value, Map<String, String> codecFlags) {
         if (value == null || value.length == 0){
             return;
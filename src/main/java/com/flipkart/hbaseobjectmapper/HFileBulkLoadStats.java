@@ -0,0 +1,56 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of writing HFiles through {@link HFileBulkLoader#writeHFiles(java.util.Iterator, org.apache.hadoop.fs.Path)} (or {@link HFileBulkLoader#bulkLoad(java.util.Iterator, org.apache.hadoop.fs.Path)})
+ * <br><br>
+ * Objects of this class are immutable.
+ */
+public class HFileBulkLoadStats {
+    private final long recordCount;
+    private final long cellCount;
+    private final int hFileCount;
+    private final long elapsedNanos;
+
+    HFileBulkLoadStats(long recordCount, long cellCount, int hFileCount, long elapsedNanos) {
+        this.recordCount = recordCount;
+        this.cellCount = cellCount;
+        this.hFileCount = hFileCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return Number of records read off the input
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return Number of cells written to HFiles (i.e. after dropping cells overwritten by later records with the same row key)
+     */
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return Number of HFiles written (at least one per region and column family that received cells)
+     */
+    public int getHFileCount() {
+        return hFileCount;
+    }
+
+    /**
+     * @param unit Unit of time
+     * @return Time taken
+     */
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HFileBulkLoadStats{recordCount=%d, cellCount=%d, hFileCount=%d, elapsedMillis=%d}", recordCount, cellCount, hFileCount, getElapsed(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,306 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.flipkart.hbaseobjectmapper.codec.Codec;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.io.hfile.CacheConfig;
+import org.apache.hadoop.hbase.io.hfile.HFileContext;
+import org.apache.hadoop.hbase.io.hfile.HFileContextBuilder;
+import org.apache.hadoop.hbase.regionserver.HStore;
+import org.apache.hadoop.hbase.regionserver.HStoreFile;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.regionserver.StoreFileWriter;
+import org.apache.hadoop.hbase.tool.LoadIncrementalHFiles;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Loads records into an HBase table by writing HFiles and handing them over to region servers (<i>bulk load</i>), bypassing the write path (WAL, MemStore, flushes) altogether. Meant for initial loads and rebuilds of tables.
+ * <br><br>
+ * Records are serialized with {@link HBObjectMapper}, their cells sorted and written to HFiles partitioned by the table's region boundaries, using the table's column family settings (compression, data block encoding, block size and bloom filter). The HFiles are then loaded with HBase's incremental bulk loader ({@link LoadIncrementalHFiles}). For example:
+ * <pre>
+ * HFileBulkLoader&lt;String, Citizen&gt; loader = new HFileBulkLoader&lt;&gt;(connection, Citizen.class);
+ * loader.bulkLoad(citizens.iterator(), new Path("/tmp/citizens-staging"));
+ * </pre>
+ * Note:<ul>
+ * <li>This class needs <code>hbase-server</code> on the classpath (an optional dependency of this library)</li>
+ * <li>Bulk loaded rows aren't visible to caches of {@link AbstractHBDAO}s (e.g. {@link HBDAOOptions#setEntityCache(EntityCacheConfig) entity cache} or {@link HBDAOOptions#setAbsentKeyFilter(AbsentKeyFilterConfig) absent-key filter}) already populated</li>
+ * <li>Cells of fields that aren't multi-versioned are stamped with the time at which they're written to HFiles</li>
+ * </ul>
+ * <p><b>This class is thread-safe</b>, as long as it's configuration isn't changed concurrently.
+ *
+ * @param <R> Data type of row key
+ * @param <T> Entity type
+ */
+public class HFileBulkLoader<R extends Serializable & Comparable<R>, T extends HBRecord<R>> {
+
+    private final Connection connection;
+    private final HBObjectMapper hbObjectMapper;
+    private final WrappedHBTable<R, T> hbTable;
+    private int maxCellsInMemory = 1_000_000;
+
+    /**
+     * Constructs a bulk loader for given entity class, using your custom {@link HBObjectMapper}
+     *
+     * @param connection     HBase Connection (used for reading table's settings and region boundaries and for loading HFiles)
+     * @param hbObjectMapper Your custom {@link HBObjectMapper}
+     * @param hbRecordClass  Entity class
+     */
+    public HFileBulkLoader(Connection connection, HBObjectMapper hbObjectMapper, Class<T> hbRecordClass) {
+        this.connection = connection;
+        this.hbObjectMapper = hbObjectMapper;
+        this.hbTable = new WrappedHBTable<>(hbRecordClass);
+    }
+
+    /**
+     * Constructs a bulk loader for given entity class, using your custom codec
+     *
+     * @param connection    HBase Connection
+     * @param codec         Your custom codec. If <code>null</code>, default codec is used.
+     * @param hbRecordClass Entity class
+     */
+    public HFileBulkLoader(Connection connection, Codec codec, Class<T> hbRecordClass) {
+        this(connection, HBObjectMapperFactory.construct(codec), hbRecordClass);
+    }
+
+    /**
+     * Constructs a bulk loader for given entity class
+     *
+     * @param connection    HBase Connection
+     * @param hbRecordClass Entity class
+     */
+    public HFileBulkLoader(Connection connection, Class<T> hbRecordClass) {
+        this(connection, (Codec) null, hbRecordClass);
+    }
+
+    /**
+     * @param maxCellsInMemory Number of cells held (and sorted) in memory at a time. Each such batch is written to it's own set of HFiles. Larger batches mean fewer (and larger) HFiles, at the cost of memory.
+     * @return This object (for method chaining)
+     */
+    public HFileBulkLoader<R, T> maxCellsInMemory(int maxCellsInMemory) {
+        if (maxCellsInMemory < 1) {
+            throw new IllegalArgumentException("Maximum number of cells in memory must be a positive number (found " + maxCellsInMemory + ")");
+        }
+        this.maxCellsInMemory = maxCellsInMemory;
+        return this;
+    }
+
+    /**
+     * Writes given records to HFiles, one directory per column family under given directory (the layout {@link #load(Path)} expects)
+     * <br><br>
+     * Records are read off the input lazily. If a row key occurs more than once, the record that comes later wins (per column), as with {@link AbstractHBDAO#persist(HBRecord)}.
+     *
+     * @param records   Records to write (may be huge: only {@link #maxCellsInMemory(int) a batch of cells} is held in memory at a time)
+     * @param outputDir Directory to write HFiles to, on any file system Hadoop supports (e.g. local or HDFS). Must not exist.
+     * @return Outcome of writing HFiles
+     * @throws IOException When output directory exists already or when writing HFiles fails
+     */
+    public HFileBulkLoadStats writeHFiles(Iterator<? extends T> records, Path outputDir) throws IOException {
+        checkAbsent(outputDir);
+        return write(records, outputDir);
+    }
+
+    /**
+     * Loads HFiles into the table, using HBase's incremental bulk loader. HFiles that span regions (e.g. because regions split after HFiles were written) are split as needed.
+     *
+     * @param hFileDir Directory with HFiles, as written by {@link #writeHFiles(Iterator, Path)}. HFiles are moved out of it (or copied, if it's on a different file system than HBase's)
+     * @throws IOException When loading fails (in which case, HFiles of some regions may have been loaded already)
+     */
+    public void load(Path hFileDir) throws IOException {
+        final TableName tableName = hbTable.getName();
+        try (Admin admin = connection.getAdmin();
+             Table table = connection.getTable(tableName);
+             RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+            new LoadIncrementalHFiles(connection.getConfiguration()).doBulkLoad(hFileDir, admin, table, regionLocator);
+        }
+    }
+
+    /**
+     * Writes given records to HFiles in given staging directory (see {@link #writeHFiles(Iterator, Path)}), loads them into the table (see {@link #load(Path)}) and deletes the staging directory
+     *
+     * @param records    Records to load
+     * @param stagingDir Directory to write HFiles to. Must not exist. Deleted once done (whether or not bulk load succeeds).
+     * @return Outcome of writing HFiles
+     * @throws IOException When staging directory exists already or when writing or loading HFiles fails
+     */
+    public HFileBulkLoadStats bulkLoad(Iterator<? extends T> records, Path stagingDir) throws IOException {
+        checkAbsent(stagingDir);
+        try {
+            final HFileBulkLoadStats stats = write(records, stagingDir);
+            load(stagingDir);
+            return stats;
+        } finally {
+            stagingDir.getFileSystem(connection.getConfiguration()).delete(stagingDir, true);
+        }
+    }
+
+    private void checkAbsent(Path dir) throws IOException {
+        if (dir.getFileSystem(connection.getConfiguration()).exists(dir)) {
+            throw new IOException("Directory '" + dir + "' exists already (HFiles must be written to a new directory)");
+        }
+    }
+
+    private HFileBulkLoadStats write(Iterator<? extends T> records, Path outputDir) throws IOException {
+        final long startNanos = System.nanoTime();
+        final TableName tableName = hbTable.getName();
+        final TableDescriptor tableDescriptor;
+        final byte[][] startKeys;
+        try (Admin admin = connection.getAdmin();
+             RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+            tableDescriptor = admin.getDescriptor(tableName);
+            startKeys = regionLocator.getStartKeys();
+        }
+        Arrays.sort(startKeys, Bytes.BYTES_COMPARATOR);
+        final HFileSetWriter writer = new HFileSetWriter(connection.getConfiguration(), outputDir, tableDescriptor, startKeys);
+        final List<Cell> batch = new ArrayList<>();
+        long recordCount = 0;
+        long timestamp = System.currentTimeMillis();
+        while (records.hasNext()) {
+            final Put put = hbObjectMapper.writeValueAsPut(records.next());
+            recordCount++;
+            for (List<Cell> cells : put.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    batch.add(toKeyValue(cell, timestamp));
+                }
+            }
+            if (batch.size() >= maxCellsInMemory) {
+                writer.write(batch);
+                batch.clear();
+                timestamp = Math.max(System.currentTimeMillis(), timestamp + 1); // so that cells of a later batch win over those of an earlier one
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.write(batch);
+        }
+        return new HFileBulkLoadStats(recordCount, writer.cellCount, writer.hFileCount, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return Given cell as a {@link KeyValue}, with given timestamp if it has none (an HFile can't have cells with 'latest' timestamp)
+     */
+    private static KeyValue toKeyValue(Cell cell, long timestamp) {
+        return new KeyValue(CellUtil.cloneRow(cell), CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                cell.getTimestamp() == HConstants.LATEST_TIMESTAMP ? timestamp : cell.getTimestamp(), KeyValue.Type.Put, CellUtil.cloneValue(cell));
+    }
+
+    /**
+     * Writes batches of cells to HFiles, one set of HFiles (one per region and column family) per batch
+     */
+    private static class HFileSetWriter {
+        private final Configuration conf;
+        private final FileSystem fs;
+        private final Path outputDir;
+        private final TableDescriptor tableDescriptor;
+        private final byte[][] startKeys;
+        private long cellCount;
+        private int hFileCount;
+
+        HFileSetWriter(Configuration conf, Path outputDir, TableDescriptor tableDescriptor, byte[][] startKeys) throws IOException {
+            this.conf = conf;
+            this.fs = outputDir.getFileSystem(conf);
+            this.outputDir = outputDir;
+            this.tableDescriptor = tableDescriptor;
+            this.startKeys = startKeys;
+        }
+
+        void write(List<Cell> batch) throws IOException {
+            final CellComparator comparator = CellComparator.getInstance();
+            batch.sort(comparator); // stable: of cells with the same key, the one that came later stays later
+            final Map<byte[], StoreFileWriter> writers = new TreeMap<>(Bytes.BYTES_COMPARATOR); // of current region, by column family
+            int region = -1;
+            Cell previous = null;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    final Cell cell = batch.get(i);
+                    if (i + 1 < batch.size() && comparator.compare(cell, batch.get(i + 1)) == 0) {
+                        continue; // overwritten by a later record with the same row key
+                    }
+                    if (previous == null || !CellUtil.matchingRows(previous, cell)) {
+                        final int cellRegion = regionIndex(CellUtil.cloneRow(cell));
+                        if (cellRegion != region) {
+                            close(writers); // rows are sorted: no more cells for previous region
+                            region = cellRegion;
+                        }
+                    }
+                    final byte[] family = CellUtil.cloneFamily(cell);
+                    StoreFileWriter writer = writers.get(family);
+                    if (writer == null) {
+                        writer = newWriter(family);
+                        writers.put(family, writer);
+                    }
+                    writer.append(cell);
+                    cellCount++;
+                    previous = cell;
+                }
+                close(writers);
+            } catch (IOException | RuntimeException e) {
+                for (StoreFileWriter writer : writers.values()) {
+                    try {
+                        writer.close();
+                    } catch (IOException | RuntimeException closeFailure) {
+                        e.addSuppressed(closeFailure);
+                    }
+                }
+                throw e;
+            }
+        }
+
+        private StoreFileWriter newWriter(byte[] family) throws IOException {
+            final ColumnFamilyDescriptor familyDescriptor = tableDescriptor.getColumnFamily(family);
+            if (familyDescriptor == null) {
+                throw new NoSuchColumnFamilyException(String.format("Table '%s' has no column family '%s'", tableDescriptor.getTableName(), Bytes.toString(family)));
+            }
+            final HFileContext context = new HFileContextBuilder()
+                    .withCompression(familyDescriptor.getCompressionType())
+                    .withDataBlockEncoding(familyDescriptor.getDataBlockEncoding())
+                    .withBlockSize(familyDescriptor.getBlocksize())
+                    .withCompressTags(familyDescriptor.isCompressTags())
+                    .withChecksumType(HStore.getChecksumType(conf))
+                    .withBytesPerCheckSum(HStore.getBytesPerChecksum(conf))
+                    .withIncludesTags(true)
+                    .build();
+            return new StoreFileWriter.Builder(conf, CacheConfig.DISABLED, fs)
+                    .withOutputDir(new Path(outputDir, Bytes.toString(family)))
+                    .withBloomType(familyDescriptor.getBloomFilterType())
+                    .withComparator(CellComparator.getInstance())
+                    .withFileContext(context)
+                    .build();
+        }
+
+        /**
+         * Closes given writers, with file info as written by HBase's own bulk load tooling
+         */
+        private void close(Map<byte[], StoreFileWriter> writers) throws IOException {
+            final Iterator<StoreFileWriter> iterator = writers.values().iterator();
+            while (iterator.hasNext()) {
+                final StoreFileWriter writer = iterator.next();
+                iterator.remove();
+                writer.appendFileInfo(HStoreFile.BULKLOAD_TIME_KEY, Bytes.toBytes(System.currentTimeMillis()));
+                writer.appendFileInfo(HStoreFile.MAJOR_COMPACTION_KEY, Bytes.toBytes(true));
+                writer.appendFileInfo(HStoreFile.EXCLUDE_FROM_MINOR_COMPACTION_KEY, Bytes.toBytes(false));
+                writer.appendTrackedTimestampsToMetadata();
+                writer.close();
+                hFileCount++;
+            }
+        }
+
+        /**
+         * @return Index of region to which given row belongs (i.e. of the last region that starts at or before it)
+         */
+        private int regionIndex(byte[] row) {
+            final int i = Arrays.binarySearch(startKeys, row, Bytes.BYTES_COMPARATOR);
+            return i >= 0 ? i : Math.max(0, -i - 2);
+        }
+    }
+}
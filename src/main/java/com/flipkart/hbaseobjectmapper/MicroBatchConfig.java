@@ -0,0 +1,53 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of (optional) micro-batching of single-row operations of {@link AbstractHBDAO}, to be passed through {@link HBDAOOptions#setMicroBatching(MicroBatchConfig)}
+ * <br><br>
+ * When enabled, single-row gets (e.g. {@link AbstractHBDAO#get(java.io.Serializable)}) and single-row writes ({@link AbstractHBDAO#persist(HBRecord)}, {@link AbstractHBDAO#delete(java.io.Serializable)}) arriving from different threads within a small time window are sent to HBase together, in one call. Each caller still blocks till it's own operation completes, and gets it's own result (or exception).
+ * <br><br>
+ * A batch is dispatched when the window (counted from arrival of the first operation of the batch) elapses or when the batch is full, whichever is earlier. Hence, micro-batching adds up to one window of latency to every operation, in exchange for fewer RPCs. For example:
+ * <pre>
+ * new MicroBatchConfig()
+ *   .window(2, TimeUnit.MILLISECONDS)
+ *   .maxBatchSize(200);
+ * </pre>
+ */
+public class MicroBatchConfig {
+    private long windowNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private int maxBatchSize = 100;
+
+    /**
+     * @param duration Maximum duration for which an operation waits for other operations to join it's batch
+     * @param unit     Unit of duration
+     * @return This object (for method chaining)
+     */
+    public MicroBatchConfig window(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Window can't be negative");
+        }
+        this.windowNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param maxBatchSize Maximum number of operations sent to HBase in one call
+     * @return This object (for method chaining)
+     */
+    public MicroBatchConfig maxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be a positive number (found " + maxBatchSize + ")");
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+}
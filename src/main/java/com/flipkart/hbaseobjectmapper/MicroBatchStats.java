@@ -0,0 +1,65 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * Point-in-time statistics of micro-batching of an {@link AbstractHBDAO} (see {@link MicroBatchConfig})
+ * <br><br>
+ * Objects of this class are immutable.
+ */
+public class MicroBatchStats {
+    private final long batchCount;
+    private final long operationCount;
+    private final int maxBatchSize;
+    private final SortedMap<Integer, Long> batchSizeHistogram;
+
+    MicroBatchStats(long batchCount, long operationCount, int maxBatchSize, SortedMap<Integer, Long> batchSizeHistogram) {
+        this.batchCount = batchCount;
+        this.operationCount = operationCount;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeHistogram = Collections.unmodifiableSortedMap(batchSizeHistogram);
+    }
+
+    /**
+     * @return Number of batches sent to HBase so far
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return Number of operations sent to HBase so far (across all batches)
+     */
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    /**
+     * @return Size of the largest batch sent to HBase so far
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return Average number of operations per batch
+     */
+    public double getMeanBatchSize() {
+        return batchCount == 0 ? 0 : (double) operationCount / batchCount;
+    }
+
+    /**
+     * Distribution of batch sizes, in power-of-two buckets: each key is the (inclusive) upper bound of a bucket and the value is the number of batches whose size falls in that bucket (e.g. key <code>8</code> counts batches of sizes 5 to 8). Empty buckets are omitted.
+     *
+     * @return Histogram of batch sizes
+     */
+    public SortedMap<Integer, Long> getBatchSizeHistogram() {
+        return batchSizeHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MicroBatchStats{batchCount=%d, operationCount=%d, maxBatchSize=%d, batchSizeHistogram=%s}", batchCount, operationCount, maxBatchSize, batchSizeHistogram);
+    }
+}
@@ -0,0 +1,199 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gathers single-row operations submitted by concurrent callers into batches and sends each batch to HBase in one call, backing {@link AbstractHBDAO} when {@link HBDAOOptions#setMicroBatching(MicroBatchConfig) enabled}. For internal use only.
+ * <br><br>
+ * A dispatcher thread forms batches (as per {@link MicroBatchConfig}) and hands each batch over to an executor. Gets of a batch are sent through {@link Table#get(List)} and mutations through {@link Table#batch(List, Object[])}, so that a failed mutation fails only it's own caller.
+ */
+class MicroBatcher implements Closeable {
+
+    interface TableProvider {
+        /**
+         * @return Table handle, which is <u>not</u> closed after use
+         */
+        Table getTable() throws IOException;
+    }
+
+    private static class Operation {
+        private final Row action;
+        private final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Operation(Row action) {
+            this.action = action;
+        }
+    }
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final TableProvider tableProvider;
+    private final Executor executor;
+    private final BlockingQueue<Operation> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder operationCount = new LongAdder();
+    private final AtomicInteger maxObservedBatchSize = new AtomicInteger();
+    private final AtomicLongArray batchSizeBuckets = new AtomicLongArray(Integer.SIZE);
+
+    MicroBatcher(MicroBatchConfig config, TableProvider tableProvider, Executor executor, String name) {
+        this.windowNanos = config.getWindowNanos();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.tableProvider = tableProvider;
+        this.executor = executor;
+        this.dispatcher = new Thread(this::dispatch, name);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Submits an operation and waits for it's batch to complete
+     */
+    Result execute(Row action) throws IOException {
+        return FutureResults.get(submit(action), "a micro-batched operation");
+    }
+
+    CompletableFuture<Result> submit(Row action) {
+        final Operation operation = new Operation(action);
+        if (closed) {
+            operation.future.completeExceptionally(new IOException("Micro-batching of this DAO is closed"));
+            return operation.future;
+        }
+        queue.add(operation);
+        if (closed && queue.remove(operation)) { // raced with close()
+            operation.future.completeExceptionally(new IOException("Micro-batching of this DAO is closed"));
+        }
+        return operation.future;
+    }
+
+    private void dispatch() {
+        while (!closed) {
+            final List<Operation> batch = new ArrayList<>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+                final long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    final long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    final Operation operation = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (operation == null) {
+                        break;
+                    }
+                    batch.add(operation);
+                }
+            } catch (InterruptedException e) {
+                failAll(batch, new InterruptedIOException("Micro-batching of this DAO was closed"));
+                break;
+            }
+            try {
+                executor.execute(() -> executeBatch(batch));
+            } catch (RejectedExecutionException e) {
+                failAll(batch, e);
+            }
+        }
+        final List<Operation> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        failAll(pending, new IOException("Micro-batching of this DAO is closed"));
+    }
+
+    private void executeBatch(List<Operation> batch) {
+        recordBatchSize(batch.size());
+        final List<Get> gets = new ArrayList<>();
+        final List<Operation> getOperations = new ArrayList<>();
+        final List<Row> mutations = new ArrayList<>();
+        final List<Operation> mutationOperations = new ArrayList<>();
+        for (Operation operation : batch) {
+            if (operation.action instanceof Get) {
+                gets.add((Get) operation.action);
+                getOperations.add(operation);
+            } else {
+                mutations.add(operation.action);
+                mutationOperations.add(operation);
+            }
+        }
+        try {
+            final Table table = tableProvider.getTable();
+            if (!mutations.isEmpty()) {
+                final Object[] results = new Object[mutations.size()];
+                try {
+                    table.batch(mutations, results);
+                } catch (RetriesExhaustedWithDetailsException ignored) {
+                    // failures of individual mutations are available in 'results'
+                }
+                for (int i = 0; i < results.length; i++) {
+                    final CompletableFuture<Result> future = mutationOperations.get(i).future;
+                    if (results[i] instanceof Throwable) {
+                        future.completeExceptionally((Throwable) results[i]);
+                    } else if (results[i] instanceof Result) {
+                        future.complete((Result) results[i]);
+                    } else {
+                        future.completeExceptionally(new IOException("Outcome of mutation is unknown (HBase returned no result for it)"));
+                    }
+                }
+            }
+            if (!gets.isEmpty()) {
+                final Result[] results = table.get(gets);
+                for (int i = 0; i < results.length; i++) {
+                    getOperations.get(i).future.complete(results[i]);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(batch, (InterruptedIOException) new InterruptedIOException("Interrupted while executing a micro-batch").initCause(e));
+        } catch (Throwable e) {
+            failAll(batch, e);
+        }
+    }
+
+    private static void failAll(List<Operation> operations, Throwable cause) {
+        for (Operation operation : operations) {
+            operation.future.completeExceptionally(cause); // no-op for operations that already completed
+        }
+    }
+
+    private void recordBatchSize(int batchSize) {
+        batchCount.increment();
+        operationCount.add(batchSize);
+        batchSizeBuckets.incrementAndGet(Integer.SIZE - Integer.numberOfLeadingZeros(batchSize - 1));
+        int max;
+        while (batchSize > (max = maxObservedBatchSize.get()) && !maxObservedBatchSize.compareAndSet(max, batchSize)) {
+            // retry
+        }
+    }
+
+    MicroBatchStats stats() {
+        final SortedMap<Integer, Long> histogram = new TreeMap<>();
+        for (int i = 0; i < batchSizeBuckets.length(); i++) {
+            final long count = batchSizeBuckets.get(i);
+            if (count > 0) {
+                histogram.put((int) Math.min(1L << i, Integer.MAX_VALUE), count);
+            }
+        }
+        return new MicroBatchStats(batchCount.sum(), operationCount.sum(), maxObservedBatchSize.get(), histogram);
+    }
+
+    /**
+     * Stops dispatching. Operations that weren't dispatched yet fail; batches already dispatched complete normally.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+}
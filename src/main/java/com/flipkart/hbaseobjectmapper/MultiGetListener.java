@@ -0,0 +1,33 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Callback for the streaming variant of bulk get ({@link AbstractHBDAO#get(List, int, MultiGetOptions, MultiGetListener)}), which delivers records chunk by chunk as soon as each chunk is fetched and decoded.
+ * <br><br>
+ * Methods of this interface are always invoked on the thread that called the bulk get, one chunk at a time. Hence, implementations need <u>not</u> be thread-safe. Chunks are delivered in the order in which they complete, which need not be the order of row keys.
+ *
+ * @param <R> Data type of row key
+ * @param <T> Entity type
+ */
+public interface MultiGetListener<R extends Serializable & Comparable<R>, T extends HBRecord<R>> {
+
+    /**
+     * Invoked when a chunk of row keys has been fetched and decoded
+     *
+     * @param chunkIndex Zero-based index of chunk (chunk <code>i</code> holds row keys starting at position <code>i * chunkSize</code> of input)
+     * @param rowKeys    Row keys in this chunk
+     * @param records    Records corresponding to row keys in this chunk, in the same order (<code>null</code> for rows that don't exist)
+     */
+    void onChunk(int chunkIndex, List<R> rowKeys, List<T> records);
+
+    /**
+     * Invoked when a chunk of row keys could not be fetched or decoded. Other chunks are not affected.
+     *
+     * @param chunkIndex Zero-based index of chunk
+     * @param rowKeys    Row keys in this chunk
+     * @param cause      Reason for failure
+     */
+    void onChunkFailure(int chunkIndex, List<R> rowKeys, Throwable cause);
+}
@@ -0,0 +1,81 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Options that control how bulk gets (e.g. {@link AbstractHBDAO#get(java.util.List, int, MultiGetOptions)}) are split into chunks and dispatched to HBase.
+ * <br><br>
+ * Objects of this class are immutable. Use {@link #DEFAULT} as a starting point and derive your own options using the <code>with*</code> methods, for example:
+ * <pre>
+ * MultiGetOptions options = MultiGetOptions.DEFAULT.withChunkSize(500).withMaxInFlightChunks(8);
+ * </pre>
+ */
+public class MultiGetOptions {
+
+    /**
+     * Default maximum number of chunks that may be fetched concurrently
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_CHUNKS = 8;
+
+    /**
+     * Default options: chunks of 1000 row keys, up to {@value #DEFAULT_MAX_IN_FLIGHT_CHUNKS} of which are fetched concurrently on the DAO's internal thread pool
+     */
+    public static final MultiGetOptions DEFAULT = new MultiGetOptions(1000, DEFAULT_MAX_IN_FLIGHT_CHUNKS, null);
+
+    private final int chunkSize;
+    private final int maxInFlightChunks;
+    private final ExecutorService executor;
+
+    private MultiGetOptions(int chunkSize, int maxInFlightChunks, ExecutorService executor) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be a positive number (found " + chunkSize + ")");
+        }
+        if (maxInFlightChunks < 1) {
+            throw new IllegalArgumentException("Maximum number of in-flight chunks must be a positive number (found " + maxInFlightChunks + ")");
+        }
+        this.chunkSize = chunkSize;
+        this.maxInFlightChunks = maxInFlightChunks;
+        this.executor = executor;
+    }
+
+    /**
+     * @param chunkSize Maximum number of row keys to be fetched in one call to HBase
+     * @return A copy of these options, with given chunk size
+     */
+    public MultiGetOptions withChunkSize(int chunkSize) {
+        return new MultiGetOptions(chunkSize, maxInFlightChunks, executor);
+    }
+
+    /**
+     * @param maxInFlightChunks Maximum number of chunks that may be fetched concurrently (defaults to {@value #DEFAULT_MAX_IN_FLIGHT_CHUNKS}). <code>1</code> means chunks are fetched sequentially on the calling thread.
+     * @return A copy of these options, with given bound on concurrency
+     */
+    public MultiGetOptions withMaxInFlightChunks(int maxInFlightChunks) {
+        return new MultiGetOptions(chunkSize, maxInFlightChunks, executor);
+    }
+
+    /**
+     * @param executor Executor on which chunks are fetched and decoded when more than one chunk may be in flight. If <code>null</code>, a thread pool internal to the DAO is used.
+     * @return A copy of these options, with given executor
+     */
+    public MultiGetOptions withExecutor(ExecutorService executor) {
+        return new MultiGetOptions(chunkSize, maxInFlightChunks, executor);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getMaxInFlightChunks() {
+        return maxInFlightChunks;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MultiGetOptions{chunkSize=%d, maxInFlightChunks=%d}", chunkSize, maxInFlightChunks);
+    }
+}
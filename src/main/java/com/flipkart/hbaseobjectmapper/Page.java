@@ -0,0 +1,45 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of records, as returned by {@link AbstractHBDAO#page(org.apache.hadoop.hbase.client.Scan, int, byte[])}, along with a cursor to fetch the next page
+ * <br><br>
+ * Objects of this class are immutable (though records contained in it are not).
+ *
+ * @param <T> record type
+ */
+@SuppressWarnings("rawtypes")
+public class Page<T extends HBRecord> {
+    private final List<T> records;
+    private final byte[] cursor;
+
+    Page(List<T> records, byte[] cursor) {
+        this.records = Collections.unmodifiableList(records);
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return Records of this page, in scan order
+     */
+    public List<T> getRecords() {
+        return records;
+    }
+
+    /**
+     * Opaque token to be passed to {@link AbstractHBDAO#page(org.apache.hadoop.hbase.client.Scan, int, byte[])} (along with the same scan) to fetch the next page. The token is self-contained, and hence can be handed over to clients of your API and be used from any process.
+     *
+     * @return Cursor for the next page, <code>null</code> if this is the last page
+     */
+    public byte[] getCursor() {
+        return cursor == null ? null : cursor.clone();
+    }
+
+    /**
+     * @return <code>true</code> if there are more pages after this one
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+}
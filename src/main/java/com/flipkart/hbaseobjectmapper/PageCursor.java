@@ -0,0 +1,81 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.io.TimeRange;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Position of a paged scan (see {@link AbstractHBDAO#page(org.apache.hadoop.hbase.client.Scan, int, byte[])}), serialized as an opaque token. For internal use only.
+ * <br><br>
+ * Layout of token: format version (1 byte), direction (1 byte), time range (2 longs), last row key returned (rest of the token).
+ */
+class PageCursor {
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 2 + 2 * Long.BYTES;
+
+    private final boolean reversed;
+    private final long minStamp;
+    private final long maxStamp;
+    private final byte[] lastRow;
+
+    PageCursor(boolean reversed, TimeRange timeRange, byte[] lastRow) {
+        this(reversed, timeRange.getMin(), timeRange.getMax(), lastRow);
+    }
+
+    private PageCursor(boolean reversed, long minStamp, long maxStamp, byte[] lastRow) {
+        this.reversed = reversed;
+        this.minStamp = minStamp;
+        this.maxStamp = maxStamp;
+        this.lastRow = lastRow;
+    }
+
+    byte[] toBytes() {
+        return ByteBuffer.allocate(HEADER_LENGTH + lastRow.length)
+                .put(FORMAT_VERSION)
+                .put((byte) (reversed ? 1 : 0))
+                .putLong(minStamp)
+                .putLong(maxStamp)
+                .put(lastRow)
+                .array();
+    }
+
+    /**
+     * @throws IllegalArgumentException If token is malformed or was produced by an incompatible version of this library
+     */
+    static PageCursor fromBytes(byte[] token) {
+        final ByteBuffer buffer = ByteBuffer.wrap(token);
+        try {
+            final byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported version of page cursor: " + version);
+            }
+            final boolean reversed = buffer.get() != 0;
+            final long minStamp = buffer.getLong(), maxStamp = buffer.getLong();
+            final byte[] lastRow = new byte[buffer.remaining()];
+            buffer.get(lastRow);
+            if (minStamp < 0 || maxStamp < minStamp || lastRow.length == 0) {
+                throw new IllegalArgumentException("Malformed page cursor");
+            }
+            return new PageCursor(reversed, minStamp, maxStamp, lastRow);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    boolean isReversed() {
+        return reversed;
+    }
+
+    long getMinStamp() {
+        return minStamp;
+    }
+
+    long getMaxStamp() {
+        return maxStamp;
+    }
+
+    byte[] getLastRow() {
+        return lastRow;
+    }
+}
@@ -0,0 +1,140 @@
+package com.flipkart.hbaseobjectmapper;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.hbase.client.Result;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Iterator implementation for pipelined scans (see {@link ScanPipelineConfig}), for internal use only
+ * <br><br>
+ * A fetcher thread pulls rows off the scanner and hands each row over to a pool of decoder threads. Futures of decoded records are queued (in scan order) in a bounded buffer, from which the consumer takes them one by one. Hence, the fetcher blocks when the consumer falls behind by more than the buffer's capacity.
+ *
+ * @param <T> Data type of record
+ */
+class PipelinedRecordsIterator<T> implements Iterator<T>, Closeable {
+    private final Function<Result, T> decoder;
+    private final Iterator<Result> resultIterator;
+    private final CompletableFuture<T> end = new CompletableFuture<>(); // marks end of scan, in buffer
+    private final BlockingQueue<CompletableFuture<T>> buffer;
+    private final ExecutorService decoders;
+    private final Thread fetcher;
+    private volatile boolean closed;
+    private CompletableFuture<T> next;
+
+    /**
+     * @param decoder Decodes a row into a record (called by decoder threads)
+     */
+    PipelinedRecordsIterator(Function<Result, T> decoder, Iterator<Result> resultIterator, ScanPipelineConfig config, String name) {
+        this.decoder = decoder;
+        this.resultIterator = resultIterator;
+        this.buffer = new ArrayBlockingQueue<>(config.getBufferSize());
+        this.decoders = Executors.newFixedThreadPool(config.getDecodeThreads(), new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(name + "-decoder-%d")
+                .build());
+        this.fetcher = new Thread(this::fetch, name + "-fetcher");
+        this.fetcher.setDaemon(true);
+        this.fetcher.start();
+    }
+
+    private void fetch() {
+        try {
+            try {
+                while (!closed && resultIterator.hasNext()) {
+                    final Result result = resultIterator.next();
+                    buffer.put(CompletableFuture.supplyAsync(() -> decoder.apply(result), decoders));
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                if (closed) {
+                    return; // nobody's waiting for records anymore
+                }
+                final CompletableFuture<T> failure = new CompletableFuture<>();
+                failure.completeExceptionally(e);
+                buffer.put(failure);
+            }
+            buffer.put(end);
+        } catch (InterruptedException ignored) {
+            // closed
+        } finally {
+            decoders.shutdown();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            if (closed) {
+                return false;
+            }
+            try {
+                next = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException((InterruptedIOException) new InterruptedIOException("Interrupted while waiting for next record").initCause(e));
+            }
+        }
+        return next != end;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final CompletableFuture<T> future = next;
+        next = null;
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the fetcher and decoders. Records not consumed yet are discarded (their futures are cancelled, so that nothing waits on them).
+     * <br><br>
+     * Returns only after the fetcher has stopped, so that the caller can safely close the scanner.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        fetcher.interrupt();
+        boolean interrupted = false;
+        while (fetcher.isAlive()) {
+            try {
+                fetcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        decoders.shutdownNow();
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        for (CompletableFuture<T> future; (future = buffer.poll()) != null; ) {
+            future.cancel(false);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Consistency;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.io.TimeRange;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Lets concurrent identical reads (same row, versions and projection) share a single in-flight fetch, backing {@link AbstractHBDAO} when {@link HBDAOOptions#setReadCoalescing(boolean) enabled}. For internal use only.
+ * <br><br>
+ * Only raw {@link Result}s are shared. Callers decode their own copies of the entity. A fetch is shared only while it is in flight: a read that starts after a fetch completes triggers a fresh fetch (i.e. this is <u>not</u> a cache).
+ */
+class ReadCoalescer {
+
+    interface Fetcher {
+        Result fetch(Get get) throws IOException;
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches row on the calling thread, unless an identical fetch is already in flight (in which case this waits for it)
+     */
+    Result fetch(Get get, Fetcher fetcher) throws IOException {
+        final Key key = Key.of(get);
+        if (key == null) {
+            return fetcher.fetch(get);
+        }
+        final CompletableFuture<Result> ownFuture = new CompletableFuture<>();
+        final CompletableFuture<Result> sharedFuture = inFlight.putIfAbsent(key, ownFuture);
+        if (sharedFuture == null) {
+            fetchInto(get, fetcher, key, ownFuture);
+        }
+        return FutureResults.get(sharedFuture == null ? ownFuture : sharedFuture, "a shared fetch of row");
+    }
+
+    /**
+     * Fetches row on given executor, unless an identical fetch is already in flight (in which case it's future is shared)
+     */
+    CompletableFuture<Result> fetchAsync(final Get get, final Fetcher fetcher, Executor executor) {
+        final Key key = Key.of(get);
+        final CompletableFuture<Result> ownFuture = new CompletableFuture<>();
+        if (key != null) {
+            final CompletableFuture<Result> sharedFuture = inFlight.putIfAbsent(key, ownFuture);
+            if (sharedFuture != null) {
+                return sharedFuture;
+            }
+        }
+        try {
+            executor.execute(() -> fetchInto(get, fetcher, key, ownFuture));
+        } catch (RejectedExecutionException e) {
+            if (key != null) {
+                inFlight.remove(key, ownFuture);
+            }
+            ownFuture.completeExceptionally(e);
+        }
+        return ownFuture;
+    }
+
+    /**
+     * Stops sharing in-flight fetches of given row with reads that start from now on (called after a write, since in-flight fetches may have read the row before it)
+     */
+    void forget(byte[] row) {
+        if (!inFlight.isEmpty()) {
+            inFlight.keySet().removeIf(key -> Arrays.equals(key.row, row));
+        }
+    }
+
+    private void fetchInto(Get get, Fetcher fetcher, Key key, CompletableFuture<Result> future) {
+        try {
+            final Result result = fetcher.fetch(get);
+            if (result != null) {
+                result.getMap(); // builds Result's (lazily initialized) family map before the result is shared across threads
+            }
+            future.complete(result);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            if (key != null) {
+                inFlight.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * Identity of a read, for the purpose of coalescing. Reads with filters or other non-trivial settings aren't coalesced.
+     */
+    private static class Key {
+        private final byte[] row;
+        private final int maxVersions;
+        private final long minStamp;
+        private final long maxStamp;
+        private final Map<ByteArray, Set<ByteArray>> projection;
+        private final int hashCode;
+
+        private Key(Get get) {
+            this.row = get.getRow();
+            this.maxVersions = get.getMaxVersions();
+            final TimeRange timeRange = get.getTimeRange();
+            this.minStamp = timeRange.getMin();
+            this.maxStamp = timeRange.getMax();
+            this.projection = new HashMap<>();
+            for (Map.Entry<byte[], NavigableSet<byte[]>> e : get.getFamilyMap().entrySet()) {
+                Set<ByteArray> columns = new HashSet<>();
+                if (e.getValue() != null) {
+                    for (byte[] column : e.getValue()) {
+                        columns.add(new ByteArray(column));
+                    }
+                }
+                projection.put(new ByteArray(e.getKey()), columns);
+            }
+            this.hashCode = Objects.hash(Arrays.hashCode(row), maxVersions, minStamp, maxStamp, projection);
+        }
+
+        static Key of(Get get) {
+            if (get.getFilter() != null || get.getConsistency() != Consistency.STRONG || !get.getColumnFamilyTimeRange().isEmpty() || get.getMaxResultsPerColumnFamily() != -1
+                    || get.getRowOffsetPerColumnFamily() != 0 || get.isCheckExistenceOnly() || get.getReplicaId() != -1) {
+                return null;
+            }
+            return new Key(get);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return maxVersions == key.maxVersions && minStamp == key.minStamp && maxStamp == key.maxStamp
+                    && Arrays.equals(row, key.row) && projection.equals(key.projection);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class ByteArray {
+        private final byte[] bytes;
+
+        ByteArray(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof ByteArray && Arrays.equals(bytes, ((ByteArray) o).bytes));
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Consistency;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options of reads that may be served by region replicas, to be passed to {@link AbstractHBDAO#get(java.io.Serializable, ReadOptions)} and it's variants. For example:
+ * <pre>
+ * new ReadOptions()
+ *   .consistency(Consistency.TIMELINE)
+ *   .hedgeAfter(20, TimeUnit.MILLISECONDS);
+ * </pre>
+ * Reads served by a secondary replica may be stale (see {@link ReadResult#isStale()}). Reading from replicas needs region replication to be enabled on the table.
+ * <br><br>
+ * With hedging enabled, a single-row read that hasn't completed within given delay is duplicated to a replica and the first successful response wins. This cuts tail latency caused by a slow region server, at the cost of an extra read for slow requests only.
+ */
+public class ReadOptions {
+    private Consistency consistency = Consistency.STRONG;
+    private int replicaId = -1;
+    private long hedgeDelayMillis = 0;
+    private int hedgeReplicaId = 1;
+
+    /**
+     * @param consistency Consistency of reads ({@link Consistency#TIMELINE} lets HBase serve reads from secondary replicas, when primary is slow to respond)
+     * @return This object (for method chaining)
+     */
+    public ReadOptions consistency(Consistency consistency) {
+        if (consistency == null) {
+            throw new IllegalArgumentException("Consistency can't be null");
+        }
+        this.consistency = consistency;
+        return this;
+    }
+
+    /**
+     * @param replicaId Specific replica to read from (<code>0</code> for primary), with {@link Consistency#TIMELINE} consistency. Pass <code>-1</code> to let HBase choose (default).
+     * @return This object (for method chaining)
+     */
+    public ReadOptions replicaId(int replicaId) {
+        if (replicaId < -1) {
+            throw new IllegalArgumentException("Invalid replica id " + replicaId);
+        }
+        this.replicaId = replicaId;
+        return this;
+    }
+
+    /**
+     * Enables hedging of single-row reads
+     *
+     * @param delay Time to wait for a read before duplicating it to a replica (<code>0</code> to disable hedging)
+     * @param unit  Unit of delay
+     * @return This object (for method chaining)
+     */
+    public ReadOptions hedgeAfter(long delay, TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Hedge delay can't be negative (found " + delay + ")");
+        }
+        this.hedgeDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * @param hedgeReplicaId Replica to which hedged reads are sent (default: <code>1</code>, the first secondary replica)
+     * @return This object (for method chaining)
+     */
+    public ReadOptions hedgeReplicaId(int hedgeReplicaId) {
+        if (hedgeReplicaId < 1) {
+            throw new IllegalArgumentException("Hedged reads must go to a secondary replica (found replica id " + hedgeReplicaId + ")");
+        }
+        this.hedgeReplicaId = hedgeReplicaId;
+        return this;
+    }
+
+    public Consistency getConsistency() {
+        return consistency;
+    }
+
+    public int getReplicaId() {
+        return replicaId;
+    }
+
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    public int getHedgeReplicaId() {
+        return hedgeReplicaId;
+    }
+
+    boolean isHedged() {
+        return hedgeDelayMillis > 0;
+    }
+
+    Get applyTo(Get get) {
+        get.setConsistency(replicaId == -1 ? consistency : Consistency.TIMELINE);
+        if (replicaId != -1) {
+            get.setReplicaId(replicaId);
+        }
+        return get;
+    }
+
+    Scan applyTo(Scan scan) {
+        scan.setConsistency(replicaId == -1 ? consistency : Consistency.TIMELINE);
+        if (replicaId != -1) {
+            scan.setReplicaId(replicaId);
+        }
+        return scan;
+    }
+
+    /**
+     * @return A copy of given get, to be sent to the hedge replica
+     */
+    Get toHedge(Get get) {
+        return new Get(get)
+                .setConsistency(Consistency.TIMELINE)
+                .setReplicaId(hedgeReplicaId);
+    }
+}
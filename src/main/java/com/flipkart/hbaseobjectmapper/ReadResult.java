@@ -0,0 +1,36 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * A record read with {@link ReadOptions}, along with whether it may be stale (i.e. was served by a secondary replica)
+ *
+ * @param <T> record type
+ */
+@SuppressWarnings("rawtypes")
+public class ReadResult<T extends HBRecord> {
+    private final T record;
+    private final boolean stale;
+
+    ReadResult(T record, boolean stale) {
+        this.record = record;
+        this.stale = stale;
+    }
+
+    /**
+     * @return Record read (<code>null</code> if row doesn't exist, as far as the replica that served the read knows)
+     */
+    public T getRecord() {
+        return record;
+    }
+
+    /**
+     * @return <code>true</code> if the read was served by a secondary replica, and hence may not reflect the latest writes (see {@link org.apache.hadoop.hbase.client.Result#isStale()})
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    @Override
+    public String toString() {
+        return "ReadResult{record=" + record + ", stale=" + stale + "}";
+    }
+}
@@ -1,7 +1,7 @@
 package com.flipkart.hbaseobjectmapper;
 
-import org.apache.hadoop.hbase.TableName;
-import org.apache.hadoop.hbase.client.Connection;
+import com.google.common.collect.Iterators;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
@@ -10,12 +10,16 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * This class is the return type of all 'records' methods of {@link AbstractHBDAO} class, which enable you to iterate over large number of records (e.g. {@link AbstractHBDAO#records(Serializable, Serializable) AbstractHBDAO.records(R, R)})
  * <br><br>
  * Users of this library are <u>not</u> expected to instantiate this class on their own.
  * <br><br>
+ * If the scan lets HBase return a row in parts (see {@link Scan#setAllowPartialResults(boolean)}, {@link Scan#setBatch(int)}), parts of a row are merged into a single record as they arrive. Along with {@link Scan#setMaxResultSize(long)}, this bounds memory (of region server and client) per RPC, even for very wide rows (e.g. with many versions).
+ * <br><br>
  * <b>Note</b>: This class is <u>not</u> thread-safe. If you intend to scan records across multiple threads, keep different filter criteria for each thread.
  *
  * @param <T> record type
@@ -24,26 +28,93 @@ import java.util.Iterator;
 public class Records<T extends HBRecord> implements Closeable, Iterable<T> {
     private final HBObjectMapper hbObjectMapper;
     private final Class<T> clazz;
-    private final Table table;
     private final ResultScanner scanner;
+    private final boolean assembleRows;
+    private final ScanPipelineConfig pipelineConfig;
+    private final Function<Result, T> pipelineDecoder;
+    private final String pipelineName;
+    private PipelinedRecordsIterator<T> pipeline;
+    private Consumer<? super T> onRecord;
 
-    Records(Connection connection, HBObjectMapper hbObjectMapper, Class<T> clazz, TableName tableName, Scan scan) throws IOException {
+    /**
+     * @param table Table handle (owned by the DAO, hence not closed here)
+     */
+    Records(Table table, HBObjectMapper hbObjectMapper, Class<T> clazz, Scan scan) throws IOException {
         this.hbObjectMapper = hbObjectMapper;
         this.clazz = clazz;
-        this.table = connection.getTable(tableName);
         this.scanner = table.getScanner(scan);
+        this.assembleRows = RowAssemblingIterator.isNeededFor(scan);
+        this.pipelineConfig = null;
+        this.pipelineDecoder = null;
+        this.pipelineName = null;
+    }
+
+    /**
+     * Pipelined variant: rows are fetched and decoded ahead of the consumer, in background threads (see {@link ScanPipelineConfig})
+     *
+     * @param table   Table handle (owned by the DAO, hence not closed here)
+     * @param decoder Decodes a row into a record (called by background threads)
+     * @param name    Name prefix for background threads
+     */
+    Records(Table table, Function<Result, T> decoder, Scan scan, ScanPipelineConfig pipelineConfig, String name) throws IOException {
+        if (RowAssemblingIterator.isNeededFor(scan)) {
+            throw new IllegalArgumentException("Pipelined scans don't support partial results or batching (rows are decoded in parallel, hence can't be assembled from parts)");
+        }
+        this.hbObjectMapper = null;
+        this.clazz = null;
+        this.scanner = table.getScanner(new Scan(scan).setAsyncPrefetch(pipelineConfig.isAsyncPrefetch()));
+        this.assembleRows = false;
+        this.pipelineConfig = pipelineConfig;
+        this.pipelineDecoder = decoder;
+        this.pipelineName = name;
+    }
+
+    /**
+     * @param onRecord Action to be performed on each record, as it's handed out by iterator
+     * @return This object (for method chaining)
+     */
+    Records<T> onRecord(Consumer<? super T> onRecord) {
+        this.onRecord = onRecord;
+        return this;
     }
 
     @Override
     public void close() throws IOException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
         scanner.close();
-        table.close();
     }
 
+    /**
+     * @return An iterator over records. In pipelined mode, all calls return the same iterator (since there is one pipeline per scan).
+     */
     @SuppressWarnings("NullableProblems")
     @Override
     public Iterator<T> iterator() {
-        return new RecordsIterator<>(hbObjectMapper, clazz, scanner.iterator());
+        final Iterator<T> iterator;
+        if (pipelineConfig == null) {
+            iterator = iterator(hbObjectMapper, clazz, scanner.iterator(), assembleRows);
+        } else {
+            if (pipeline == null) {
+                pipeline = new PipelinedRecordsIterator<>(pipelineDecoder, scanner.iterator(), pipelineConfig, pipelineName);
+            }
+            iterator = pipeline;
+        }
+        if (onRecord == null) {
+            return iterator;
+        }
+        return Iterators.transform(iterator, record -> {
+            onRecord.accept(record);
+            return record;
+        });
+    }
+
+    /**
+     * @param assembleRows Whether results may be parts of rows (see {@link RowAssemblingIterator#isNeededFor(Scan)})
+     */
+    static <T extends HBRecord> Iterator<T> iterator(HBObjectMapper hbObjectMapper, Class<T> clazz, Iterator<Result> resultIterator, boolean assembleRows) {
+        return assembleRows ? new RowAssemblingIterator<>(hbObjectMapper, clazz, resultIterator) : new RecordsIterator<>(hbObjectMapper, clazz, resultIterator);
     }
 
 }
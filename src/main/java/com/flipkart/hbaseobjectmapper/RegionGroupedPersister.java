@@ -0,0 +1,264 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Writes a (potentially huge) stream of records, grouped by region, with bounded memory. For internal use only.
+ * <br><br>
+ * The calling thread reads records off the input in chunks and hands each chunk over to a worker thread, which serializes it and buckets the {@link Put}s by region. Back on the calling thread, buckets are appended to per-region buffers, and a buffer that fills up (to chunk size) is written by a worker thread in one call. At most 'parallelism' chunks are serialized and at most as many are written at a time; full buffers wait for a write slot in a queue (and keep counting against in-flight bytes). All bookkeeping happens on the calling thread: each task returns an action that the calling thread runs once the task completes.
+ *
+ * @param <T> Data type of record
+ */
+class RegionGroupedPersister<T> {
+
+    interface ChunkWriter {
+        void write(List<Put> puts) throws IOException;
+    }
+
+    private final Iterator<T> records;
+    private final byte[][] startKeys;
+    private final String[] regionNames;
+    private final int chunkSize;
+    private final int parallelism;
+    private final long maxInFlightBytes;
+    private final Function<T, Put> serializer;
+    private final ChunkWriter writer;
+    private final BulkPersistListener listener;
+    private final CompletionService<Runnable> completionService;
+    private final Set<Future<Runnable>> inFlight = new HashSet<>();
+    private final List<List<Put>> buffers;
+    private final Deque<Callable<Runnable>> pendingWrites = new ArrayDeque<>(); // full buffers, waiting for a write slot
+    private final long[] bufferedBytes;
+    private final long[] persistedPerRegion;
+    private final long startNanos = System.nanoTime();
+    private long inFlightBytes; // buffered or being written
+    private int serializing, writing;
+    private long persistedRecords, persistedBytes;
+    private Throwable failure;
+
+    /**
+     * @param startKeys   Start keys of regions, in order
+     * @param regionNames Names of regions, in the same order
+     * @param listener    Listener of progress (may be <code>null</code>)
+     */
+    RegionGroupedPersister(Iterator<T> records, byte[][] startKeys, String[] regionNames, BulkPersistOptions options, ExecutorService executor,
+                           Function<T, Put> serializer, ChunkWriter writer, BulkPersistListener listener) {
+        this.records = records;
+        this.startKeys = startKeys;
+        this.regionNames = regionNames;
+        this.chunkSize = options.getChunkSize();
+        this.parallelism = options.getParallelism();
+        this.maxInFlightBytes = options.getMaxInFlightBytes();
+        this.serializer = serializer;
+        this.writer = writer;
+        this.listener = listener;
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.buffers = new ArrayList<>(startKeys.length);
+        for (int i = 0; i < startKeys.length; i++) {
+            buffers.add(new ArrayList<>());
+        }
+        this.bufferedBytes = new long[startKeys.length];
+        this.persistedPerRegion = new long[startKeys.length];
+    }
+
+    /**
+     * Persists all records. On failure, stops reading input, waits for tasks in flight and throws (records written till then stay written).
+     *
+     * @return Outcome of bulk persist
+     */
+    BulkPersistStats execute() throws IOException {
+        boolean inputDone = false;
+        try {
+            while (true) {
+                while (failure == null && !inputDone && serializing < parallelism && inFlightBytes < maxInFlightBytes) {
+                    final List<T> chunk = nextChunk();
+                    if (chunk.isEmpty()) {
+                        inputDone = true;
+                        break;
+                    }
+                    serializing++;
+                    submit(() -> serialize(chunk));
+                }
+                if (failure == null) {
+                    if (inputDone && serializing == 0) {
+                        for (int i = 0; i < buffers.size(); i++) {
+                            if (!buffers.get(i).isEmpty()) {
+                                write(i);
+                            }
+                        }
+                    } else if (inFlightBytes >= maxInFlightBytes && writing == 0 && pendingWrites.isEmpty()) {
+                        write(largestBuffer()); // partially filled buffers hold up the budget: free some of it
+                    }
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                final Future<Runnable> completed = completionService.take();
+                inFlight.remove(completed);
+                try {
+                    completed.get().run();
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                }
+                startWrites();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<Runnable> future : inFlight) {
+                future.cancel(true);
+            }
+            throw (InterruptedIOException) new InterruptedIOException("Interrupted while waiting for chunks of a bulk persist").initCause(e);
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IOException("Bulk persist failed", failure);
+        }
+        return stats();
+    }
+
+    private List<T> nextChunk() {
+        final List<T> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && records.hasNext()) {
+            chunk.add(records.next());
+        }
+        return chunk;
+    }
+
+    private void submit(Callable<Runnable> task) {
+        inFlight.add(completionService.submit(task));
+    }
+
+    /**
+     * Runs on a worker thread
+     */
+    private Runnable serialize(List<T> chunk) {
+        final SortedMap<Integer, List<Put>> putsByRegion = new TreeMap<>();
+        try {
+            for (T record : chunk) {
+                final Put put = serializer.apply(record);
+                putsByRegion.computeIfAbsent(regionIndex(put.getRow()), k -> new ArrayList<>()).add(put);
+            }
+        } catch (RuntimeException e) {
+            return () -> {
+                serializing--;
+                fail(e);
+            };
+        }
+        return () -> {
+            serializing--;
+            if (failure == null) {
+                buffer(putsByRegion);
+            }
+        };
+    }
+
+    private void buffer(SortedMap<Integer, List<Put>> putsByRegion) {
+        for (Map.Entry<Integer, List<Put>> entry : putsByRegion.entrySet()) {
+            final int region = entry.getKey();
+            for (Put put : entry.getValue()) {
+                final long size = put.heapSize();
+                buffers.get(region).add(put);
+                bufferedBytes[region] += size;
+                inFlightBytes += size;
+                if (buffers.get(region).size() >= chunkSize) {
+                    write(region);
+                }
+            }
+        }
+    }
+
+    private void write(int region) {
+        final List<Put> puts = buffers.get(region);
+        final long bytes = bufferedBytes[region];
+        buffers.set(region, new ArrayList<>());
+        bufferedBytes[region] = 0;
+        pendingWrites.add(() -> {
+            try {
+                writer.write(puts);
+            } catch (IOException | RuntimeException e) {
+                return () -> {
+                    writing--;
+                    inFlightBytes -= bytes;
+                    fail(e);
+                };
+            }
+            return () -> {
+                writing--;
+                inFlightBytes -= bytes;
+                persisted(region, puts.size(), bytes);
+            };
+        });
+        startWrites();
+    }
+
+    /**
+     * Starts pending writes, as long as write slots are free (drops them on failure)
+     */
+    private void startWrites() {
+        if (failure != null) {
+            pendingWrites.clear();
+            return;
+        }
+        while (writing < parallelism && !pendingWrites.isEmpty()) {
+            writing++;
+            submit(pendingWrites.poll());
+        }
+    }
+
+    private void persisted(int region, int recordCount, long bytes) {
+        persistedPerRegion[region] += recordCount;
+        persistedRecords += recordCount;
+        persistedBytes += bytes;
+        if (listener != null) {
+            listener.onChunkPersisted(regionNames[region], recordCount, stats());
+        }
+    }
+
+    private void fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+        } else if (failure != cause) {
+            failure.addSuppressed(cause);
+        }
+    }
+
+    private int largestBuffer() {
+        int largest = 0;
+        for (int i = 1; i < bufferedBytes.length; i++) {
+            if (bufferedBytes[i] > bufferedBytes[largest]) {
+                largest = i;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * @return Index of region to which given row belongs (i.e. of the last region that starts at or before it)
+     */
+    private int regionIndex(byte[] row) {
+        final int i = Arrays.binarySearch(startKeys, row, Bytes.BYTES_COMPARATOR);
+        return i >= 0 ? i : Math.max(0, -i - 2);
+    }
+
+    private BulkPersistStats stats() {
+        final Map<String, Long> recordsPerRegion = new LinkedHashMap<>();
+        for (int i = 0; i < regionNames.length; i++) {
+            if (persistedPerRegion[i] > 0) {
+                recordsPerRegion.put(regionNames[i], persistedPerRegion[i]);
+            }
+        }
+        return new BulkPersistStats(persistedRecords, persistedBytes, System.nanoTime() - startNanos, recordsPerRegion);
+    }
+}
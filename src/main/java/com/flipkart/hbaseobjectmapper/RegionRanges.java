@@ -0,0 +1,68 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits a {@link Scan} along region boundaries of a table, so that parts of the scan can be executed independently (e.g. in parallel). For internal use only.
+ */
+class RegionRanges {
+
+    private RegionRanges() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return One scan per region that overlaps with given scan (in order of row keys), each a copy of given scan restricted to the region. If given scan can't be split safely (reversed scans, scans with limit), a list containing just a copy of given scan.
+     */
+    static List<Scan> split(Connection connection, TableName tableName, Scan scan) throws IOException {
+        if (scan.isReversed() || scan.getLimit() > 0 || scan.isGetScan()) {
+            return Collections.singletonList(new Scan(scan));
+        }
+        final Pair<byte[][], byte[][]> startEndKeys;
+        try (RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+            startEndKeys = regionLocator.getStartEndKeys();
+        }
+        final byte[] scanStart = scan.getStartRow(), scanStop = scan.getStopRow();
+        final List<Scan> scans = new ArrayList<>(startEndKeys.getFirst().length);
+        for (int i = 0; i < startEndKeys.getFirst().length; i++) {
+            final byte[] regionStart = startEndKeys.getFirst()[i], regionEnd = startEndKeys.getSecond()[i];
+            if (regionEnd.length > 0 && scanStart.length > 0 && Bytes.compareTo(regionEnd, scanStart) <= 0) {
+                continue; // region lies entirely before scan
+            }
+            if (scanStop.length > 0 && regionStart.length > 0) {
+                final int c = Bytes.compareTo(regionStart, scanStop);
+                if (c > 0 || (c == 0 && !scan.includeStopRow())) {
+                    continue; // region lies entirely after scan
+                }
+            }
+            final boolean startsWithScan = regionStart.length == 0 || (scanStart.length > 0 && Bytes.compareTo(scanStart, regionStart) >= 0);
+            final boolean endsWithScan = regionEnd.length == 0 || (scanStop.length > 0 && Bytes.compareTo(scanStop, regionEnd) < 0);
+            final Scan regionScan = new Scan(scan);
+            if (startsWithScan) {
+                regionScan.withStartRow(scanStart, scan.includeStartRow());
+            } else {
+                regionScan.withStartRow(regionStart, true);
+            }
+            if (endsWithScan) {
+                regionScan.withStopRow(scanStop, scan.includeStopRow());
+            } else {
+                regionScan.withStopRow(regionEnd, false);
+            }
+            scans.add(regionScan);
+        }
+        if (scans.isEmpty()) {
+            scans.add(new Scan(scan));
+        }
+        return scans;
+    }
+}
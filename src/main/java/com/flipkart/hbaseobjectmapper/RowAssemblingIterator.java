@@ -0,0 +1,62 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over records of a scan whose rows may arrive in parts (see {@link #isNeededFor(Scan)}), for internal use only
+ * <br><br>
+ * Each part is merged into the record as soon as it arrives, so at most one part of a row (the one that tells the row is over) is held besides the record being assembled.
+ *
+ * @param <T> Data type of record
+ */
+@SuppressWarnings("rawtypes")
+class RowAssemblingIterator<T extends HBRecord> implements Iterator<T> {
+    private final HBObjectMapper hbObjectMapper;
+    private final Class<T> clazz;
+    private final Iterator<Result> resultIterator;
+    private Result pending; // first part of next row, if already fetched
+
+    RowAssemblingIterator(HBObjectMapper hbObjectMapper, Class<T> clazz, Iterator<Result> resultIterator) {
+        this.hbObjectMapper = hbObjectMapper;
+        this.clazz = clazz;
+        this.resultIterator = resultIterator;
+    }
+
+    /**
+     * @return <code>true</code> if given scan may return a row as multiple {@link Result}s (i.e. it allows partial results or limits number of cells per result)
+     */
+    static boolean isNeededFor(Scan scan) {
+        return scan.getAllowPartialResults() || scan.getBatch() > 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending != null || resultIterator.hasNext();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        Result part = pending != null ? pending : resultIterator.next();
+        if (part == null) {
+            throw new NoSuchElementException();
+        }
+        pending = null;
+        final byte[] row = part.getRow();
+        T record = (T) hbObjectMapper.readValue(part, clazz);
+        while (resultIterator.hasNext()) {
+            part = resultIterator.next();
+            if (!Bytes.equals(row, part.getRow())) {
+                pending = part;
+                break;
+            }
+            hbObjectMapper.mergeValue((HBRecord) record, part, (Class) clazz);
+        }
+        return record;
+    }
+}
@@ -0,0 +1,19 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Callback to track progress of a row count ({@link AbstractHBDAO#count(org.apache.hadoop.hbase.client.Scan, RowCountListener)}), which counts rows of each region separately
+ * <br><br>
+ * This is always invoked on the thread that called the count, one region at a time. Hence, implementations need <u>not</u> be thread-safe.
+ */
+@FunctionalInterface
+public interface RowCountListener {
+
+    /**
+     * Invoked each time rows of a region have been counted
+     *
+     * @param regionsCounted Number of regions counted so far (including this one)
+     * @param totalRegions   Total number of regions to be counted
+     * @param rowsCounted    Number of rows counted so far (across regions counted so far)
+     */
+    void onRegionCounted(int regionsCounted, int totalRegions, long rowsCounted);
+}
@@ -0,0 +1,91 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Estimates about values of a field, computed from a random sample of rows, as returned by {@link AbstractHBDAO#estimate(org.apache.hadoop.hbase.client.Scan, double, String)}
+ * <br><br>
+ * Each row matching the scan is sampled independently, with probability {@link #getFraction()}. Estimates assume that, and that the sample isn't too small (say, a few dozen values or more) for the normal approximation behind the confidence interval to hold.
+ * <br><br>
+ * Objects of this class are immutable.
+ */
+public class SampleEstimate {
+    /**
+     * z-score for a 95% confidence interval
+     */
+    public static final double Z_95 = 1.959964;
+
+    private final double fraction;
+    private final long sampledCount;
+    private final double sum;
+    private final double sumOfSquares;
+
+    SampleEstimate(double fraction, long sampledCount, double sum, double sumOfSquares) {
+        this.fraction = fraction;
+        this.sampledCount = sampledCount;
+        this.sum = sum;
+        this.sumOfSquares = sumOfSquares;
+    }
+
+    /**
+     * @return Probability with which each row was sampled
+     */
+    public double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * @return Number of values in sample (rows without a value for the field aren't counted)
+     */
+    public long getSampledCount() {
+        return sampledCount;
+    }
+
+    /**
+     * @return Estimated number of rows that have a value for the field (in the whole scan, not just the sample)
+     */
+    public double getEstimatedCount() {
+        return sampledCount / fraction;
+    }
+
+    /**
+     * @return Standard error of {@link #getEstimatedCount()}
+     */
+    public double getCountStandardError() {
+        return Math.sqrt(sampledCount * (1 - fraction)) / fraction;
+    }
+
+    /**
+     * @return Mean of values in sample (an estimate of mean over the whole scan), or <code>null</code> if sample is empty
+     */
+    public Double getMean() {
+        return sampledCount == 0 ? null : sum / sampledCount;
+    }
+
+    /**
+     * @return Standard error of {@link #getMean()} (<code>NaN</code> if sample has less than 2 values)
+     */
+    public double getMeanStandardError() {
+        if (sampledCount < 2) {
+            return Double.NaN;
+        }
+        final double mean = sum / sampledCount;
+        final double variance = Math.max(0, (sumOfSquares - sampledCount * mean * mean) / (sampledCount - 1));
+        return Math.sqrt(variance / sampledCount * (1 - fraction)); // with finite population correction
+    }
+
+    /**
+     * @param zScore z-score of desired confidence level (e.g. {@link #Z_95})
+     * @return Lower and upper bounds of mean, at given confidence level (both <code>NaN</code> if sample has less than 2 values)
+     */
+    public double[] getMeanConfidenceInterval(double zScore) {
+        if (sampledCount < 2) {
+            return new double[]{Double.NaN, Double.NaN};
+        }
+        final double mean = sum / sampledCount, marginOfError = zScore * getMeanStandardError();
+        return new double[]{mean - marginOfError, mean + marginOfError};
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SampleEstimate{fraction=%s, sampledCount=%d, estimatedCount=%.1f, mean=%s, meanStandardError=%s}", fraction, sampledCount, getEstimatedCount(), getMean(), getMeanStandardError());
+    }
+}
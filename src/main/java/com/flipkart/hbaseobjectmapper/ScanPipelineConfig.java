@@ -0,0 +1,64 @@
+package com.flipkart.hbaseobjectmapper;
+
+/**
+ * Configuration of a pipelined scan, to be passed to {@link AbstractHBDAO#records(org.apache.hadoop.hbase.client.Scan, ScanPipelineConfig)}
+ * <br><br>
+ * In a pipelined scan, a background thread keeps fetching rows from HBase while a small pool of threads decodes them into records, ahead of the consumer. Records are still returned in scan order. Since fetching, decoding and consuming overlap, a single-threaded consumer (e.g. an export loop) sees throughput close to the slowest of the three rather than their sum. For example:
+ * <pre>
+ * new ScanPipelineConfig()
+ *   .decodeThreads(4)
+ *   .bufferSize(2000);
+ * </pre>
+ */
+public class ScanPipelineConfig {
+    private int decodeThreads = 2;
+    private int bufferSize = 1000;
+    private boolean asyncPrefetch = false;
+
+    /**
+     * @param decodeThreads Number of threads decoding rows into records
+     * @return This object (for method chaining)
+     */
+    public ScanPipelineConfig decodeThreads(int decodeThreads) {
+        if (decodeThreads < 1) {
+            throw new IllegalArgumentException("Number of decode threads must be a positive number (found " + decodeThreads + ")");
+        }
+        this.decodeThreads = decodeThreads;
+        return this;
+    }
+
+    /**
+     * @param bufferSize Maximum number of rows fetched (and possibly decoded) ahead of the consumer. This bounds memory consumed by the pipeline.
+     * @return This object (for method chaining)
+     */
+    public ScanPipelineConfig bufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be a positive number (found " + bufferSize + ")");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Whether HBase's scanner should also fetch the next batch of rows in background (see {@link org.apache.hadoop.hbase.client.Scan#setAsyncPrefetch(boolean)}), so that a round trip to region server is in flight while the current batch is handed over to the pipeline. Off by default, since the pipeline's own fetcher already overlaps fetching with decoding, and HBase's prefetching scanner intermittently fails with a {@link NullPointerException} in some 2.0.x client releases.
+     *
+     * @param asyncPrefetch Whether to enable HBase's async prefetch
+     * @return This object (for method chaining)
+     */
+    public ScanPipelineConfig asyncPrefetch(boolean asyncPrefetch) {
+        this.asyncPrefetch = asyncPrefetch;
+        return this;
+    }
+
+    public int getDecodeThreads() {
+        return decodeThreads;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isAsyncPrefetch() {
+        return asyncPrefetch;
+    }
+}
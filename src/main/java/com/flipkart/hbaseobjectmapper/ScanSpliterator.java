@@ -0,0 +1,193 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Spliterator} over rows of one or more scans (typically, one scan per region), decoding each row as it is consumed. For internal use only.
+ * <br><br>
+ * Splitting prefers region boundaries: while more than one scan hasn't started, half of them are split off. Once down to one scan, a batch of raw {@link Result}s is fetched and split off, to be decoded by whichever thread consumes that batch (e.g. a worker of fork-join pool, in case of parallel streams).
+ * <br><br>
+ * Every scanner opened (by this spliterator or by those split off it) is registered with a shared set of scanners, which the owning stream closes when the stream is closed. Since {@link Table} isn't thread-safe, scanners are opened through a handle of the thread opening them (as obtained from given {@link TableSource}), rather than through a handle shared by all splits.
+ *
+ * @param <E> Type of elements (e.g. entity)
+ */
+class ScanSpliterator<E> implements Spliterator<E> {
+    private static final int MAX_BATCH_SIZE = 1 << 16;
+
+    interface TableSource {
+        /**
+         * @return Table handle of calling thread (must not be closed)
+         */
+        Table table() throws IOException;
+    }
+
+    private final TableSource tableSource;
+    private final List<Scan> scans;
+    private final Function<Result, E> decoder;
+    private final Set<ResultScanner> openScanners;
+    private int index; // next scan to be started
+    private final int fence;
+    private ResultScanner scanner;
+    private Iterator<Result> results;
+    private int batchSize;
+
+    ScanSpliterator(TableSource tableSource, List<Scan> scans, Function<Result, E> decoder, Set<ResultScanner> openScanners) {
+        this(tableSource, scans, 0, scans.size(), decoder, openScanners, null);
+    }
+
+    private ScanSpliterator(TableSource tableSource, List<Scan> scans, int index, int fence, Function<Result, E> decoder, Set<ResultScanner> openScanners, ResultScanner scanner) {
+        this.tableSource = tableSource;
+        this.scans = scans;
+        this.index = index;
+        this.fence = fence;
+        this.decoder = decoder;
+        this.openScanners = openScanners;
+        this.scanner = scanner;
+        this.results = scanner == null ? null : scanner.iterator();
+        this.batchSize = initialBatchSize(scans.get(Math.min(index, scans.size() - 1)));
+    }
+
+    private static int initialBatchSize(Scan scan) {
+        return scan.getCaching() > 0 ? Math.min(scan.getCaching(), MAX_BATCH_SIZE) : 1000;
+    }
+
+    /**
+     * @return <code>false</code> if there are no more rows
+     */
+    private boolean ensureResults() {
+        while (results == null || !results.hasNext()) {
+            closeScanner();
+            if (index >= fence) {
+                return false;
+            }
+            try {
+                scanner = tableSource.table().getScanner(scans.get(index++));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            openScanners.add(scanner);
+            results = scanner.iterator();
+        }
+        return true;
+    }
+
+    private void closeScanner() {
+        if (scanner != null) {
+            scanner.close();
+            openScanners.remove(scanner);
+            scanner = null;
+            results = null;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (!ensureResults()) {
+            return false;
+        }
+        action.accept(decoder.apply(results.next()));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        while (ensureResults()) {
+            while (results.hasNext()) {
+                action.accept(decoder.apply(results.next()));
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        final int unstarted = fence - index;
+        if (unstarted > 1 || (unstarted == 1 && scanner != null)) {
+            // split off a prefix of regions (along with the scan in progress, if any)
+            final int mid = scanner == null ? index + unstarted / 2 : index + (unstarted - 1) / 2;
+            final ScanSpliterator<E> prefix = new ScanSpliterator<>(tableSource, scans, index, mid, decoder, openScanners, scanner);
+            scanner = null;
+            results = null;
+            index = mid;
+            return prefix;
+        }
+        // split off a batch of raw results of the last (or only) region
+        if (!ensureResults()) {
+            return null;
+        }
+        final Result[] batch = new Result[batchSize];
+        int n = 0;
+        while (n < batch.length && results.hasNext()) {
+            batch[n++] = results.next();
+        }
+        batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+        return new BatchSpliterator<>(batch, 0, n, decoder);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Spliterator over a batch of raw results, decoding them as they are consumed
+     */
+    private static class BatchSpliterator<E> implements Spliterator<E> {
+        private final Result[] batch;
+        private int index;
+        private final int fence;
+        private final Function<Result, E> decoder;
+
+        BatchSpliterator(Result[] batch, int index, int fence, Function<Result, E> decoder) {
+            this.batch = batch;
+            this.index = index;
+            this.fence = fence;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence) {
+                return false;
+            }
+            final Result result = batch[index];
+            batch[index++] = null; // let decoded result be garbage collected
+            action.accept(decoder.apply(result));
+            return true;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            final BatchSpliterator<E> prefix = new BatchSpliterator<>(batch, index, mid, decoder);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Long-lived handles to an HBase table, owned by an {@link AbstractHBDAO}. For internal use only.
+ * <ul>
+ * <li>{@link Table} handles are lightweight but not thread-safe. Hence, each thread gets it's own handle (built once, with timeouts as per {@link HBDAOOptions}) and reuses it across calls. Callers must <u>not</u> close these handles.</li>
+ * <li>Bulk writes go through a {@link BufferedMutator} of their own (with write buffer size as per {@link HBDAOOptions}), so that they don't wait on one another and failures are attributed to the right caller.</li>
+ * </ul>
+ */
+class TableHandles implements Closeable {
+
+    private final Connection connection;
+    private final TableName tableName;
+    private final int operationTimeoutMillis;
+    private final int rpcTimeoutMillis;
+    private final int readRpcTimeoutMillis;
+    private final int writeRpcTimeoutMillis;
+    private final int scanTimeoutMillis;
+    private final long writeBufferSize;
+    private final ThreadLocal<Table> tables = new ThreadLocal<>();
+    private final ThreadLocal<Table> scanTables = new ThreadLocal<>();
+    private final Set<Table> openTables = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>())); // weak, so that handles of dead threads can be garbage collected
+    private volatile boolean closed;
+
+    TableHandles(Connection connection, TableName tableName, HBDAOOptions options) {
+        this.connection = connection;
+        this.tableName = tableName;
+        this.operationTimeoutMillis = options.getOperationTimeoutMillis();
+        this.rpcTimeoutMillis = options.getRpcTimeoutMillis();
+        this.readRpcTimeoutMillis = options.getReadRpcTimeoutMillis();
+        this.writeRpcTimeoutMillis = options.getWriteRpcTimeoutMillis();
+        this.scanTimeoutMillis = options.getScanTimeoutMillis();
+        this.writeBufferSize = options.getWriteBufferSize();
+    }
+
+    /**
+     * @return Handle of this thread, for gets and writes (must not be closed)
+     */
+    Table table() throws IOException {
+        return threadLocalTable(tables, readRpcTimeoutMillis);
+    }
+
+    /**
+     * @return Handle of this thread, for scans (must not be closed)
+     */
+    Table scanTable() throws IOException {
+        return scanTimeoutMillis < 0 ? table() : threadLocalTable(scanTables, scanTimeoutMillis);
+    }
+
+    /**
+     * @return A fresh handle, to be closed by caller
+     */
+    Table newTable() throws IOException {
+        return buildTable(readRpcTimeoutMillis);
+    }
+
+    private Table threadLocalTable(ThreadLocal<Table> threadLocal, int readRpcTimeoutMillis) throws IOException {
+        if (closed) {
+            throw new IOException("DAO for table '" + tableName + "' is closed");
+        }
+        Table table = threadLocal.get();
+        if (table == null) {
+            table = buildTable(readRpcTimeoutMillis);
+            openTables.add(table);
+            threadLocal.set(table);
+        }
+        return table;
+    }
+
+    private Table buildTable(int readRpcTimeoutMillis) throws IOException {
+        if (closed) {
+            throw new IOException("DAO for table '" + tableName + "' is closed");
+        }
+        TableBuilder tableBuilder = connection.getTableBuilder(tableName, null);
+        if (operationTimeoutMillis >= 0) {
+            tableBuilder.setOperationTimeout(operationTimeoutMillis);
+        }
+        if (rpcTimeoutMillis >= 0) {
+            tableBuilder.setRpcTimeout(rpcTimeoutMillis);
+        }
+        if (readRpcTimeoutMillis >= 0) {
+            tableBuilder.setReadRpcTimeout(readRpcTimeoutMillis);
+        }
+        if (writeRpcTimeoutMillis >= 0) {
+            tableBuilder.setWriteRpcTimeout(writeRpcTimeoutMillis);
+        }
+        return tableBuilder.build();
+    }
+
+    /**
+     * Writes given mutations through a fresh {@link BufferedMutator} and waits till they're flushed
+     *
+     * @throws RetriesExhaustedWithDetailsException When one or more mutations fail
+     */
+    void mutateAndFlush(List<? extends Mutation> mutations) throws IOException {
+        final List<RetriesExhaustedWithDetailsException> failures = Collections.synchronizedList(new ArrayList<>());
+        try (BufferedMutator mutator = newMutator((e, bufferedMutator) -> failures.add(e), 0)) {
+            mutator.mutate(mutations);
+            mutator.flush();
+        }
+        if (!failures.isEmpty()) {
+            throw merge(failures);
+        }
+    }
+
+    /**
+     * @param listener        Listener of failed mutations
+     * @param writeBufferSize Size (in bytes) of write buffer (overrides the one as per {@link HBDAOOptions}, if positive)
+     * @return A fresh {@link BufferedMutator} with timeouts as per {@link HBDAOOptions}, to be closed by caller
+     */
+    BufferedMutator newMutator(BufferedMutator.ExceptionListener listener, long writeBufferSize) throws IOException {
+        if (closed) {
+            throw new IOException("DAO for table '" + tableName + "' is closed");
+        }
+        BufferedMutatorParams params = new BufferedMutatorParams(tableName)
+                .listener(listener);
+        if (writeBufferSize > 0 || this.writeBufferSize > 0) {
+            params.writeBufferSize(writeBufferSize > 0 ? writeBufferSize : this.writeBufferSize);
+        }
+        if (operationTimeoutMillis >= 0) {
+            params.opertationTimeout(operationTimeoutMillis);
+        }
+        if (writeRpcTimeoutMillis >= 0 || rpcTimeoutMillis >= 0) {
+            params.rpcTimeout(writeRpcTimeoutMillis >= 0 ? writeRpcTimeoutMillis : rpcTimeoutMillis);
+        }
+        return connection.getBufferedMutator(params);
+    }
+
+    private static RetriesExhaustedWithDetailsException merge(List<RetriesExhaustedWithDetailsException> exceptions) {
+        if (exceptions.size() == 1) {
+            return exceptions.get(0);
+        }
+        List<Throwable> causes = new ArrayList<>();
+        List<Row> rows = new ArrayList<>();
+        List<String> hostnameAndPorts = new ArrayList<>();
+        for (RetriesExhaustedWithDetailsException e : exceptions) {
+            for (int i = 0; i < e.getNumExceptions(); i++) {
+                causes.add(e.getCause(i));
+                rows.add(e.getRow(i));
+                hostnameAndPorts.add(e.getHostnamePort(i));
+            }
+        }
+        return new RetriesExhaustedWithDetailsException(causes, rows, hostnameAndPorts);
+    }
+
+    /**
+     * Closes all {@link Table} handles. Handles (and mutators) can't be obtained after this.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        List<Table> tablesToClose;
+        synchronized (openTables) {
+            tablesToClose = new ArrayList<>(openTables);
+            openTables.clear();
+        }
+        for (Table table : tablesToClose) {
+            try {
+                table.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
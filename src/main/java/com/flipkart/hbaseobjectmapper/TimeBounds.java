@@ -0,0 +1,132 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restricts reads of {@link AbstractHBDAO} to cells whose timestamps fall in a range (e.g. "written in the last hour" or "state as of timestamp T"). For example:
+ * <pre>
+ * TimeBounds.last(1, TimeUnit.HOURS)
+ * TimeBounds.asOf(timestamp)
+ * TimeBounds.between(t1, t2).forFamily("audit", t0, t2)
+ * </pre>
+ * The range is passed on to HBase (as time range of {@link Get}/{@link Scan}), so region servers skip store files and cells outside it, rather than this library discarding them after fetching.
+ * <br><br>
+ * Objects of this class are immutable.
+ */
+public class TimeBounds {
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final Map<String, long[]> familyBounds;
+
+    private TimeBounds(long minTimestamp, long maxTimestamp, Map<String, long[]> familyBounds) {
+        validate(minTimestamp, maxTimestamp);
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.familyBounds = Collections.unmodifiableMap(familyBounds);
+    }
+
+    private static void validate(long minTimestamp, long maxTimestamp) {
+        if (minTimestamp < 0) {
+            throw new IllegalArgumentException("Timestamp can't be negative (found " + minTimestamp + ")");
+        }
+        if (maxTimestamp <= minTimestamp) {
+            throw new IllegalArgumentException(String.format("Invalid time range [%d, %d): end must be greater than start", minTimestamp, maxTimestamp));
+        }
+    }
+
+    /**
+     * @param minTimestamp Start of range (inclusive)
+     * @param maxTimestamp End of range (exclusive)
+     * @return Bounds covering cells with timestamps in [minTimestamp, maxTimestamp)
+     */
+    public static TimeBounds between(long minTimestamp, long maxTimestamp) {
+        return new TimeBounds(minTimestamp, maxTimestamp, Collections.emptyMap());
+    }
+
+    /**
+     * @param timestamp Point in time
+     * @return Bounds covering cells written at or before given timestamp (i.e. state of row as of that point in time, when fetching one version)
+     */
+    public static TimeBounds asOf(long timestamp) {
+        return between(0, timestamp == Long.MAX_VALUE ? Long.MAX_VALUE : timestamp + 1);
+    }
+
+    /**
+     * @param timestamp Point in time
+     * @return Bounds covering cells written at or after given timestamp
+     */
+    public static TimeBounds since(long timestamp) {
+        return between(timestamp, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param duration Duration
+     * @param unit     Unit of duration
+     * @return Bounds covering cells written in given duration before now (as per clock of this process)
+     */
+    public static TimeBounds last(long duration, TimeUnit unit) {
+        return since(Math.max(0, System.currentTimeMillis() - unit.toMillis(duration)));
+    }
+
+    /**
+     * Overrides the range for a column family (i.e. cells of given family are bound by given range rather than the overall range)
+     *
+     * @param family       Column family
+     * @param minTimestamp Start of range (inclusive)
+     * @param maxTimestamp End of range (exclusive)
+     * @return A copy of this object, with given override
+     */
+    public TimeBounds forFamily(String family, long minTimestamp, long maxTimestamp) {
+        validate(minTimestamp, maxTimestamp);
+        Map<String, long[]> familyBounds = new LinkedHashMap<>(this.familyBounds);
+        familyBounds.put(family, new long[]{minTimestamp, maxTimestamp});
+        return new TimeBounds(this.minTimestamp, this.maxTimestamp, familyBounds);
+    }
+
+    /**
+     * @return Start of range (inclusive)
+     */
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    /**
+     * @return End of range (exclusive)
+     */
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    Get applyTo(Get get) throws IOException {
+        get.setTimeRange(minTimestamp, maxTimestamp);
+        for (Map.Entry<String, long[]> e : familyBounds.entrySet()) {
+            get.setColumnFamilyTimeRange(Bytes.toBytes(e.getKey()), e.getValue()[0], e.getValue()[1]);
+        }
+        return get;
+    }
+
+    Scan applyTo(Scan scan) throws IOException {
+        scan.setTimeRange(minTimestamp, maxTimestamp);
+        for (Map.Entry<String, long[]> e : familyBounds.entrySet()) {
+            scan.setColumnFamilyTimeRange(Bytes.toBytes(e.getKey()), e.getValue()[0], e.getValue()[1]);
+        }
+        return scan;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[").append(minTimestamp).append(", ").append(maxTimestamp).append(')');
+        for (Map.Entry<String, long[]> e : familyBounds.entrySet()) {
+            sb.append(", ").append(e.getKey()).append(": [").append(e.getValue()[0]).append(", ").append(e.getValue()[1]).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,468 @@
+package com.flipkart.hbaseobjectmapper;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind buffer of an {@link AbstractHBDAO}, backing {@link AbstractHBDAO#persistAsync(HBRecord)} (and it's delete and increment counterparts) when {@link HBDAOOptions#setWriteBehind(WriteBehindConfig) enabled}. For internal use only.
+ * <br><br>
+ * Mutations are coalesced per row as they're submitted, so that a flush sends at most one {@link Delete}, one {@link Put} and one {@link Increment} per row:
+ * <ul>
+ * <li>A put replaces pending cells of the columns it has (i.e. later field values replace earlier ones) and cancels pending increments of those columns</li>
+ * <li>An increment adds to a pending increment of the same column. If the column has a pending (single-cell, 8-byte) value instead, the increment is applied to that value.</li>
+ * <li>A delete of the row cancels everything pending for the row. Increments that follow it are folded into the put that follows it (as puts of their sums), unless the column has a pending value they can't be applied to.</li>
+ * </ul>
+ * A flush sends mutations of rows in rounds (one batch per round), each round only after the previous one is acknowledged: deletes, then puts, then increments. Region servers stamp all of them (no timestamps are set here, since this client's clock may be ahead of or behind theirs), and a round that follows deletes starts at least a millisecond after they're acknowledged, so that cells written after a delete always get a later timestamp than it's tombstone. Submissions only take the monitor of this object (briefly): a submission that fills up the buffer has a flusher thread flush it, without waiting for the flush. Flushes may overlap (up to {@link WriteBehindConfig#maxInFlightFlushes(int)} flusher threads, besides callers of {@link #flush()}), but a row is in at most one flush at a time: mutations of a row submitted while it's being flushed stay buffered till that flush completes, so that writes to a row are never reordered.
+ *
+ * @param <R> Data type of row key
+ */
+class WriteBehindBuffer<R> implements Closeable {
+
+    interface BatchWriter {
+        /**
+         * Writes given actions (as in {@link org.apache.hadoop.hbase.client.Table#batch(List, Object[])})
+         */
+        void write(List<Row> actions, Object[] results) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Coalesced mutations of a row, pending flush
+     */
+    private static class PendingRow<R> {
+        private final R rowKey;
+        private final byte[] row;
+        private final List<CompletableFuture<R>> futures = new ArrayList<>();
+        private boolean deleted;
+        private Put put;
+        private final NavigableMap<byte[], NavigableMap<byte[], Long>> increments = new TreeMap<>(Bytes.BYTES_COMPARATOR); // by family and column
+        private int records; // submitted
+        private long bytes; // submitted
+        private Throwable failure;
+
+        PendingRow(R rowKey, byte[] row) {
+            this.rowKey = rowKey;
+            this.row = row;
+        }
+
+        void put(Put later) {
+            if (put == null) {
+                put = new Put(row);
+            }
+            for (Map.Entry<byte[], List<Cell>> e : later.getFamilyCellMap().entrySet()) {
+                final Set<byte[]> columns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+                for (Cell cell : e.getValue()) {
+                    columns.add(CellUtil.cloneQualifier(cell));
+                }
+                final List<Cell> cells = put.getFamilyCellMap().computeIfAbsent(e.getKey(), f -> new ArrayList<>());
+                cells.removeIf(cell -> columns.contains(CellUtil.cloneQualifier(cell)));
+                cells.addAll(e.getValue());
+                final Map<byte[], Long> familyIncrements = increments.get(e.getKey());
+                if (familyIncrements != null) {
+                    familyIncrements.keySet().removeAll(columns); // overwritten
+                }
+            }
+        }
+
+        void increment(byte[] family, byte[] column, long amount) {
+            final List<Cell> cells = put == null ? null : put.getFamilyCellMap().get(family);
+            int index = -1, matches = 0;
+            if (cells != null) {
+                for (int i = 0; i < cells.size(); i++) {
+                    if (CellUtil.matchingQualifier(cells.get(i), column)) {
+                        index = i;
+                        matches++;
+                    }
+                }
+            }
+            if (matches == 1 && cells.get(index).getValueLength() == Bytes.SIZEOF_LONG) {
+                final Cell cell = cells.get(index);
+                final long value = Bytes.toLong(cell.getValueArray(), cell.getValueOffset()) + amount;
+                cells.set(index, new KeyValue(row, family, column, cell.getTimestamp(), KeyValue.Type.Put, Bytes.toBytes(value)));
+                return;
+            }
+            if (matches == 0 && deleted) { // column was deleted, so it's value is the sum of increments that followed
+                if (put == null) {
+                    put = new Put(row);
+                }
+                put.addColumn(family, column, Bytes.toBytes(amount));
+                return;
+            }
+            increments.computeIfAbsent(family, f -> new TreeMap<>(Bytes.BYTES_COMPARATOR)).merge(column, amount, Long::sum);
+        }
+
+        void delete() {
+            deleted = true;
+            put = null;
+            increments.clear();
+        }
+
+        /**
+         * @return Mutations to send for this row, in order (each in a round of it's own)
+         */
+        List<Row> mutations() {
+            final List<Row> mutations = new ArrayList<>(3);
+            if (deleted) {
+                mutations.add(new Delete(row));
+            }
+            if (put != null && !put.isEmpty()) {
+                mutations.add(put);
+            }
+            final Increment increment = increment();
+            if (increment != null) {
+                mutations.add(increment);
+            }
+            return mutations;
+        }
+
+        /**
+         * @return Increment to send for this row, or <code>null</code> if none
+         */
+        private Increment increment() {
+            Increment increment = null;
+            for (Map.Entry<byte[], NavigableMap<byte[], Long>> fe : increments.entrySet()) {
+                for (Map.Entry<byte[], Long> e : fe.getValue().entrySet()) {
+                    if (e.getValue() != 0) {
+                        if (increment == null) {
+                            increment = new Increment(row);
+                        }
+                        increment.addColumn(fe.getKey(), e.getKey(), e.getValue());
+                    }
+                }
+            }
+            return increment;
+        }
+    }
+
+    private final long writeBufferSize;
+    private final int maxBufferedRecords;
+    private final BatchWriter writer;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushTriggered = new AtomicBoolean();
+    private final Map<byte[], PendingRow<R>> pending = new TreeMap<>(Bytes.BYTES_COMPARATOR); // guarded by this
+    private final Map<byte[], PendingRow<R>> inFlight = new TreeMap<>(Bytes.BYTES_COMPARATOR); // rows being flushed; guarded by this
+    private int bufferedRecords; // guarded by this
+    private long bufferedBytes; // guarded by this
+    private boolean closed; // guarded by this
+
+    /**
+     * @param writeBufferSize Size (in bytes) of mutations buffered, on reaching which the buffer is flushed
+     */
+    WriteBehindBuffer(WriteBehindConfig config, long writeBufferSize, BatchWriter writer, String name) {
+        this.writeBufferSize = writeBufferSize;
+        this.maxBufferedRecords = config.getMaxBufferedRecords();
+        this.writer = writer;
+        final AtomicInteger threads = new AtomicInteger();
+        this.flusher = Executors.newScheduledThreadPool(config.getMaxInFlightFlushes(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long flushIntervalMillis = config.getFlushIntervalMillis();
+        if (flushIntervalMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushBatchQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Buffers a put
+     *
+     * @return Future that completes (with given row key) once the row's coalesced mutations are acknowledged by HBase, or fails with the reason they failed
+     */
+    CompletableFuture<R> put(Put put, R rowKey) {
+        return submit(rowKey, put.getRow(), put.heapSize(), row -> row.put(put));
+    }
+
+    /**
+     * Buffers a delete of entire row
+     *
+     * @see #put(Put, Object)
+     */
+    CompletableFuture<R> delete(R rowKey, byte[] row) {
+        return submit(rowKey, row, row.length, PendingRow::delete);
+    }
+
+    /**
+     * Buffers an increment of a column
+     *
+     * @see #put(Put, Object)
+     */
+    CompletableFuture<R> increment(R rowKey, byte[] row, byte[] family, byte[] column, long amount) {
+        return submit(rowKey, row, row.length + family.length + column.length + Bytes.SIZEOF_LONG, pendingRow -> pendingRow.increment(family, column, amount));
+    }
+
+    private CompletableFuture<R> submit(R rowKey, byte[] row, long heapSize, Consumer<PendingRow<R>> merge) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final boolean flushNow;
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IOException("Write-behind buffer of this DAO is closed"));
+                return future;
+            }
+            final PendingRow<R> pendingRow = pending.computeIfAbsent(row, r -> new PendingRow<>(rowKey, row));
+            merge.accept(pendingRow);
+            pendingRow.futures.add(future);
+            pendingRow.records++;
+            pendingRow.bytes += heapSize;
+            bufferedRecords++;
+            bufferedBytes += heapSize;
+            flushNow = bufferedRecords >= maxBufferedRecords || bufferedBytes >= writeBufferSize;
+        }
+        if (flushNow) {
+            triggerFlush();
+        }
+        return future;
+    }
+
+    /**
+     * Has a flusher thread flush a batch, unless one is already due to
+     */
+    private void triggerFlush() {
+        if (flushTriggered.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushTriggered.set(false);
+                    flushBatchQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushTriggered.set(false); // closed concurrently, which flushes anyway
+            }
+        }
+    }
+
+    /**
+     * Sends all buffered mutations to HBase and waits till they're acknowledged (or fail), along with those already being sent
+     *
+     * @throws IOException When one or more rows fail (their futures fail with the reason)
+     */
+    void flush() throws IOException {
+        final List<CompletableFuture<R>> awaited = new ArrayList<>();
+        synchronized (this) {
+            for (PendingRow<R> row : pending.values()) {
+                awaited.addAll(row.futures);
+            }
+            for (PendingRow<R> row : inFlight.values()) {
+                awaited.addAll(row.futures);
+            }
+        }
+        IOException failure = null;
+        while (true) {
+            final List<PendingRow<R>> batch = takeBatch();
+            if (!batch.isEmpty()) {
+                final IOException batchFailure = send(batch);
+                if (failure == null) {
+                    failure = batchFailure;
+                }
+                continue;
+            }
+            synchronized (this) {
+                if (isDone(awaited)) {
+                    break;
+                }
+                if (!hasSendable()) {
+                    try {
+                        wait(); // for rows being sent by another thread, some of which have more mutations buffered after them
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw (InterruptedIOException) new InterruptedIOException("Interrupted while flushing write-behind buffer").initCause(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        for (CompletableFuture<R> future : awaited) {
+            if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        }
+    }
+
+    private static boolean isDone(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized boolean hasSendable() {
+        for (byte[] row : pending.keySet()) {
+            if (!inFlight.containsKey(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes buffered rows that aren't being sent already (those that are stay buffered, so that writes to a row are never reordered)
+     *
+     * @return Rows to send (marked in-flight)
+     */
+    private synchronized List<PendingRow<R>> takeBatch() {
+        final List<PendingRow<R>> batch = new ArrayList<>();
+        for (Iterator<PendingRow<R>> iterator = pending.values().iterator(); iterator.hasNext(); ) {
+            final PendingRow<R> row = iterator.next();
+            if (!inFlight.containsKey(row.row)) {
+                iterator.remove();
+                inFlight.put(row.row, row);
+                bufferedRecords -= row.records;
+                bufferedBytes -= row.bytes;
+                batch.add(row);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Sends mutations of given rows, round by round, and completes their futures
+     *
+     * @return Failure, if any row failed
+     */
+    private IOException send(List<PendingRow<R>> rows) {
+        final List<List<Row>> rowMutations = new ArrayList<>(rows.size());
+        for (PendingRow<R> row : rows) {
+            rowMutations.add(row.mutations());
+        }
+        IOException failure = null;
+        boolean afterDeletes = false;
+        for (int round = 0; ; round++) {
+            final List<Row> mutations = new ArrayList<>();
+            final List<PendingRow<R>> mutatedRows = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).failure == null && rowMutations.get(i).size() > round) {
+                    mutations.add(rowMutations.get(i).get(round));
+                    mutatedRows.add(rows.get(i));
+                }
+            }
+            if (afterDeletes) {
+                try {
+                    Thread.sleep(1); // so that region servers stamp cells of this round (or of the next batch) later than tombstones of the previous round
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = (InterruptedIOException) new InterruptedIOException("Interrupted while flushing write-behind buffer").initCause(e);
+                    for (PendingRow<R> row : mutatedRows) {
+                        row.failure = failure;
+                    }
+                    break;
+                }
+            }
+            if (mutations.isEmpty()) {
+                break;
+            }
+            afterDeletes = false;
+            for (Row mutation : mutations) {
+                afterDeletes |= mutation instanceof Delete;
+            }
+            final IOException roundFailure = send(mutations, mutatedRows);
+            if (failure == null) {
+                failure = roundFailure;
+            }
+        }
+        for (PendingRow<R> row : rows) {
+            for (CompletableFuture<R> future : row.futures) {
+                if (row.failure == null) {
+                    future.complete(row.rowKey);
+                } else {
+                    future.completeExceptionally(row.failure);
+                }
+            }
+        }
+        final boolean heldBack;
+        synchronized (this) {
+            boolean anyHeldBack = false;
+            for (PendingRow<R> row : rows) {
+                inFlight.remove(row.row);
+                anyHeldBack |= pending.containsKey(row.row);
+            }
+            heldBack = anyHeldBack;
+            notifyAll();
+        }
+        if (heldBack) {
+            triggerFlush(); // mutations buffered after these rows were taken
+        }
+        return failure;
+    }
+
+    /**
+     * Sends given actions, marking rows whose action failed
+     *
+     * @return Failure, if any action failed
+     */
+    private IOException send(List<Row> actions, List<PendingRow<R>> rows) {
+        if (actions.isEmpty()) {
+            return null;
+        }
+        final Object[] results = new Object[actions.size()];
+        IOException failure = null;
+        try {
+            writer.write(actions, results);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            failure = e; // failures of individual actions are available in 'results'
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = (InterruptedIOException) new InterruptedIOException("Interrupted while flushing write-behind buffer").initCause(e);
+            Arrays.fill(results, null);
+        } catch (IOException e) {
+            failure = e;
+            Arrays.fill(results, null);
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] instanceof Throwable) {
+                rows.get(i).failure = (Throwable) results[i];
+            } else if (results[i] == null) {
+                if (failure == null) {
+                    failure = new IOException("Outcome of write is unknown (HBase returned no result for it)");
+                }
+                rows.get(i).failure = failure;
+            }
+        }
+        return failure;
+    }
+
+    private void flushBatchQuietly() {
+        final List<PendingRow<R>> batch = takeBatch();
+        if (!batch.isEmpty()) {
+            send(batch); // failures are reported through futures of the rows
+        }
+    }
+
+    /**
+     * Stops periodic flushes and flushes buffered mutations. Mutations submitted after this fail.
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+}
@@ -0,0 +1,94 @@
+package com.flipkart.hbaseobjectmapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of (optional) write-behind persistence of {@link AbstractHBDAO}, to be passed through {@link HBDAOOptions#setWriteBehind(WriteBehindConfig)}
+ * <br><br>
+ * When enabled, {@link AbstractHBDAO#persistAsync(HBRecord)} (as well as {@link AbstractHBDAO#deleteAsync(java.io.Serializable)} and {@link AbstractHBDAO#incrementAsync(java.io.Serializable, String, long)}) buffers the write and returns right away. Buffered writes are sent to HBase when any of below happens:
+ * <ul>
+ * <li>buffered writes fill up the write buffer (see {@link #writeBufferSize(long)})</li>
+ * <li>number of buffered writes reaches {@link #maxBufferedRecords(int)}</li>
+ * <li>{@link #flushInterval(long, TimeUnit) flush interval} elapses</li>
+ * <li>{@link AbstractHBDAO#flush()} or {@link AbstractHBDAO#close()} is called</li>
+ * </ul>
+ * Writes to the same row are coalesced while they're buffered, so that a flush sends HBase at most one {@link org.apache.hadoop.hbase.client.Delete Delete}, one {@link org.apache.hadoop.hbase.client.Put Put} and one {@link org.apache.hadoop.hbase.client.Increment Increment} per row: later field values replace earlier ones, increments of a field are summed and a delete cancels writes buffered before it. This saves RPC payload, WAL bytes and MemStore churn for rows that are written repeatedly, with a side effect: fields written more than once in between flushes leave only their last value in HBase (even if the column family retains multiple versions).
+ * <br><br>
+ * For example:
+ * <pre>
+ * new WriteBehindConfig()
+ *   .maxBufferedRecords(5_000)
+ *   .flushInterval(500, TimeUnit.MILLISECONDS);
+ * </pre>
+ */
+public class WriteBehindConfig {
+    private long writeBufferSize = -1;
+    private int maxBufferedRecords = 1000;
+    private long flushIntervalMillis = 1000;
+    private int maxInFlightFlushes = 2;
+
+    /**
+     * @param writeBufferSize Size (in bytes) of write buffer, i.e. of buffered writes on reaching which the buffer is flushed by a background thread. If not set, {@link HBDAOOptions#setWriteBufferSize(long) write buffer size of DAO} applies.
+     * @return This object (for method chaining)
+     */
+    public WriteBehindConfig writeBufferSize(long writeBufferSize) {
+        if (writeBufferSize <= 0) {
+            throw new IllegalArgumentException("Write buffer size must be positive");
+        }
+        this.writeBufferSize = writeBufferSize;
+        return this;
+    }
+
+    /**
+     * @param maxBufferedRecords Number of buffered writes, on reaching which the buffer is flushed by a background thread (the writer that submitted the last of them doesn't wait for the flush)
+     * @return This object (for method chaining)
+     */
+    public WriteBehindConfig maxBufferedRecords(int maxBufferedRecords) {
+        if (maxBufferedRecords < 1) {
+            throw new IllegalArgumentException("Maximum number of buffered records must be a positive number (found " + maxBufferedRecords + ")");
+        }
+        this.maxBufferedRecords = maxBufferedRecords;
+        return this;
+    }
+
+    /**
+     * @param interval Interval at which buffer is flushed by a background thread (<code>0</code> to disable periodic flushes)
+     * @param unit     Unit of interval
+     * @return This object (for method chaining)
+     */
+    public WriteBehindConfig flushInterval(long interval, TimeUnit unit) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Flush interval can't be negative");
+        }
+        this.flushIntervalMillis = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * @param maxInFlightFlushes Maximum number of background flushes in flight at a time, i.e. the buffer may be flushed again while previous flushes are still being acknowledged (writes to a row are sent only after earlier writes to it are acknowledged, though)
+     * @return This object (for method chaining)
+     */
+    public WriteBehindConfig maxInFlightFlushes(int maxInFlightFlushes) {
+        if (maxInFlightFlushes < 1) {
+            throw new IllegalArgumentException("Maximum number of in-flight flushes must be a positive number (found " + maxInFlightFlushes + ")");
+        }
+        this.maxInFlightFlushes = maxInFlightFlushes;
+        return this;
+    }
+
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    public int getMaxBufferedRecords() {
+        return maxBufferedRecords;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public int getMaxInFlightFlushes() {
+        return maxInFlightFlushes;
+    }
+}
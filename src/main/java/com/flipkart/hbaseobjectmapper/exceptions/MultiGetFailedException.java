@@ -0,0 +1,31 @@
+package com.flipkart.hbaseobjectmapper.exceptions;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when one or more chunks of a bulk get could not be fetched. Chunk <code>i</code> holds row keys starting at position <code>i * chunkSize</code> of input.
+ */
+public class MultiGetFailedException extends IOException {
+    private final transient Map<Integer, Throwable> failures;
+    private final int chunkSize;
+
+    public MultiGetFailedException(Map<Integer, Throwable> failures, int chunkSize, int numRowKeys) {
+        super(String.format("%d chunk(s) of a bulk get of %d row keys (chunk size %d) failed. Chunks that failed: %s", failures.size(), numRowKeys, chunkSize, failures.keySet()),
+                failures.isEmpty() ? null : failures.values().iterator().next());
+        this.failures = Collections.unmodifiableMap(failures);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return Map of chunk index to reason of failure
+     */
+    public Map<Integer, Throwable> getFailures() {
+        return failures;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -1,21 +1,53 @@
 package com.flipkart.hbaseobjectmapper.testcases;
 
+import com.flipkart.hbaseobjectmapper.AbsentKeyFilterConfig;
+import com.flipkart.hbaseobjectmapper.Aggregation;
+import com.flipkart.hbaseobjectmapper.AggregationResult;
+import com.flipkart.hbaseobjectmapper.BulkPersistOptions;
+import com.flipkart.hbaseobjectmapper.BulkPersistStats;
+import com.flipkart.hbaseobjectmapper.ColumnBatch;
+import com.flipkart.hbaseobjectmapper.CounterAccumulatorConfig;
+import com.flipkart.hbaseobjectmapper.EntityCacheConfig;
+import com.flipkart.hbaseobjectmapper.HBDAOOptions;
+import com.flipkart.hbaseobjectmapper.HFileBulkLoadStats;
+import com.flipkart.hbaseobjectmapper.HFileBulkLoader;
 import com.flipkart.hbaseobjectmapper.HBRecord;
+import com.flipkart.hbaseobjectmapper.MicroBatchConfig;
+import com.flipkart.hbaseobjectmapper.MicroBatchStats;
+import com.flipkart.hbaseobjectmapper.MultiGetListener;
+import com.flipkart.hbaseobjectmapper.MultiGetOptions;
+import com.flipkart.hbaseobjectmapper.Page;
+import com.flipkart.hbaseobjectmapper.ReadOptions;
+import com.flipkart.hbaseobjectmapper.ReadResult;
 import com.flipkart.hbaseobjectmapper.Records;
+import com.flipkart.hbaseobjectmapper.SampleEstimate;
+import com.flipkart.hbaseobjectmapper.ScanPipelineConfig;
+import com.flipkart.hbaseobjectmapper.TimeBounds;
 import com.flipkart.hbaseobjectmapper.WrappedHBColumnTC;
+import com.flipkart.hbaseobjectmapper.WriteBehindConfig;
 import com.flipkart.hbaseobjectmapper.codec.JavaObjectStreamCodec;
 import com.flipkart.hbaseobjectmapper.testcases.daos.*;
 import com.flipkart.hbaseobjectmapper.testcases.entities.*;
 import com.flipkart.hbaseobjectmapper.testcases.util.cluster.HBaseCluster;
 import com.flipkart.hbaseobjectmapper.testcases.util.cluster.InMemoryHBaseCluster;
 import com.flipkart.hbaseobjectmapper.testcases.util.cluster.RealHBaseCluster;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Consistency;
 import org.apache.hadoop.hbase.client.Durability;
 import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.EnvironmentEdgeManager;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.junit.AfterClass;
@@ -25,7 +57,17 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.flipkart.hbaseobjectmapper.testcases.util.LiteralsUtil.*;
 import static org.junit.Assert.*;
@@ -54,6 +96,7 @@ public class TestsAbstractHBDAO {
             connection = ConnectionFactory.createConnection(configuration);
             hBaseCluster.createTable("citizens", m(e("main", 1), e("optional", 3)));
             hBaseCluster.createTable("citizens_summary", m(e("a", 3)));
+            hBaseCluster.createTable("students", m(e("a", 1)), new byte[][]{Bytes.toBytes("300"), Bytes.toBytes("600")});
         } catch (NumberFormatException e) {
             fail("The environmental variable " + InMemoryHBaseCluster.INMEMORY_CLUSTER_START_TIMEOUT + " is specified incorrectly (Must be numeric)");
         } catch (Exception e) {
@@ -90,306 +133,1306 @@ public class TestsAbstractHBDAO {
 
     @Test
     public void testCRUD() throws IOException {
-        CitizenDAO citizenDao = new CitizenDAO(connection);
-        CitizenSummaryDAO citizenSummaryDAO = new CitizenSummaryDAO(connection);
-        final List<Citizen> records = TestObjects.validCitizenObjects;
-        assertEquals("citizens", citizenDao.getTableName());
-        final Set<String> columnFamiliesCitizen = citizenDao.getColumnFamiliesAndVersions().keySet(), columnFamiliesCitizenSummary = citizenSummaryDAO.getColumnFamiliesAndVersions().keySet();
-        assertEquals("Issue with column families of 'citizens' table\n" + columnFamiliesCitizen, s("main", "optional"), columnFamiliesCitizen);
-        assertEquals("citizens_summary", citizenSummaryDAO.getTableName());
-        assertEquals("Issue with column families of 'citizens_summary' table\n" + columnFamiliesCitizenSummary, s("a"), columnFamiliesCitizenSummary);
-        String[] allRowKeys = new String[records.size()];
-        Map<String, Map<String, Object>> expectedFieldValues = new HashMap<>();
-        for (int i = 0; i < records.size(); i++) { // for each test object,
-            Citizen record = records.get(i);
-            final String rowKey = citizenDao.persist(record);
-            allRowKeys[i] = rowKey;
-            Citizen serDeserRecord = citizenDao.get(rowKey, Integer.MAX_VALUE);
-            assertEquals("Entry got corrupted upon persisting and fetching back", record, serDeserRecord);
-            for (int numVersions = 1; numVersions <= 4; numVersions++) {
-                final Citizen citizenNVersionsActual = citizenDao.get(rowKey, numVersions), citizenNVersionsExpected = pruneVersionsBeyond(record, numVersions);
-                assertEquals("Mismatch in data between 'record pruned for " + numVersions + " versions' and 'record fetched from HBase for " + numVersions + "versions' for record: " + record, citizenNVersionsExpected, citizenNVersionsActual);
-            }
-            for (String f : citizenDao.getFields()) { // for each field of the given test object,
-                try {
-                    Field field = Citizen.class.getDeclaredField(f);
-                    WrappedHBColumnTC hbColumn = new WrappedHBColumnTC(field);
-                    field.setAccessible(true);
-                    if (hbColumn.isMultiVersioned()) {
-                        NavigableMap expected = (NavigableMap) field.get(record);
-                        final NavigableMap actual = citizenDao.fetchFieldValue(rowKey, f, Integer.MAX_VALUE);
-                        assertEquals(String.format("Data for (multi-versioned) field \"%s\" got corrupted upon persisting and fetching back object: %s", field.getName(), record), expected, actual);
-                        if (actual == null)
-                            continue;
-                        if (expectedFieldValues.containsKey(f)) {
-                            expectedFieldValues.get(f).put(rowKey, actual);
-                        } else {
-                            expectedFieldValues.put(f, m(e(rowKey, (Object) actual)));
-                        }
-                    } else {
-                        final Object actual = citizenDao.fetchFieldValue(rowKey, f);
-                        Object expected = field.get(record);
-                        assertEquals(String.format("Data for field \"%s\" got corrupted upon persisting and fetching back object: %s", field.getName(), record), expected, actual);
-                        if (actual == null)
-                            continue;
-                        if (expectedFieldValues.containsKey(f)) {
-                            expectedFieldValues.get(f).put(rowKey, actual);
+        try (CitizenDAO citizenDao = new CitizenDAO(connection);
+             CitizenSummaryDAO citizenSummaryDAO = new CitizenSummaryDAO(connection)) {
+            final List<Citizen> records = TestObjects.validCitizenObjects;
+            assertEquals("citizens", citizenDao.getTableName());
+            final Set<String> columnFamiliesCitizen = citizenDao.getColumnFamiliesAndVersions().keySet(), columnFamiliesCitizenSummary = citizenSummaryDAO.getColumnFamiliesAndVersions().keySet();
+            assertEquals("Issue with column families of 'citizens' table\n" + columnFamiliesCitizen, s("main", "optional"), columnFamiliesCitizen);
+            assertEquals("citizens_summary", citizenSummaryDAO.getTableName());
+            assertEquals("Issue with column families of 'citizens_summary' table\n" + columnFamiliesCitizenSummary, s("a"), columnFamiliesCitizenSummary);
+            String[] allRowKeys = new String[records.size()];
+            Map<String, Map<String, Object>> expectedFieldValues = new HashMap<>();
+            for (int i = 0; i < records.size(); i++) { // for each test object,
+                Citizen record = records.get(i);
+                final String rowKey = citizenDao.persist(record);
+                allRowKeys[i] = rowKey;
+                Citizen serDeserRecord = citizenDao.get(rowKey, Integer.MAX_VALUE);
+                assertEquals("Entry got corrupted upon persisting and fetching back", record, serDeserRecord);
+                for (int numVersions = 1; numVersions <= 4; numVersions++) {
+                    final Citizen citizenNVersionsActual = citizenDao.get(rowKey, numVersions), citizenNVersionsExpected = pruneVersionsBeyond(record, numVersions);
+                    assertEquals("Mismatch in data between 'record pruned for " + numVersions + " versions' and 'record fetched from HBase for " + numVersions + "versions' for record: " + record, citizenNVersionsExpected, citizenNVersionsActual);
+                }
+                for (String f : citizenDao.getFields()) { // for each field of the given test object,
+                    try {
+                        Field field = Citizen.class.getDeclaredField(f);
+                        WrappedHBColumnTC hbColumn = new WrappedHBColumnTC(field);
+                        field.setAccessible(true);
+                        if (hbColumn.isMultiVersioned()) {
+                            NavigableMap expected = (NavigableMap) field.get(record);
+                            final NavigableMap actual = citizenDao.fetchFieldValue(rowKey, f, Integer.MAX_VALUE);
+                            assertEquals(String.format("Data for (multi-versioned) field \"%s\" got corrupted upon persisting and fetching back object: %s", field.getName(), record), expected, actual);
+                            if (actual == null)
+                                continue;
+                            if (expectedFieldValues.containsKey(f)) {
+                                expectedFieldValues.get(f).put(rowKey, actual);
+                            } else {
+                                expectedFieldValues.put(f, m(e(rowKey, (Object) actual)));
+                            }
                         } else {
-                            expectedFieldValues.put(f, m(e(rowKey, actual)));
+                            final Object actual = citizenDao.fetchFieldValue(rowKey, f);
+                            Object expected = field.get(record);
+                            assertEquals(String.format("Data for field \"%s\" got corrupted upon persisting and fetching back object: %s", field.getName(), record), expected, actual);
+                            if (actual == null)
+                                continue;
+                            if (expectedFieldValues.containsKey(f)) {
+                                expectedFieldValues.get(f).put(rowKey, actual);
+                            } else {
+                                expectedFieldValues.put(f, m(e(rowKey, actual)));
+                            }
                         }
+                    } catch (IllegalAccessException e) {
+                        e.printStackTrace();
+                        fail(String.format("Can't read field '%s' from object %s", f, record));
+                    } catch (NoSuchFieldException e) {
+                        e.printStackTrace();
+                        fail(String.format("Field missing: %s", f));
+                    } catch (IOException ioex) {
+                        ioex.printStackTrace();
+                        fail(String.format("Could not fetch field '%s' for row '%s'", f, rowKey));
+                    }
+                }
+            }
+            // Test on range scan
+            final String startRowKey = allRowKeys[0], endRowKey = allRowKeys[allRowKeys.length - 1];
+            List<Citizen> citizens = citizenDao.get(startRowKey, endRowKey, Integer.MAX_VALUE);
+            for (int i = 0; i < citizens.size(); i++) {
+                assertEquals(String.format("[range scan] The result of get(%s, %s) returned unexpected entry at position " + i, startRowKey, endRowKey), records.get(i), citizens.get(i));
+            }
+            try (Records<Citizen> citizenIterable = citizenDao.records(startRowKey, endRowKey, Integer.MAX_VALUE)) {
+                Citizen[] expectedCitizens = citizens.toArray(new Citizen[citizens.size()]); // this contains all records except the last one
+                Citizen[] actualCitizens = Iterables.toArray(citizenIterable, Citizen.class);
+                assertArrayEquals("Fetch directly vs fetch via iterable differ in results [start row key, end row key]", expectedCitizens, actualCitizens);
+            }
+            Citizen[] allCitizens = citizenDao.get(Arrays.asList(allRowKeys)).toArray(new Citizen[allRowKeys.length]);
+            List<Citizen> allCitizensChunked = citizenDao.get(Arrays.asList(allRowKeys), 1, MultiGetOptions.DEFAULT.withChunkSize(2).withMaxInFlightChunks(3));
+            assertArrayEquals("Bulk get with small chunks (fetched concurrently) returned unexpected result", allCitizens, allCitizensChunked.toArray(new Citizen[allRowKeys.length]));
+            final Citizen[] streamedCitizens = new Citizen[allRowKeys.length];
+            citizenDao.get(Arrays.asList(allRowKeys), 1, MultiGetOptions.DEFAULT.withChunkSize(3).withMaxInFlightChunks(2), new MultiGetListener<String, Citizen>() {
+                @Override
+                public void onChunk(int chunkIndex, List<String> rowKeys, List<Citizen> chunkRecords) {
+                    for (int i = 0; i < chunkRecords.size(); i++) {
+                        streamedCitizens[chunkIndex * 3 + i] = chunkRecords.get(i);
                     }
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                    fail(String.format("Can't read field '%s' from object %s", f, record));
-                } catch (NoSuchFieldException e) {
-                    e.printStackTrace();
-                    fail(String.format("Field missing: %s", f));
-                } catch (IOException ioex) {
-                    ioex.printStackTrace();
-                    fail(String.format("Could not fetch field '%s' for row '%s'", f, rowKey));
                 }
+
+                @Override
+                public void onChunkFailure(int chunkIndex, List<String> rowKeys, Throwable cause) {
+                    fail("Chunk " + chunkIndex + " of streaming bulk get failed: " + cause);
+                }
+            });
+            assertArrayEquals("Streaming bulk get returned unexpected result", allCitizens, streamedCitizens);
+            List<Citizen> citizensByPrefix = citizenDao.getByPrefix(citizenDao.toBytes("IND#"));
+            assertArrayEquals("get by prefix is returning incorrect result", citizensByPrefix.toArray(new Citizen[citizensByPrefix.size()]), allCitizens);
+            try (Records<Citizen> citizenIterable = citizenDao.recordsByPrefix(citizenDao.toBytes("IND#"))) {
+                Citizen[] expectedCitizens = citizenDao.get(allRowKeys);
+                assertArrayEquals("Fetch directly vs fetch via iterable differ in results [row key prefix]", expectedCitizens, Iterables.toArray(citizenIterable, Citizen.class));
+                assertArrayEquals("Results of Get by array of row keys did not match that of list", expectedCitizens, allCitizens);
+            }
+            try (Records<Citizen> citizenIterable = citizenDao.records("IND#101", true, "IND#102", true, 1, 1000)) {
+                Iterator<Citizen> iterator = citizenIterable.iterator();
+                Citizen citizen1 = iterator.next();
+                Citizen citizen2 = iterator.next();
+                assertEquals("Get by iterable didn't match get by individual record", citizenDao.get("IND#101"), citizen1);
+                assertEquals("Get by iterable didn't match get by individual record", citizenDao.get("IND#102"), citizen2);
+            }
+
+            // Range Get vs Bulk Get (Single-version)
+            for (String f : citizenDao.getFields()) {
+                Map<String, Object> fieldValuesBulkGetFull = citizenDao.fetchFieldValues(allRowKeys, f),
+                        fieldValuesRangeGetFull = citizenDao.fetchFieldValues("A", "z", f);
+                assertEquals("[Field " + f + "] Difference between 'fetch by array of row keys' and 'fetch by range of row keys' when fetched for full range", fieldValuesBulkGetFull, fieldValuesRangeGetFull);
+                Map<String, Object> fieldValuesBulkGetPartial = citizenDao.fetchFieldValues(a("IND#104", "IND#105", "IND#106"), f),
+                        fieldValuesRangeGetPartial = citizenDao.fetchFieldValues("IND#104", "IND#107", f);
+                assertEquals("[Field " + f + "] Difference between 'fetch by array of row keys' and 'fetch by range of row keys' when fetched for partial range", fieldValuesBulkGetPartial, fieldValuesRangeGetPartial);
+            }
+
+            // Range Get vs Bulk Get (Multi-version)
+            for (String f : citizenDao.getFields()) {
+                Map<String, NavigableMap<Long, Object>> fieldValuesBulkGetFull = citizenDao.fetchFieldValues(allRowKeys, f, Integer.MAX_VALUE),
+                        fieldValuesRangeGetFull = citizenDao.fetchFieldValues("A", "z", f, Integer.MAX_VALUE);
+                assertEquals("[Field " + f + "] Difference between 'bulk fetch by array of row keys' and 'bulk fetch by range of row keys' when fetched for full range", fieldValuesBulkGetFull, fieldValuesRangeGetFull);
+                Map<String, NavigableMap<Long, Object>> fieldValuesBulkGetPartial = citizenDao.fetchFieldValues(a("IND#101", "IND#102", "IND#103"), f, Integer.MAX_VALUE),
+                        fieldValuesRangeGetPartial = citizenDao.fetchFieldValues("IND#101", "IND#104", f, Integer.MAX_VALUE);
+                assertEquals("[Field " + f + "] Difference between 'bulk fetch by array of row keys' and 'bulk fetch by range of row keys' when fetched for partial range", fieldValuesBulkGetPartial, fieldValuesRangeGetPartial);
+            }
+
+            // Test for a single field (redundant test, but that's ok):
+            Map<String, Object> actualSalaries = citizenDao.fetchFieldValues(allRowKeys, "sal");
+            long actualSumOfSalaries = 0;
+            for (Object s : actualSalaries.values()) {
+                actualSumOfSalaries += s == null ? 0 : (Integer) s;
+            }
+            long expectedSumOfSalaries = 0;
+            for (Citizen c : records) {
+                expectedSumOfSalaries += c.getSal() == null ? 0 : c.getSal();
             }
+            assertEquals(expectedSumOfSalaries, actualSumOfSalaries);
+
+            // Test record deletion:
+            Citizen citizenToBeDeleted = records.get(0);
+            citizenDao.delete(citizenToBeDeleted);
+            assertNull("Record was not deleted: " + citizenToBeDeleted, citizenDao.get(citizenToBeDeleted.composeRowKey()));
+            List<Citizen> citizensToBeDeleted = Arrays.asList(records.get(1), records.get(2));
+            citizenDao.delete(citizensToBeDeleted);
+            assertNull("Record was not deleted when deleted by 'list of objects': " + citizensToBeDeleted.get(0), citizenDao.get(citizensToBeDeleted.get(0).composeRowKey()));
+            assertNull("Record was not deleted when deleted by 'list of objects': " + citizensToBeDeleted.get(1), citizenDao.get(citizensToBeDeleted.get(1).composeRowKey()));
+            final String rowKey3 = records.get(3).composeRowKey(), rowKey4 = records.get(4).composeRowKey();
+            citizenDao.delete(new String[]{rowKey3, rowKey4});
+            assertNull("Record was not deleted when deleted by 'array of row keys': " + rowKey3, citizenDao.get(rowKey3));
+            assertNull("Record was not deleted when deleted by 'array of row keys': " + rowKey4, citizenDao.get(rowKey4));
         }
-        // Test on range scan
-        final String startRowKey = allRowKeys[0], endRowKey = allRowKeys[allRowKeys.length - 1];
-        List<Citizen> citizens = citizenDao.get(startRowKey, endRowKey, Integer.MAX_VALUE);
-        for (int i = 0; i < citizens.size(); i++) {
-            assertEquals(String.format("[range scan] The result of get(%s, %s) returned unexpected entry at position " + i, startRowKey, endRowKey), records.get(i), citizens.get(i));
-        }
-        try (Records<Citizen> citizenIterable = citizenDao.records(startRowKey, endRowKey, Integer.MAX_VALUE)) {
-            Citizen[] expectedCitizens = citizens.toArray(new Citizen[citizens.size()]); // this contains all records except the last one
-            Citizen[] actualCitizens = Iterables.toArray(citizenIterable, Citizen.class);
-            assertArrayEquals("Fetch directly vs fetch via iterable differ in results [start row key, end row key]", expectedCitizens, actualCitizens);
-        }
-        Citizen[] allCitizens = citizenDao.get(Arrays.asList(allRowKeys)).toArray(new Citizen[allRowKeys.length]);
-        List<Citizen> citizensByPrefix = citizenDao.getByPrefix(citizenDao.toBytes("IND#"));
-        assertArrayEquals("get by prefix is returning incorrect result", citizensByPrefix.toArray(new Citizen[citizensByPrefix.size()]), allCitizens);
-        try (Records<Citizen> citizenIterable = citizenDao.recordsByPrefix(citizenDao.toBytes("IND#"))) {
-            Citizen[] expectedCitizens = citizenDao.get(allRowKeys);
-            assertArrayEquals("Fetch directly vs fetch via iterable differ in results [row key prefix]", expectedCitizens, Iterables.toArray(citizenIterable, Citizen.class));
-            assertArrayEquals("Results of Get by array of row keys did not match that of list", expectedCitizens, allCitizens);
-        }
-        try (Records<Citizen> citizenIterable = citizenDao.records("IND#101", true, "IND#102", true, 1, 1000)) {
-            Iterator<Citizen> iterator = citizenIterable.iterator();
-            Citizen citizen1 = iterator.next();
-            Citizen citizen2 = iterator.next();
-            assertEquals("Get by iterable didn't match get by individual record", citizenDao.get("IND#101"), citizen1);
-            assertEquals("Get by iterable didn't match get by individual record", citizenDao.get("IND#102"), citizen2);
-        }
-
-        // Range Get vs Bulk Get (Single-version)
-        for (String f : citizenDao.getFields()) {
-            Map<String, Object> fieldValuesBulkGetFull = citizenDao.fetchFieldValues(allRowKeys, f),
-                    fieldValuesRangeGetFull = citizenDao.fetchFieldValues("A", "z", f);
-            assertEquals("[Field " + f + "] Difference between 'fetch by array of row keys' and 'fetch by range of row keys' when fetched for full range", fieldValuesBulkGetFull, fieldValuesRangeGetFull);
-            Map<String, Object> fieldValuesBulkGetPartial = citizenDao.fetchFieldValues(a("IND#104", "IND#105", "IND#106"), f),
-                    fieldValuesRangeGetPartial = citizenDao.fetchFieldValues("IND#104", "IND#107", f);
-            assertEquals("[Field " + f + "] Difference between 'fetch by array of row keys' and 'fetch by range of row keys' when fetched for partial range", fieldValuesBulkGetPartial, fieldValuesRangeGetPartial);
-        }
-
-        // Range Get vs Bulk Get (Multi-version)
-        for (String f : citizenDao.getFields()) {
-            Map<String, NavigableMap<Long, Object>> fieldValuesBulkGetFull = citizenDao.fetchFieldValues(allRowKeys, f, Integer.MAX_VALUE),
-                    fieldValuesRangeGetFull = citizenDao.fetchFieldValues("A", "z", f, Integer.MAX_VALUE);
-            assertEquals("[Field " + f + "] Difference between 'bulk fetch by array of row keys' and 'bulk fetch by range of row keys' when fetched for full range", fieldValuesBulkGetFull, fieldValuesRangeGetFull);
-            Map<String, NavigableMap<Long, Object>> fieldValuesBulkGetPartial = citizenDao.fetchFieldValues(a("IND#101", "IND#102", "IND#103"), f, Integer.MAX_VALUE),
-                    fieldValuesRangeGetPartial = citizenDao.fetchFieldValues("IND#101", "IND#104", f, Integer.MAX_VALUE);
-            assertEquals("[Field " + f + "] Difference between 'bulk fetch by array of row keys' and 'bulk fetch by range of row keys' when fetched for partial range", fieldValuesBulkGetPartial, fieldValuesRangeGetPartial);
-        }
-
-        // Test for a single field (redundant test, but that's ok):
-        Map<String, Object> actualSalaries = citizenDao.fetchFieldValues(allRowKeys, "sal");
-        long actualSumOfSalaries = 0;
-        for (Object s : actualSalaries.values()) {
-            actualSumOfSalaries += s == null ? 0 : (Integer) s;
-        }
-        long expectedSumOfSalaries = 0;
-        for (Citizen c : records) {
-            expectedSumOfSalaries += c.getSal() == null ? 0 : c.getSal();
-        }
-        assertEquals(expectedSumOfSalaries, actualSumOfSalaries);
-
-        // Test record deletion:
-        Citizen citizenToBeDeleted = records.get(0);
-        citizenDao.delete(citizenToBeDeleted);
-        assertNull("Record was not deleted: " + citizenToBeDeleted, citizenDao.get(citizenToBeDeleted.composeRowKey()));
-        List<Citizen> citizensToBeDeleted = Arrays.asList(records.get(1), records.get(2));
-        citizenDao.delete(citizensToBeDeleted);
-        assertNull("Record was not deleted when deleted by 'list of objects': " + citizensToBeDeleted.get(0), citizenDao.get(citizensToBeDeleted.get(0).composeRowKey()));
-        assertNull("Record was not deleted when deleted by 'list of objects': " + citizensToBeDeleted.get(1), citizenDao.get(citizensToBeDeleted.get(1).composeRowKey()));
-        final String rowKey3 = records.get(3).composeRowKey(), rowKey4 = records.get(4).composeRowKey();
-        citizenDao.delete(new String[]{rowKey3, rowKey4});
-        assertNull("Record was not deleted when deleted by 'array of row keys': " + rowKey3, citizenDao.get(rowKey3));
-        assertNull("Record was not deleted when deleted by 'array of row keys': " + rowKey4, citizenDao.get(rowKey4));
     }
 
     @Test
     public void testAppend() throws IOException {
-        CitizenDAO citizenDao = new CitizenDAO(connection);
-        Citizen citizenBeforeAppend = new Citizen("IND", 120, "Abdul", null, null, null, null, null, null, null, null, null, null, new Dependents(null, Arrays.asList(141, 142)), null);
-        assertNull(citizenBeforeAppend.getSal());
-        String rowKey = citizenDao.persist(citizenBeforeAppend);
-        Integer expectedSalary = 30000;
-        citizenDao.append(rowKey, "sal", expectedSalary);
-        try {
-            citizenDao.append(rowKey, "blahblah", 5);
-            fail("An attempt was made to append value a non-existent field. This should have thrown an exception - It didn't.");
-        } catch (Exception e) {
-            System.out.printf("[egde case] Got error as expected, for non-existent column: %s%n", e.getMessage());
-        }
-        Citizen citizenAfter1Append = citizenDao.get(rowKey);
-        assertEquals("Append operation didn't work as expected on field 'sal'", expectedSalary, citizenAfter1Append.getSal());
-        List<Contact> expectedContacts = Arrays.asList(new Contact("contact1", 23411));
-        citizenDao.append(rowKey, "emergencyContacts1", expectedContacts);
-        Citizen citizenAfter2Append = citizenDao.get(rowKey);
-        assertEquals("Append operation didn't work as expected on field 'emergencyContacts1'", expectedContacts, citizenAfter2Append.getEmergencyContacts1());
-        try {
-            citizenDao.append(rowKey, m(e("f3", 123L), e("f4", "blah blah blah")));
-            fail("An attempt was made to append a BigDecimal field with a String value - This should have thrown an exception - It didn't.");
-        } catch (Exception e) {
-            System.out.printf("[edge case] Got error as expected, for type mismatch in columns: %s%n", e.getMessage());
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            Citizen citizenBeforeAppend = new Citizen("IND", 120, "Abdul", null, null, null, null, null, null, null, null, null, null, new Dependents(null, Arrays.asList(141, 142)), null);
+            assertNull(citizenBeforeAppend.getSal());
+            String rowKey = citizenDao.persist(citizenBeforeAppend);
+            Integer expectedSalary = 30000;
+            citizenDao.append(rowKey, "sal", expectedSalary);
+            try {
+                citizenDao.append(rowKey, "blahblah", 5);
+                fail("An attempt was made to append value a non-existent field. This should have thrown an exception - It didn't.");
+            } catch (Exception e) {
+                System.out.printf("[egde case] Got error as expected, for non-existent column: %s%n", e.getMessage());
+            }
+            Citizen citizenAfter1Append = citizenDao.get(rowKey);
+            assertEquals("Append operation didn't work as expected on field 'sal'", expectedSalary, citizenAfter1Append.getSal());
+            List<Contact> expectedContacts = Arrays.asList(new Contact("contact1", 23411));
+            citizenDao.append(rowKey, "emergencyContacts1", expectedContacts);
+            Citizen citizenAfter2Append = citizenDao.get(rowKey);
+            assertEquals("Append operation didn't work as expected on field 'emergencyContacts1'", expectedContacts, citizenAfter2Append.getEmergencyContacts1());
+            try {
+                citizenDao.append(rowKey, m(e("f3", 123L), e("f4", "blah blah blah")));
+                fail("An attempt was made to append a BigDecimal field with a String value - This should have thrown an exception - It didn't.");
+            } catch (Exception e) {
+                System.out.printf("[edge case] Got error as expected, for type mismatch in columns: %s%n", e.getMessage());
+            }
+            Citizen citizenAfter3Append = citizenDao.get(rowKey);
+            assertNull("Append operation broke 'all or none' semantics", citizenAfter3Append.getF3());
+            citizenDao.append(rowKey, m(e("f3", 123L)));
+            Citizen citizenAfter4Append = citizenDao.get(rowKey);
+            assertEquals("Append operation failed for f3", 123L, (long) citizenAfter4Append.getF3());
+            citizenDao.append(rowKey, "name", " Kalam");
+            assertEquals("Append operation failed for name", "Abdul Kalam", citizenDao.fetchFieldValue(rowKey, "name"));
+        }
+    }
+
+    @Test
+    public void testEntityCache() throws IOException {
+        try (CitizenDAO cachedCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setEntityCache(new EntityCacheConfig().maximumSize(100)))) {
+            try (CitizenDAO plainCitizenDao = new CitizenDAO(connection)) {
+                assertNull("Cache stats available when cache isn't enabled", plainCitizenDao.getCacheStats());
+            }
+            Citizen citizen = new Citizen("IND", 130, "Cached", null, null, null, null, null, null, null, null, null, null, new Dependents(null, Arrays.asList(151, 152)), null);
+            String rowKey = cachedCitizenDao.persist(citizen);
+            Citizen firstRead = cachedCitizenDao.get(rowKey);
+            Citizen secondRead = cachedCitizenDao.get(rowKey);
+            assertEquals("Cached read returned unexpected result", firstRead, secondRead);
+            assertNotSame("Cached reads returned the same instance (callers must get their own copies)", firstRead, secondRead);
+            CacheStats stats = cachedCitizenDao.getCacheStats();
+            assertEquals("Unexpected number of cache misses", 1, stats.missCount());
+            assertEquals("Unexpected number of cache hits", 1, stats.hitCount());
+            for (int i = 131; i < 140; i++) {
+                cachedCitizenDao.delete("IND#" + i);
+            }
+            assertEquals("Cached read returned unexpected result", firstRead, cachedCitizenDao.get(rowKey));
+            stats = cachedCitizenDao.getCacheStats();
+            assertEquals("Writes to other rows evicted a cached row", 1, stats.missCount());
+            assertEquals("Unexpected number of cache hits", 2, stats.hitCount());
+            cachedCitizenDao.append(rowKey, "name", " Updated");
+            assertEquals("Cache wasn't invalidated on append", "Cached Updated", cachedCitizenDao.get(rowKey).getName());
+            cachedCitizenDao.persist(new Citizen("IND", 130, "Cached Updated", null, 40000, null, null, null, null, null, null, null, null, null, null));
+            assertEquals("Cache wasn't invalidated on persist", (Integer) 40000, cachedCitizenDao.get(Collections.singletonList(rowKey)).get(0).getSal());
+            cachedCitizenDao.delete(rowKey);
+            assertNull("Cache wasn't invalidated on delete", cachedCitizenDao.get(rowKey));
+            assertNull("Absent row wasn't cached", cachedCitizenDao.get(rowKey));
+            assertEquals("Unexpected number of cache misses", 4, cachedCitizenDao.getCacheStats().missCount());
+        }
+    }
+
+    @Test
+    public void testAbsentKeyFilter() throws Exception {
+        try (CitizenDAO plainCitizenDao = new CitizenDAO(connection);
+             CitizenDAO filteredCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setAbsentKeyFilter(new AbsentKeyFilterConfig()
+                .negativeCacheSize(100)
+                .negativeCacheTtl(500, TimeUnit.MILLISECONDS)
+                .bloomFilter(1000, 0.001)
+                .bloomFilterMaxAge(500, TimeUnit.MILLISECONDS)))) {
+            String existingRowKey = plainCitizenDao.persist(new Citizen("IND", 140, "Present", null, null, null, null, null, null, null, null, null, null, null, null));
+            filteredCitizenDao.seedAbsentKeyFilter();
+            assertNotNull("Row that existed while seeding was filtered out", filteredCitizenDao.get(existingRowKey));
+            Citizen writtenElsewhere = new Citizen("IND", 141, "Written elsewhere", null, null, null, null, null, null, null, null, null, null, null, null);
+            String writtenElsewhereRowKey = plainCitizenDao.persist(writtenElsewhere);
+            Thread.sleep(600);
+            assertNotNull("Row written by another DAO was still filtered out after Bloom filter's maximum age", filteredCitizenDao.get(writtenElsewhereRowKey));
+            filteredCitizenDao.seedAbsentKeyFilter();
+            assertNotNull("Reseeding didn't pick up new row", filteredCitizenDao.get(writtenElsewhereRowKey));
+            Citizen newCitizen = new Citizen("IND", 142, "Written here", null, null, null, null, null, null, null, null, null, null, null, null);
+            String newRowKey = newCitizen.composeRowKey();
+            assertNull(filteredCitizenDao.get(newRowKey));
+            filteredCitizenDao.persist(newCitizen);
+            assertEquals("Row written through same DAO was filtered out", newCitizen.getName(), filteredCitizenDao.get(newRowKey).getName());
+            List<Citizen> bulk = filteredCitizenDao.get(Arrays.asList(newRowKey, "IND#999", existingRowKey));
+            assertEquals("Bulk get with absent-key filter returned unexpected result", Arrays.asList(newRowKey, null, existingRowKey),
+                    Arrays.asList(bulk.get(0).composeRowKey(), bulk.get(1), bulk.get(2).composeRowKey()));
+            filteredCitizenDao.delete(newRowKey);
+            assertNull("Row deleted through DAO was returned", filteredCitizenDao.get(newRowKey));
+            filteredCitizenDao.persist(newCitizen);
+            assertNotNull("Row recreated through same DAO was filtered out", filteredCitizenDao.get(newRowKey));
+            filteredCitizenDao.delete(newRowKey);
+            plainCitizenDao.persist(newCitizen);
+            Thread.sleep(600);
+            assertNotNull("Row recreated by another DAO was still filtered out after negative cache's time-to-live", filteredCitizenDao.get(newRowKey));
+            plainCitizenDao.delete(Arrays.asList(newCitizen, writtenElsewhere));
+            plainCitizenDao.delete(existingRowKey);
+        }
+    }
+
+    @Test
+    public void testReadOptions() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                citizens.add(new Citizen("RPL", 200 + i, "Replicated " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            final String rowKey = citizens.get(0).composeRowKey();
+            ReadOptions timeline = new ReadOptions().consistency(Consistency.TIMELINE);
+            ReadResult<Citizen> readResult = citizenDao.get(rowKey, timeline);
+            assertEquals("Replicated 0", readResult.getRecord().getName());
+            assertFalse("Read served by primary was marked stale", readResult.isStale());
+            assertNull(citizenDao.get("RPL#missing", timeline).getRecord());
+            ReadResult<Citizen> hedged = citizenDao.get(rowKey, new ReadOptions().hedgeAfter(1, TimeUnit.MILLISECONDS));
+            assertEquals("Hedged read (on a table without replicas) should fall back to primary", "Replicated 0", hedged.getRecord().getName());
+            List<ReadResult<Citizen>> bulk = citizenDao.get(Arrays.asList(citizens.get(3).composeRowKey(), "RPL#missing", citizens.get(1).composeRowKey()), timeline);
+            assertEquals(Arrays.asList("Replicated 3", null, "Replicated 1"), bulk.stream().map(r -> r.getRecord() == null ? null : r.getRecord().getName()).collect(Collectors.toList()));
+            List<ReadResult<Citizen>> scanned = citizenDao.get(new Scan().setRowPrefixFilter(Bytes.toBytes("RPL#")), new ReadOptions().replicaId(0));
+            assertEquals(5, scanned.size());
+            for (ReadResult<Citizen> scannedResult : scanned) {
+                assertFalse(scannedResult.isStale());
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testExists() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection, new HBDAOOptions().setMultiGetOptions(MultiGetOptions.DEFAULT.withChunkSize(3).withMaxInFlightChunks(2)));
+             CitizenDAO filteredCitizenDao = new CitizenDAO(connection, new HBDAOOptions()
+                .setMultiGetOptions(MultiGetOptions.DEFAULT.withChunkSize(3).withMaxInFlightChunks(2))
+                .setAbsentKeyFilter(new AbsentKeyFilterConfig().negativeCacheSize(100)))) {
+            List<Citizen> citizens = new ArrayList<>();
+            List<String> rowKeys = new ArrayList<>();
+            boolean[] expected = new boolean[10];
+            for (int i = 0; i < 10; i++) {
+                Citizen citizen = new Citizen("EXT", 300 + i, "Exists " + i, null, null, null, null, null, null, null, null, null, null, null, null);
+                rowKeys.add(citizen.composeRowKey());
+                if (i % 3 != 1) {
+                    citizens.add(citizen);
+                    expected[i] = true;
+                }
+            }
+            citizenDao.persist(citizens);
+            assertTrue(citizenDao.exists(rowKeys.get(0)));
+            assertFalse(citizenDao.exists(rowKeys.get(1)));
+            assertArrayEquals("Bulk existence check returned unexpected result", expected, citizenDao.exists(rowKeys));
+            assertFalse(filteredCitizenDao.exists(rowKeys.get(4)));
+            assertArrayEquals("Bulk existence check with absent-key filter returned unexpected result", expected, filteredCitizenDao.exists(rowKeys));
+            assertArrayEquals(new boolean[0], citizenDao.exists(Collections.<String>emptyList()));
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testReadCoalescing() throws Exception {
+        try (CitizenDAO coalescingCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setReadCoalescing(true))) {
+            final String rowKey = coalescingCitizenDao.persist(new Citizen("IND", 150, "Hot", null, null, null, null, null, null, null, null, null, null, null, null));
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Citizen>> futures = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    futures.add(executor.submit(() -> coalescingCitizenDao.get(rowKey)));
+                }
+                Set<Citizen> distinctInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Future<Citizen> future : futures) {
+                    Citizen citizen = future.get();
+                    assertEquals("Coalesced read returned unexpected result", "Hot", citizen.getName());
+                    distinctInstances.add(citizen);
+                }
+                assertEquals("Coalesced reads shared entity instances", futures.size(), distinctInstances.size());
+            } finally {
+                executor.shutdown();
+            }
+            CompletableFuture<Citizen> first = coalescingCitizenDao.getAsync(rowKey), second = coalescingCitizenDao.getAsync(rowKey);
+            assertEquals("Async reads returned unexpected result", first.get(), second.get());
+            assertNotSame("Async reads shared entity instance", first.get(), second.get());
+            assertNull("Async read of absent row returned unexpected result", coalescingCitizenDao.getAsync("IND#998").get());
+            coalescingCitizenDao.delete(rowKey);
+            assertNull("Read after delete returned stale row", coalescingCitizenDao.get(rowKey));
+        }
+    }
+
+    @Test
+    public void testMicroBatching() throws Exception {
+        try (CitizenDAO batchingCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setMicroBatching(new MicroBatchConfig()
+                .window(20, TimeUnit.MILLISECONDS)
+                .maxBatchSize(8)))) {
+            final int numCitizens = 16;
+            ExecutorService executor = Executors.newFixedThreadPool(numCitizens);
+            try {
+                List<Future<String>> persisted = new ArrayList<>();
+                for (int i = 0; i < numCitizens; i++) {
+                    final Citizen citizen = new Citizen("IND", 160 + i, "Batched " + i, null, null, null, null, null, null, null, null, null, null, null, null);
+                    persisted.add(executor.submit(() -> batchingCitizenDao.persist(citizen)));
+                }
+                List<Future<Citizen>> fetched = new ArrayList<>();
+                for (Future<String> future : persisted) {
+                    final String rowKey = future.get();
+                    fetched.add(executor.submit(() -> batchingCitizenDao.get(rowKey)));
+                }
+                for (int i = 0; i < numCitizens; i++) {
+                    assertEquals("Micro-batched get returned unexpected result", "Batched " + i, fetched.get(i).get().getName());
+                }
+                List<Future<?>> deleted = new ArrayList<>();
+                for (Future<String> future : persisted) {
+                    final String rowKey = future.get();
+                    deleted.add(executor.submit(() -> {
+                        batchingCitizenDao.delete(rowKey);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : deleted) {
+                    future.get();
+                }
+                assertNull("Micro-batched delete didn't apply", batchingCitizenDao.get(persisted.get(0).get()));
+            } finally {
+                executor.shutdown();
+            }
+            MicroBatchStats stats = batchingCitizenDao.getMicroBatchStats();
+            assertEquals("Unexpected number of micro-batched operations", 3 * numCitizens + 1, stats.getOperationCount());
+            assertTrue("Operations weren't batched: " + stats, stats.getBatchCount() < stats.getOperationCount());
+            assertTrue("Batch size limit was breached: " + stats, stats.getMaxBatchSize() <= 8);
+        }
+    }
+
+    @Test
+    public void testBulkPersist() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            final int numCitizens = 250;
+            Iterator<Citizen> citizens = IntStream.range(0, numCitizens)
+                    .mapToObj(i -> new Citizen("BLK", 1000 + i, "Bulk " + i, (short) (i % 100), null, null, null, null, null, null, null, null, null, null, null))
+                    .iterator(); // generated lazily, as they're consumed
+            final List<Integer> chunkSizes = new ArrayList<>();
+            final long[] lastRecordCount = {0};
+            BulkPersistStats stats = citizenDao.bulkPersist(citizens, new BulkPersistOptions()
+                            .chunkSize(20)
+                            .parallelism(3)
+                            .maxInFlightBytes(4096), // smaller than a chunk: forces partially filled buffers to be written
+                    (regionName, recordCount, progress) -> {
+                        chunkSizes.add(recordCount);
+                        assertTrue("Progress went backwards", progress.getRecordCount() > lastRecordCount[0]);
+                        lastRecordCount[0] = progress.getRecordCount();
+                        assertTrue("Progress doesn't include records of region " + regionName, progress.getRecordsPerRegion().get(regionName) >= recordCount);
+                    });
+            assertEquals("Bulk persist wrote unexpected number of records", numCitizens, stats.getRecordCount());
+            assertEquals("Listener wasn't told about every chunk", numCitizens, chunkSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue("A chunk exceeded chunk size: " + chunkSizes, chunkSizes.stream().allMatch(size -> size <= 20));
+            assertEquals("Records per region don't add up", numCitizens, stats.getRecordsPerRegion().values().stream().mapToLong(Long::longValue).sum());
+            assertTrue("Throughput wasn't reported: " + stats, stats.getRecordsPerSecond() > 0 && stats.getByteCount() > 0);
+            List<Citizen> persisted = citizenDao.get("BLK#", "BLK#~");
+            assertEquals("Bulk persist didn't apply", numCitizens, persisted.size());
+            for (Citizen citizen : persisted) {
+                assertEquals("Bulk persisted record differs", "Bulk " + (Integer.parseInt(citizen.composeRowKey().substring(4)) - 1000), citizen.getName());
+            }
+            citizenDao.delete(persisted);
+        }
+        try (StudentDAO studentDao = new StudentDAO(connection)) {
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                students.add(new Student(100 + 6 * i, "Student " + i));
+            }
+            final Set<String> regionsWritten = new HashSet<>();
+            BulkPersistStats stats = studentDao.bulkPersist(students.iterator(), new BulkPersistOptions()
+                            .chunkSize(10)
+                            .parallelism(1), // more regions than write slots: full buffers wait their turn
+                    (regionName, recordCount, progress) -> regionsWritten.add(regionName));
+            assertEquals("Bulk persist into pre-split table wrote unexpected number of records", students.size(), stats.getRecordCount());
+            assertEquals("Records weren't grouped by region (of a pre-split table)", Arrays.asList(34L, 50L, 66L), new ArrayList<>(stats.getRecordsPerRegion().values()));
+            assertEquals("Listener wasn't told about every region written", stats.getRecordsPerRegion().keySet(), regionsWritten);
+            assertEquals("Bulk persist into pre-split table didn't apply", students, studentDao.get(new Scan()));
+            studentDao.delete(students);
+        }
+    }
+
+    @Test
+    public void testHFileBulkLoad() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            final int numCitizens = 50;
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < numCitizens; i++) {
+                NavigableMap<Long, Integer> phoneNumber = new TreeMap<>();
+                phoneNumber.put(100L, 9000 + i);
+                phoneNumber.put(200L, 9100 + i);
+                citizens.add(new Citizen("HFL", i, "HFile " + i, (short) (i % 100), 1000 * i, null, null, null, null, null, null, phoneNumber, null, null, null));
+            }
+            citizens.add(4, new Citizen("HFL", 3, "HFile 3 (corrected)", (short) 3, 3000, null, null, null, null, null, null, null, null, null, null)); // duplicate within a batch
+            citizens.add(new Citizen("HFL", 7, "HFile 7 (corrected)", (short) 7, 7000, null, null, null, null, null, null, null, null, null, null)); // duplicate in a later batch
+            java.nio.file.Path tempDir = Files.createTempDirectory("hbase-orm-hfiles");
+            Path stagingDir = new Path(new Path(tempDir.toUri()), "staging");
+            HFileBulkLoader<String, Citizen> loader = new HFileBulkLoader<>(connection, Citizen.class).maxCellsInMemory(40); // forces several batches
+            try {
+                loader.writeHFiles(citizens.iterator(), new Path(tempDir.toUri()));
+                fail("Writing HFiles to an existing directory should have failed");
+            } catch (IOException ignored) {
+            }
+            HFileBulkLoadStats stats = loader.bulkLoad(citizens.iterator(), stagingDir);
+            assertEquals("Bulk load read unexpected number of records", numCitizens + 2, stats.getRecordCount());
+            assertTrue("Batches weren't written to HFiles of their own: " + stats, stats.getHFileCount() > 2);
+            assertFalse("Staging directory wasn't deleted", Files.exists(tempDir.resolve("staging")));
+            List<Citizen> loaded = citizenDao.get("HFL#", "HFL#~", Integer.MAX_VALUE);
+            assertEquals("Bulk load didn't load all rows", numCitizens, loaded.size());
+            for (Citizen citizen : loaded) {
+                final int uid = Integer.parseInt(citizen.composeRowKey().substring(4));
+                assertEquals("Later record with same row key didn't win", uid == 3 || uid == 7 ? "HFile " + uid + " (corrected)" : "HFile " + uid, citizen.getName());
+                assertEquals("Versions of multi-version field weren't loaded as is", Arrays.asList(9000 + uid, 9100 + uid), new ArrayList<>(citizen.getPhoneNumber().values()));
+                assertEquals("Versions of multi-version field weren't loaded as is", Arrays.asList(100L, 200L), new ArrayList<>(citizen.getPhoneNumber().keySet()));
+            }
+            citizenDao.delete(loaded);
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                students.add(new Student(100 + 6 * i, "Student " + i));
+            }
+            try (StudentDAO studentDao = new StudentDAO(connection);
+                 RegionLocator regionLocator = connection.getRegionLocator(TableName.valueOf(studentDao.getTableName()))) {
+                HFileBulkLoadStats studentStats = new HFileBulkLoader<>(connection, Student.class).bulkLoad(students.iterator(), stagingDir);
+                assertEquals("Number of HFiles doesn't match number of regions (of a pre-split table): " + studentStats, regionLocator.getAllRegionLocations().size(), studentStats.getHFileCount());
+                assertEquals("Bulk load into pre-split table didn't load all rows (in order)", students, studentDao.get(new Scan()));
+                studentDao.delete(students);
+            }
+            Files.delete(tempDir);
+        }
+    }
+
+    @Test
+    public void testDirtyFieldTracking() throws Exception {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection);
+             CitizenDAO trackingCitizenDao = new CitizenDAO(connection, new HBDAOOptions()
+                .setDirtyFieldTracking(true)
+                .setDeleteNulledFields(true))) {
+            final String rowKey = citizenDao.persist(new Citizen("IND", 250, "Tracked", (short) 30, 1000, true, 1.0f, 2.0, 3L, null, 560001, null, null, null, null));
+            Thread.sleep(5); // so that rewritten cells get newer timestamps
+            Citizen citizen = trackingCitizenDao.get(rowKey);
+            final Map<String, Long> timestampsBefore = cellTimestamps(citizenDao, rowKey);
+            trackingCitizenDao.persist(citizen);
+            assertEquals("Persisting an unmodified record wrote cells", timestampsBefore, cellTimestamps(citizenDao, rowKey));
+            setField(citizen, "name", "Tracked (renamed)");
+            setField(citizen, "sal", null);
+            trackingCitizenDao.persist(citizen);
+            final Map<String, Long> timestampsAfter = cellTimestamps(citizenDao, rowKey);
+            assertTrue("Modified field wasn't rewritten", timestampsAfter.get("name") > timestampsBefore.get("name"));
+            assertFalse("Field set to null wasn't deleted", timestampsAfter.containsKey("sal"));
+            timestampsBefore.remove("name");
+            timestampsBefore.remove("sal");
+            timestampsAfter.remove("name");
+            assertEquals("Unmodified fields were rewritten", timestampsBefore, timestampsAfter);
+            Citizen persisted = citizenDao.get(rowKey);
+            assertEquals("Tracked (renamed)", persisted.getName());
+            assertNull("Field set to null is still there", persisted.getSal());
+            assertEquals("Unmodified field changed", Integer.valueOf(560001), persisted.getPincode());
+            Thread.sleep(5);
+            setField(persisted, "name", "Untracked");
+            trackingCitizenDao.persist(persisted); // not read through tracking DAO, hence written entirely
+            assertTrue("Record that wasn't read through tracking DAO wasn't written entirely", cellTimestamps(citizenDao, rowKey).get("pincode") > timestampsAfter.get("pincode"));
+            Thread.sleep(5);
+            List<Citizen> scanned = trackingCitizenDao.get(new Scan().withStartRow(Bytes.toBytes(rowKey)).withStopRow(Bytes.toBytes(rowKey), true).setBatch(1));
+            assertEquals("Batched scan didn't assemble the row", 1, scanned.size());
+            final Map<String, Long> timestampsBeforeScanWrite = cellTimestamps(citizenDao, rowKey);
+            setField(scanned.get(0), "pincode", 560002);
+            trackingCitizenDao.persist(scanned.get(0));
+            final Map<String, Long> timestampsAfterScanWrite = cellTimestamps(citizenDao, rowKey);
+            assertTrue("Field modified after a batched scan wasn't rewritten", timestampsAfterScanWrite.get("pincode") > timestampsBeforeScanWrite.get("pincode"));
+            timestampsBeforeScanWrite.remove("pincode");
+            timestampsAfterScanWrite.remove("pincode");
+            assertEquals("Record read through a batched scan wasn't tracked (unmodified fields were rewritten)", timestampsBeforeScanWrite, timestampsAfterScanWrite);
+            citizenDao.delete(rowKey);
+        }
+    }
+
+    private static Map<String, Long> cellTimestamps(CitizenDAO citizenDao, String rowKey) throws IOException {
+        Map<String, Long> timestamps = new HashMap<>();
+        for (String field : citizenDao.getFields()) {
+            NavigableMap<Long, Object> versions = citizenDao.fetchFieldValue(rowKey, field, 1);
+            if (versions != null && !versions.isEmpty()) {
+                timestamps.put(field, versions.lastKey());
+            }
+        }
+        return timestamps;
+    }
+
+    private static void setField(Object record, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = record.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(record, value);
+    }
+
+    @Test
+    public void testCounterAccumulation() throws Exception {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection);
+             CitizenDAO accumulatingCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setCounterAccumulation(new CounterAccumulatorConfig()
+                .flushInterval(0, TimeUnit.MILLISECONDS)
+                .durability(Durability.ASYNC_WAL)))) {
+            final int numThreads = 8, incrementsPerThread = 1000;
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < numThreads; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < incrementsPerThread; i++) {
+                            accumulatingCitizenDao.accumulate("IND#261", "f3", 1);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertNull("Accumulated increments reached HBase before flush", citizenDao.fetchFieldValue("IND#261", "f3"));
+            assertEquals("Read-your-writes read didn't include pending increments", numThreads * incrementsPerThread, accumulatingCitizenDao.fetchCounterValue("IND#261", "f3"));
+            accumulatingCitizenDao.flushCounters();
+            assertEquals("Flushed increments didn't apply", (long) numThreads * incrementsPerThread, citizenDao.fetchFieldValue("IND#261", "f3"));
+            assertEquals("Read-your-writes read after flush counted increments twice", numThreads * incrementsPerThread, accumulatingCitizenDao.fetchCounterValue("IND#261", "f3"));
+            accumulatingCitizenDao.accumulate("IND#261", "f3", 5);
+            accumulatingCitizenDao.accumulate("IND#262", "f3", -3);
+            assertEquals(numThreads * incrementsPerThread + 5, accumulatingCitizenDao.fetchCounterValue("IND#261", "f3"));
+            accumulatingCitizenDao.close();
+            assertEquals("Accumulated increments weren't flushed on close", (long) numThreads * incrementsPerThread + 5, citizenDao.fetchFieldValue("IND#261", "f3"));
+            assertEquals("Accumulated increments weren't flushed on close", -3L, citizenDao.fetchFieldValue("IND#262", "f3"));
+            try {
+                accumulatingCitizenDao.accumulate("IND#261", "f3", 1);
+                fail("A closed DAO accepted an increment");
+            } catch (IllegalStateException ignored) {
+                //nothing
+            }
+            try (CitizenDAO thresholdCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setCounterAccumulation(new CounterAccumulatorConfig()
+                    .flushInterval(0, TimeUnit.MILLISECONDS)
+                    .maxPendingCounters(2)))) {
+                thresholdCitizenDao.accumulate("IND#263", "f3", 1);
+                thresholdCitizenDao.accumulate("IND#264", "f3", 1);
+                for (int i = 0; i < 100 && citizenDao.fetchFieldValue("IND#264", "f3") == null; i++) {
+                    Thread.sleep(50);
+                }
+                assertEquals("Reaching maximum number of pending counters didn't trigger a flush", 1L, citizenDao.fetchFieldValue("IND#264", "f3"));
+                try {
+                    thresholdCitizenDao.accumulate("IND#263", "pincode", 1);
+                    fail("Accumulation of a non-Long field was accepted");
+                } catch (IllegalArgumentException ignored) {
+                    //nothing
+                }
+                citizenDao.delete(new String[]{"IND#261", "IND#262", "IND#263", "IND#264"});
+            }
+        }
+    }
+
+    @Test
+    public void testWriteBehind() throws Exception {
+        try (CitizenDAO writeBehindCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setWriteBehind(new WriteBehindConfig()
+                .maxBufferedRecords(5)
+                .flushInterval(0, TimeUnit.MILLISECONDS)))) {
+            List<Citizen> citizens = new ArrayList<>();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                citizens.add(new Citizen("IND", 230 + i, "Buffered " + i, null, null, null, null, null, null, null, null, null, null, null, null));
+                futures.add(writeBehindCitizenDao.persistAsync(citizens.get(i)));
+            }
+            for (CompletableFuture<String> future : futures) {
+                assertFalse("A buffered write was acknowledged before buffer was flushed", future.isDone());
+            }
+            writeBehindCitizenDao.flush();
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Flushed write was not acknowledged with it's row key", citizens.get(i).composeRowKey(), futures.get(i).getNow(null));
+            }
+            assertEquals("Flushed writes didn't apply", citizens, writeBehindCitizenDao.get(Arrays.asList("IND#230", "IND#231", "IND#232")));
+            List<Citizen> moreCitizens = new ArrayList<>();
+            for (int i = 3; i < 8; i++) {
+                moreCitizens.add(new Citizen("IND", 230 + i, "Buffered " + i, null, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            CompletableFuture<List<String>> bulkFuture = writeBehindCitizenDao.persistAsync(moreCitizens);
+            assertEquals("Buffer wasn't flushed on reaching maximum number of buffered records", moreCitizens, writeBehindCitizenDao.get(bulkFuture.get(10, TimeUnit.SECONDS)));
+            CompletableFuture<String> rewriteFuture = null;
+            for (int i = 0; i < 50; i++) { // fills up the buffer 10 times over, so that flushes of the same row overlap
+                rewriteFuture = writeBehindCitizenDao.persistAsync(new Citizen("IND", 230, "Rewritten " + i, null, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            writeBehindCitizenDao.flush();
+            assertTrue("Flush returned before a write submitted before it was acknowledged", rewriteFuture.isDone());
+            assertEquals("Writes to a row were reordered across overlapping flushes", "Rewritten 49", writeBehindCitizenDao.get("IND#230").getName());
+            CompletableFuture<String> lastFuture = writeBehindCitizenDao.persistAsync(new Citizen("IND", 238, "Buffered 8", null, null, null, null, null, null, null, null, null, null, null, null));
+            writeBehindCitizenDao.close();
+            assertEquals("Buffered write wasn't flushed on close", "IND#238", lastFuture.getNow(null));
+            try {
+                writeBehindCitizenDao.persistAsync(citizens.get(0)).get();
+                fail("A closed DAO accepted a write");
+            } catch (ExecutionException e) {
+                System.out.printf("[edge case] Got error as expected, for write-behind on a closed DAO: %s%n", e.getCause().getMessage());
+            }
+            try (CitizenDAO periodicCitizenDao = new CitizenDAO(connection, new HBDAOOptions().setWriteBehind(new WriteBehindConfig()
+                    .flushInterval(50, TimeUnit.MILLISECONDS)))) {
+                assertEquals("Periodic flush didn't acknowledge buffered write", "IND#239",
+                        periodicCitizenDao.persistAsync(new Citizen("IND", 239, "Buffered 9", null, null, null, null, null, null, null, null, null, null, null, null)).get(10, TimeUnit.SECONDS));
+                assertEquals("Write acknowledged by periodic flush didn't apply", "Buffered 9", periodicCitizenDao.get("IND#239").getName());
+                try (CitizenDAO plainCitizenDao = new CitizenDAO(connection)) {
+                    plainCitizenDao.persistAsync(citizens.get(0));
+                    fail("A DAO without write-behind accepted a write-behind");
+                } catch (IllegalStateException ignored) {
+                    //nothing
+                }
+                for (int i = 0; i < 10; i++) {
+                    periodicCitizenDao.delete("IND#" + (230 + i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWriteBehindCoalescing() throws Exception {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection, new HBDAOOptions().setWriteBehind(new WriteBehindConfig()
+                .flushInterval(0, TimeUnit.MILLISECONDS)))) {
+            citizenDao.persist(new Citizen("COA", 1, "Existing", (short) 40, null, null, null, null, 100L, null, null, null, null, null, null));
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(citizenDao.persistAsync(new Citizen("COA", 2, "Version " + i, i == 0 ? (short) 20 : null, null, null, null, null, 50L, null, null, null, null, null, null)));
+            }
+            futures.add(citizenDao.incrementAsync("COA#2", "f3", 5)); // applies to buffered value
+            futures.add(citizenDao.incrementAsync("COA#1", "f3", 1));
+            futures.add(citizenDao.incrementAsync("COA#1", "f3", 2)); // summed with the previous one
+            futures.add(citizenDao.persistAsync(new Citizen("COA", 3, "Doomed", null, null, null, null, null, null, null, null, null, null, null, null)));
+            futures.add(citizenDao.deleteAsync("COA#3")); // cancels the buffered put
+            futures.add(citizenDao.deleteAsync("COA#1"));
+            futures.add(citizenDao.persistAsync(new Citizen("COA", 1, "Recreated", null, null, null, null, null, null, null, null, null, null, null, null)));
+            futures.add(citizenDao.incrementAsync("COA#1", "f3", 7)); // applies on top of the delete
+            try {
+                citizenDao.incrementAsync("COA#1", "pincode", 1);
+                fail("Write-behind increment of a non-Long field was accepted");
+            } catch (IllegalArgumentException ignored) {
+            }
+            for (CompletableFuture<String> future : futures) {
+                assertFalse("A buffered write was acknowledged before buffer was flushed", future.isDone());
+            }
+            citizenDao.flush();
+            for (CompletableFuture<String> future : futures) {
+                assertTrue("A coalesced write wasn't acknowledged", future.isDone() && !future.isCompletedExceptionally());
+            }
+            Citizen second = citizenDao.get("COA#2");
+            assertEquals("Later field value didn't replace earlier one", "Version 2", second.getName());
+            assertEquals("Field written only by an earlier put was lost", Short.valueOf((short) 20), second.getAge());
+            assertEquals("Increment wasn't applied to buffered value", Long.valueOf(55), second.getF3());
+            assertNull("Delete didn't cancel buffered put", citizenDao.get("COA#3"));
+            Citizen first = citizenDao.get("COA#1");
+            assertEquals("Put after delete wasn't applied", "Recreated", first.getName());
+            assertNull("Delete wasn't applied", first.getAge());
+            assertEquals("Increments before delete weren't cancelled (or increment after it was lost)", Long.valueOf(7), first.getF3());
+            EnvironmentEdgeManager.injectEdge(() -> System.currentTimeMillis() + 10_000); // region server's clock runs ahead of this client's
+            try {
+                citizenDao.persist(new Citizen("COA", 4, "Existing", (short) 50, null, null, null, null, null, null, null, null, null, null, null));
+                citizenDao.deleteAsync("COA#4");
+                citizenDao.persistAsync(new Citizen("COA", 4, "Recreated", null, null, null, null, null, null, null, null, null, null, null, null));
+                citizenDao.flush();
+                Citizen skewed = citizenDao.get("COA#4");
+                assertEquals("Put after delete was masked by cells of a region server with clock ahead of client's", "Recreated", skewed.getName());
+                assertNull("Delete missed cells of a region server with clock ahead of client's", skewed.getAge());
+                citizenDao.delete("COA#4"); // while it's cells are still in the past
+            } finally {
+                EnvironmentEdgeManager.reset();
+            }
+            try (CitizenDAO plainCitizenDao = new CitizenDAO(connection)) {
+                plainCitizenDao.deleteAsync("COA#1");
+                fail("A DAO without write-behind accepted a write-behind delete");
+            } catch (IllegalStateException ignored) {
+            }
+            citizenDao.delete(new String[]{"COA#1", "COA#2"});
+        }
+    }
+
+    @Test
+    public void testTableHandles() throws IOException {
+        try (CitizenDAO tunedCitizenDao = new CitizenDAO(connection, new HBDAOOptions()
+                .setOperationTimeout(30, TimeUnit.SECONDS)
+                .setRpcTimeout(10, TimeUnit.SECONDS)
+                .setScanTimeout(20, TimeUnit.SECONDS)
+                .setWriteBufferSize(1024))) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                citizens.add(new Citizen("IND", 200 + i, "Handle " + i, null, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            List<String> rowKeys = tunedCitizenDao.persist(citizens);
+            assertEquals("Bulk persist through buffered mutator (with tiny write buffer) didn't apply", citizens, tunedCitizenDao.get(rowKeys));
+            assertEquals("Scan through long-lived table handle returned unexpected result", citizens, tunedCitizenDao.get("IND#200", "IND#220"));
+            tunedCitizenDao.delete(citizens);
+            assertEquals("Bulk delete through buffered mutator didn't apply", Collections.nCopies(rowKeys.size(), null), tunedCitizenDao.get(rowKeys));
+            tunedCitizenDao.close();
+            try {
+                tunedCitizenDao.get(rowKeys.get(0));
+                fail("A closed DAO served a read");
+            } catch (IOException e) {
+                System.out.printf("[edge case] Got error as expected, for read on a closed DAO: %s%n", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                citizens.add(new Citizen("STR", 300 + i, "Streamed " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            Scan scan = new Scan().withStartRow(Bytes.toBytes("STR#")).withStopRow(Bytes.toBytes("STR$")).setCaching(4);
+            List<Citizen> expected = citizenDao.get(scan);
+            try (Stream<Citizen> stream = citizenDao.stream(scan)) {
+                assertEquals("Sequential stream returned unexpected result", expected, stream.collect(Collectors.toList()));
+            }
+            try (Stream<Citizen> stream = citizenDao.stream(scan)) {
+                assertEquals("Parallel stream returned unexpected result (or order)", expected, stream.parallel().collect(Collectors.toList()));
+            }
+            try (Stream<Citizen> stream = citizenDao.stream(scan)) {
+                assertEquals("Parallel stream pipeline returned unexpected result", 25, stream.parallel().filter(c -> c.getAge() % 2 == 0).count());
+            }
+            Stream<Citizen> abandoned = citizenDao.stream(scan);
+            assertTrue(abandoned.iterator().hasNext());
+            abandoned.close();
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testStreamAcrossRegions() throws IOException {
+        try (StudentDAO studentDao = new StudentDAO(connection);
+             RegionLocator regionLocator = connection.getRegionLocator(TableName.valueOf(studentDao.getTableName()))) {
+            assertEquals("Table isn't pre-split", 3, regionLocator.getAllRegionLocations().size());
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                students.add(new Student(100 + 6 * i, "Student " + i));
+            }
+            studentDao.persist(students);
+            Scan scan = new Scan().setCaching(7);
+            try (Stream<Student> stream = studentDao.stream(scan)) {
+                assertEquals("Sequential stream across regions returned unexpected result (or order)", students, stream.collect(Collectors.toList()));
+            }
+            try (Stream<Student> stream = studentDao.stream(scan)) {
+                assertEquals("Parallel stream across regions returned unexpected result (or order)", students, stream.parallel().collect(Collectors.toList()));
+            }
+            try (Stream<Student> stream = studentDao.stream(scan)) {
+                assertEquals("Parallel stream pipeline across regions returned unexpected result", 75, stream.parallel().filter(student -> student.getStudentId() % 4 == 0).count());
+            }
+            studentDao.delete(students);
+        }
+    }
+
+    @Test
+    public void testPipelinedRecords() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                citizens.add(new Citizen("PIP", 400 + i, "Pipelined " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            Scan scan = new Scan().withStartRow(Bytes.toBytes("PIP#")).withStopRow(Bytes.toBytes("PIP$")).setCaching(4);
+            List<Citizen> expected = citizenDao.get(new Scan(scan));
+            assertEquals(50, expected.size());
+            ScanPipelineConfig pipelineConfig = new ScanPipelineConfig().decodeThreads(3).bufferSize(5);
+            List<Citizen> actual = new ArrayList<>();
+            try (Records<Citizen> records = citizenDao.records(new Scan(scan), pipelineConfig)) {
+                for (Citizen citizen : records) {
+                    actual.add(citizen);
+                }
+            }
+            assertEquals("Pipelined records returned unexpected result (or order)", expected, actual);
+            Iterator<Citizen> abandoned;
+            try (Records<Citizen> records = citizenDao.records(new Scan(scan), pipelineConfig)) {
+                abandoned = records.iterator();
+                assertEquals(expected.get(0), abandoned.next());
+            }
+            assertFalse("Closed pipeline served a record", abandoned.hasNext());
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                assertFalse("Fetcher thread outlived it's pipeline", thread.getName().endsWith("-pipeline-fetcher"));
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testAggregate() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                citizens.add(new Citizen("AGG", 500 + i, "Aggregated " + i, (short) i, null, null, null, i % 2 == 0 ? i / 4.0 : null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            Scan scan = new Scan().withStartRow(Bytes.toBytes("AGG#")).withStopRow(Bytes.toBytes("AGG$"));
+            AggregationResult ages = citizenDao.aggregate(scan, "age", Aggregation.values());
+            assertEquals(20L, ages.getCount());
+            assertEquals(210L, ages.get(Aggregation.SUM));
+            assertEquals(1L, ages.get(Aggregation.MIN));
+            assertEquals(20L, ages.get(Aggregation.MAX));
+            assertEquals(10.5, ages.get(Aggregation.AVG));
+            assertEquals("Parallel aggregation returned unexpected result", ages.asMap(), citizenDao.aggregateInParallel(scan, "age", Aggregation.values()).asMap());
+            AggregationResult f2 = citizenDao.aggregate(scan, "f2", Aggregation.COUNT, Aggregation.SUM, Aggregation.MAX);
+            assertEquals("Rows without value shouldn't be counted", 10L, f2.getCount());
+            assertEquals(27.5, f2.get(Aggregation.SUM));
+            assertEquals(5.0, f2.get(Aggregation.MAX));
+            assertNull("Aggregation that wasn't requested shouldn't have a value", f2.get(Aggregation.MIN));
+            assertEquals("Count-only aggregation returned unexpected result", 10L, citizenDao.aggregate(scan, "f2", Aggregation.COUNT).getCount());
+            assertEquals(20L, citizenDao.aggregate(scan, "name", Aggregation.COUNT).getCount());
+            assertNull(citizenDao.aggregate(new Scan().setRowPrefixFilter(Bytes.toBytes("NONE#")), "age", Aggregation.AVG).get(Aggregation.AVG));
+            try {
+                citizenDao.aggregate(scan, "name", Aggregation.SUM);
+                fail("Sum over a non-numeric field succeeded (it shouldn't have)");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testCount() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                citizens.add(new Citizen("CNT", 400 + i, i % 5 == 0 ? "Five" : "Counted " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            assertEquals(25L, citizenDao.count("CNT#", "CNT$"));
+            assertEquals(0L, citizenDao.count("CNU#", "CNU$"));
+            Scan scan = new Scan().setRowPrefixFilter(Bytes.toBytes("CNT#"));
+            final List<long[]> progress = new ArrayList<>();
+            assertEquals(25L, citizenDao.count(scan, (regionsCounted, totalRegions, rowsCounted) -> progress.add(new long[]{regionsCounted, totalRegions, rowsCounted})));
+            assertFalse(progress.isEmpty());
+            assertArrayEquals("Last progress callback should cover all regions and rows", new long[]{progress.size(), progress.size(), 25L}, progress.get(progress.size() - 1));
+            Scan filtered = new Scan(scan).setFilter(new SingleColumnValueFilter(Bytes.toBytes("main"), Bytes.toBytes("name"), CompareOperator.EQUAL, Bytes.toBytes("Five")));
+            assertEquals("Filter of scan should be honoured when counting", 5L, citizenDao.count(filtered));
+            assertEquals("Limit of scan should be honoured when counting", 7L, citizenDao.count(new Scan(scan).setLimit(7)));
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testSample() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                citizens.add(new Citizen("SMP", 1000 + i, "Sampled " + i, (short) (i % 50), null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            Scan scan = new Scan().setRowPrefixFilter(Bytes.toBytes("SMP#"));
+            assertEquals(200, citizenDao.sample(scan, 1.0).size());
+            List<Citizen> half = citizenDao.sample(scan, 0.5);
+            assertTrue("Unexpected size of sample: " + half.size(), half.size() > 50 && half.size() < 150);
+            for (int i = 1; i < half.size(); i++) {
+                assertTrue("Sample isn't in order of row keys", half.get(i - 1).composeRowKey().compareTo(half.get(i).composeRowKey()) < 0);
+            }
+            int approxSize = citizenDao.sample(scan, 40).size();
+            assertTrue("Unexpected size of sample: " + approxSize, approxSize > 5 && approxSize < 100);
+            SampleEstimate exact = citizenDao.estimate(scan, 1.0, "age");
+            assertEquals(200.0, exact.getEstimatedCount(), 0.0);
+            assertEquals(24.5, exact.getMean(), 1e-9);
+            assertEquals("Estimate from a full sample should have no error", 0.0, exact.getMeanStandardError(), 1e-9);
+            SampleEstimate estimate = citizenDao.estimate(scan, 0.5, "age");
+            double[] interval = estimate.getMeanConfidenceInterval(5);
+            assertTrue("True mean is way outside estimated interval: " + estimate, interval[0] <= 24.5 && 24.5 <= interval[1]);
+            assertTrue("True count is way off estimated count: " + estimate, Math.abs(estimate.getEstimatedCount() - 200) <= 5 * estimate.getCountStandardError());
+            assertNull(citizenDao.estimate(new Scan().setRowPrefixFilter(Bytes.toBytes("NONE#")), 0.5, "age").getMean());
+            try {
+                citizenDao.sample(scan, 0.0);
+                fail("A fraction of 0 was accepted");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testKeys() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            List<String> rowKeys = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                Citizen citizen = new Citizen("KEY", 600 + i, "Keyed " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null);
+                citizens.add(citizen);
+                rowKeys.add(citizen.composeRowKey());
+            }
+            citizenDao.persist(citizens);
+            try (Stream<String> keys = citizenDao.keys("KEY#", "KEY$")) {
+                assertEquals("Keys-only scan returned unexpected row keys", rowKeys, keys.collect(Collectors.toList()));
+            }
+            Scan scan = new Scan().setRowPrefixFilter(Bytes.toBytes("KEY#")).setCaching(7);
+            try (Stream<String> keys = citizenDao.keys(scan)) {
+                assertEquals("Parallel keys-only scan returned unexpected row keys", rowKeys, keys.parallel().collect(Collectors.toList()));
+            }
+            try (Stream<byte[]> keys = citizenDao.rawKeys(scan)) {
+                assertEquals(rowKeys, keys.map(Bytes::toString).collect(Collectors.toList()));
+            }
+            Scan filteredScan = new Scan(scan).setFilter(new SingleColumnValueFilter(Bytes.toBytes("main"), Bytes.toBytes("name"), CompareOperator.EQUAL, Bytes.toBytes("Keyed 5")));
+            try (Stream<String> keys = citizenDao.keys(filteredScan)) {
+                assertEquals("Filter of scan wasn't honoured", Collections.singletonList(rowKeys.get(5)), keys.collect(Collectors.toList()));
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testFetchColumns() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            List<String> rowKeys = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Citizen citizen = new Citizen("COL", 800 + i, "Columnar " + i, (short) i, null, null, null, i % 3 == 0 ? null : i * 1.5, null, null, null, null, null, null, null);
+                citizens.add(citizen);
+                rowKeys.add(citizen.composeRowKey());
+            }
+            citizenDao.persist(citizens);
+            ColumnBatch<String> batch = citizenDao.fetchColumns("COL#", "COL$", "age", "f2", "name");
+            assertEquals(10, batch.size());
+            assertArrayEquals(rowKeys.toArray(new String[0]), batch.getRowKeys());
+            assertEquals(Arrays.asList("age", "f2", "name"), new ArrayList<>(batch.getFieldNames()));
+            short[] ages = batch.getShortColumn("age");
+            double[] f2 = batch.getDoubleColumn("f2");
+            Object[] names = batch.getObjectColumn("name");
+            assertTrue("Column of a String field should be a String[]", names instanceof String[]);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, ages[i]);
+                assertEquals("Columnar " + i, names[i]);
+                assertEquals(i % 3 == 0, batch.isNull("f2", i));
+                assertEquals(i % 3 == 0 ? 0.0 : i * 1.5, f2[i], 0.0);
+            }
+            ColumnBatch<String> byKeys = citizenDao.fetchColumns(Arrays.asList(rowKeys.get(7), "COL#missing", rowKeys.get(2)), "f2");
+            assertArrayEquals("Rows should be in order of given row keys (missing ones left out)", new String[]{rowKeys.get(7), rowKeys.get(2)}, byKeys.getRowKeys());
+            assertArrayEquals(new double[]{10.5, 3.0}, byKeys.getDoubleColumn("f2"), 0.0);
+            try {
+                batch.getLongColumn("age");
+                fail("Column of a Short field was accessed as long[]");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testReversedAndLimited() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (String countryCode : new String[]{"REU", "REV", "REW"}) {
+                for (int i = 0; i < 5; i++) {
+                    citizens.add(new Citizen(countryCode, 500 + i, countryCode + " " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+                }
+            }
+            citizenDao.persist(citizens);
+            final byte[] prefix = Bytes.toBytes("REV#");
+            assertEquals(Arrays.asList("REV#504", "REV#503"), citizenDao.getLastByPrefix(prefix, 2).stream().map(Citizen::composeRowKey).collect(Collectors.toList()));
+            assertEquals("Reversed prefix scan should cover all rows with prefix (and only those)", Arrays.asList("REV#504", "REV#503", "REV#502", "REV#501", "REV#500"),
+                    citizenDao.getByPrefix(prefix, true, 0, 1).stream().map(Citizen::composeRowKey).collect(Collectors.toList()));
+            assertEquals(Arrays.asList("REV#500", "REV#501", "REV#502"), citizenDao.getByPrefix(prefix, false, 3, 1).stream().map(Citizen::composeRowKey).collect(Collectors.toList()));
+            List<String> fromRecords = new ArrayList<>();
+            try (Records<Citizen> records = citizenDao.recordsByPrefix(prefix, true, 4, 1)) {
+                for (Citizen citizen : records) {
+                    fromRecords.add(citizen.composeRowKey());
+                }
+            }
+            assertEquals(Arrays.asList("REV#504", "REV#503", "REV#502", "REV#501"), fromRecords);
+            assertEquals("Reversed range scan should exclude end key and include start key", Arrays.asList("REV#503", "REV#502", "REV#501"),
+                    citizenDao.get("REV#501", "REV#504", true, 0, 1).stream().map(Citizen::composeRowKey).collect(Collectors.toList()));
+            assertEquals(Arrays.asList("REV#501", "REV#502"), citizenDao.get("REV#501", "REV#504", false, 2, 1).stream().map(Citizen::composeRowKey).collect(Collectors.toList()));
+            fromRecords.clear();
+            try (Records<Citizen> records = citizenDao.records("REU#", "REW#", true, 6, 1)) {
+                for (Citizen citizen : records) {
+                    fromRecords.add(citizen.composeRowKey());
+                }
+            }
+            assertEquals(Arrays.asList("REV#504", "REV#503", "REV#502", "REV#501", "REV#500", "REU#504"), fromRecords);
+            try {
+                citizenDao.getByPrefix(prefix, false, -1, 1);
+                fail("A negative limit was accepted");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testPartialResults() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                NavigableMap<Long, Integer> phoneNumber = new TreeMap<>();
+                for (long v = 1; v <= 3; v++) {
+                    phoneNumber.put(v * 1000, i * 10 + (int) v);
+                }
+                citizens.add(new Citizen("WID", 100 + i, "Wide " + i, (short) i, 1000 * i, i % 2 == 0, 1.5f * i, 2.5 * i, (long) i, null, 560000 + i, phoneNumber, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            Scan scan = new Scan().setRowPrefixFilter(Bytes.toBytes("WID#")).readVersions(3);
+            List<Citizen> expected = citizenDao.get(new Scan(scan));
+            assertEquals(4, expected.size());
+            List<Scan> partialScans = Arrays.asList(
+                    new Scan(scan).setAllowPartialResults(true).setMaxResultSize(1), // a cell per result
+                    new Scan(scan).setBatch(2),
+                    new Scan(scan).setBatch(3).setAllowPartialResults(true).setMaxResultSize(1));
+            for (Scan partialScan : partialScans) {
+                List<Citizen> actual = new ArrayList<>();
+                try (Records<Citizen> records = citizenDao.records(partialScan)) {
+                    for (Citizen citizen : records) {
+                        actual.add(citizen);
+                    }
+                }
+                assertEquals("Records assembled from parts of rows differ from whole rows, for scan: " + partialScan, expected, actual);
+                assertEquals("Records assembled from parts of rows differ from whole rows, for scan: " + partialScan, expected, citizenDao.get(new Scan(partialScan)));
+            }
+            try {
+                citizenDao.records(new Scan(scan).setBatch(2), new ScanPipelineConfig());
+                fail("A pipelined scan with batching was accepted");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testTimeBounds() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                NavigableMap<Long, Integer> phoneNumber = new TreeMap<>();
+                phoneNumber.put(1000L, 100 + i);
+                phoneNumber.put(2000L, 200 + i);
+                phoneNumber.put(3000L, 300 + i);
+                citizens.add(new Citizen("TMB", 600 + i, "Time-bound " + i, (short) i, null, null, null, null, null, null, null, phoneNumber, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            final String rowKey = citizens.get(0).composeRowKey();
+            Citizen asOf = citizenDao.get(rowKey, TimeBounds.asOf(2000), 1);
+            assertNull("Cells written after as-of timestamp were fetched", asOf.getName());
+            assertEquals(m(e(2000L, 200)), asOf.getPhoneNumber());
+            assertEquals(m(e(1000L, 100), e(2000L, 200)), citizenDao.get(rowKey, TimeBounds.between(1000, 3000), 3).getPhoneNumber());
+            assertNull("Row with no cells in time range was fetched", citizenDao.get(rowKey, TimeBounds.asOf(999), 1));
+            Citizen withFamilyOverride = citizenDao.get(rowKey, TimeBounds.asOf(2000).forFamily("main", 0, Long.MAX_VALUE), 1);
+            assertEquals("Time-bound 0", withFamilyOverride.getName());
+            assertEquals(m(e(2000L, 200)), withFamilyOverride.getPhoneNumber());
+            List<Citizen> byKeys = citizenDao.get(Arrays.asList(rowKey, "TMB#missing"), TimeBounds.since(3000), 1);
+            assertEquals("Time-bound 0", byKeys.get(0).getName());
+            assertEquals(m(e(3000L, 300)), byKeys.get(0).getPhoneNumber());
+            assertNull(byKeys.get(1));
+            List<Citizen> inRange = citizenDao.get("TMB#", "TMB$", TimeBounds.between(0, 2000), 3);
+            assertEquals(3, inRange.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(m(e(1000L, 100 + i)), inRange.get(i).getPhoneNumber());
+            }
+            int count = 0;
+            try (Records<Citizen> records = citizenDao.records("TMB#", "TMB$", TimeBounds.last(1, TimeUnit.HOURS), 1)) {
+                for (Citizen citizen : records) {
+                    assertNull("Cells older than time range were fetched", citizen.getPhoneNumber());
+                    count++;
+                }
+            }
+            assertEquals(3, count);
+            NavigableMap<String, NavigableMap<Long, Object>> byRange = citizenDao.fetchFieldValues("TMB#", "TMB$", "phoneNumber", TimeBounds.between(1500, 3500), 3);
+            assertEquals(3, byRange.size());
+            assertEquals(m(e(2000L, (Object) 200), e(3000L, (Object) 300)), byRange.get(rowKey));
+            Map<String, NavigableMap<Long, Object>> byArray = citizenDao.fetchFieldValues(new String[]{rowKey}, "phoneNumber", TimeBounds.asOf(1000), 3);
+            assertEquals(m(e(1000L, (Object) 100)), byArray.get(rowKey));
+            try {
+                TimeBounds.between(2000, 1000);
+                fail("Time range with end before start was accepted");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
+        }
+    }
+
+    @Test
+    public void testPage() throws IOException {
+        try (CitizenDAO citizenDao = new CitizenDAO(connection)) {
+            List<Citizen> citizens = new ArrayList<>();
+            for (int i = 0; i < 23; i++) {
+                citizens.add(new Citizen("PAG", 700 + i, "Paged " + i, (short) i, null, null, null, null, null, null, null, null, null, null, null));
+            }
+            citizenDao.persist(citizens);
+            for (boolean reversed : new boolean[]{false, true}) {
+                Scan scan = new Scan().setRowPrefixFilter(Bytes.toBytes("PAG#")).setReversed(reversed);
+                if (reversed) {
+                    scan.withStartRow(Bytes.toBytes("PAG$")).withStopRow(Bytes.toBytes("PAG#"));
+                }
+                List<Citizen> expected = citizenDao.get(new Scan(scan)), actual = new ArrayList<>();
+                assertEquals(23, expected.size());
+                byte[] cursor = null;
+                int pages = 0;
+                do {
+                    Page<Citizen> page = citizenDao.page(scan, 5, cursor);
+                    actual.addAll(page.getRecords());
+                    cursor = page.getCursor();
+                    pages++;
+                    if (pages == 1) {
+                        citizenDao.persist(new Citizen("PAG", 799, "Written after paging began", (short) 99, null, null, null, null, null, null, null, null, null, null, null));
+                    }
+                } while (cursor != null);
+                assertEquals(5, pages);
+                assertEquals("Pages returned unexpected records (or order) for " + (reversed ? "reversed" : "forward") + " scan", expected, actual);
+                citizenDao.delete("PAG#799");
+            }
+            try {
+                citizenDao.page(new Scan().setRowPrefixFilter(Bytes.toBytes("PAG#")), 5, new byte[]{1, 2, 3});
+                fail("A malformed cursor was accepted");
+            } catch (IllegalArgumentException ignored) {
+                //nothing
+            }
+            citizenDao.delete(citizens);
         }
-        Citizen citizenAfter3Append = citizenDao.get(rowKey);
-        assertNull("Append operation broke 'all or none' semantics", citizenAfter3Append.getF3());
-        citizenDao.append(rowKey, m(e("f3", 123L)));
-        Citizen citizenAfter4Append = citizenDao.get(rowKey);
-        assertEquals("Append operation failed for f3", 123L, (long) citizenAfter4Append.getF3());
-        citizenDao.append(rowKey, "name", " Kalam");
-        assertEquals("Append operation failed for name", "Abdul Kalam", citizenDao.fetchFieldValue(rowKey, "name"));
     }
 
     @Test
     public void testCustom() throws IOException {
         hBaseCluster.createTable("counters", m(e("a", 10)));
-        CounterDAO counterDAO = new CounterDAO(connection);
-        Counter counter = new Counter("c1");
-        for (int i = 1; i <= 10; i++) {
-            counter.setValue((long) i, (long) i);
-        }
-        counter.setVar(0L);
-        final String rowKey = counterDAO.persist(counter);
-        // Test custom timestamp values:
-        assertEquals("Unexpected values on get (number of versions)", counterDAO.get(rowKey, 7), counterDAO.getOnGet(counterDAO.getGet(rowKey).readVersions(7)));
-        assertEquals("Unexpected values on get (given timestamp)", nm(e(10L, 10L)), counterDAO.getOnGet(counterDAO.getGet(rowKey).setTimestamp(10)).getValue());
-        assertEquals("Unexpected values on bulk get", Arrays.asList(new Counter("c1", nm(e(1L, 1L), e(2L, 2L), e(3L, 3L), e(4L, 4L))), new Counter("c1", nm(e(3L, 3L), e(4L, 4L)))),
-                counterDAO.getOnGets(Arrays.asList(counterDAO.getGet(rowKey).setTimeRange(1, 5).readAllVersions(), counterDAO.getGet(rowKey).setTimeRange(1, 5).readVersions(2))));
-        // Test increment features:
-        long resultBasic = counterDAO.increment(rowKey, "var", 1L);
-        assertTrue("Increment didn't apply - basic", 1L == (long) counterDAO.fetchFieldValue(rowKey, "var") && 1L == resultBasic);
-        long resultDurability = counterDAO.increment(rowKey, "var", 2L, Durability.SKIP_WAL);
-        assertTrue("Increment didn't apply - with durability flag", 3L == (long) counterDAO.fetchFieldValue(rowKey, "var") && 3L == resultDurability);
-        Increment increment = counterDAO.getIncrement(rowKey).addColumn(Bytes.toBytes("a"), Bytes.toBytes("var"), 5L);
-        Counter persistedCounter = counterDAO.increment(increment);
-        assertTrue("Increment didn't apply - native way", 8L == persistedCounter.getVar() && 8L == (long) counterDAO.fetchFieldValue(rowKey, "var"));
-        try {
-            counterDAO.increment(rowKey, "badvarI", 4L);
-            fail("Attempt to increment a field that isn't Long succeeded (it shouldn't have)");
-        } catch (Exception ignored) {
-            //nothing
+        try (CounterDAO counterDAO = new CounterDAO(connection)) {
+            Counter counter = new Counter("c1");
+            for (int i = 1; i <= 10; i++) {
+                counter.setValue((long) i, (long) i);
+            }
+            counter.setVar(0L);
+            final String rowKey = counterDAO.persist(counter);
+            // Test custom timestamp values:
+            assertEquals("Unexpected values on get (number of versions)", counterDAO.get(rowKey, 7), counterDAO.getOnGet(counterDAO.getGet(rowKey).readVersions(7)));
+            assertEquals("Unexpected values on get (given timestamp)", nm(e(10L, 10L)), counterDAO.getOnGet(counterDAO.getGet(rowKey).setTimestamp(10)).getValue());
+            assertEquals("Unexpected values on bulk get", Arrays.asList(new Counter("c1", nm(e(1L, 1L), e(2L, 2L), e(3L, 3L), e(4L, 4L))), new Counter("c1", nm(e(3L, 3L), e(4L, 4L)))),
+                    counterDAO.getOnGets(Arrays.asList(counterDAO.getGet(rowKey).setTimeRange(1, 5).readAllVersions(), counterDAO.getGet(rowKey).setTimeRange(1, 5).readVersions(2))));
+            // Test increment features:
+            long resultBasic = counterDAO.increment(rowKey, "var", 1L);
+            assertTrue("Increment didn't apply - basic", 1L == (long) counterDAO.fetchFieldValue(rowKey, "var") && 1L == resultBasic);
+            long resultDurability = counterDAO.increment(rowKey, "var", 2L, Durability.SKIP_WAL);
+            assertTrue("Increment didn't apply - with durability flag", 3L == (long) counterDAO.fetchFieldValue(rowKey, "var") && 3L == resultDurability);
+            Increment increment = counterDAO.getIncrement(rowKey).addColumn(Bytes.toBytes("a"), Bytes.toBytes("var"), 5L);
+            Counter persistedCounter = counterDAO.increment(increment);
+            assertTrue("Increment didn't apply - native way", 8L == persistedCounter.getVar() && 8L == (long) counterDAO.fetchFieldValue(rowKey, "var"));
+            try {
+                counterDAO.increment(rowKey, "badvarI", 4L);
+                fail("Attempt to increment a field that isn't Long succeeded (it shouldn't have)");
+            } catch (Exception ignored) {
+                //nothing
+            }
         }
     }
 
     @Test
     public void testVersioning() throws IOException {
         hBaseCluster.createTable("crawls", m(e("a", 3)));
-        CrawlDAO crawlDAO = new CrawlDAO(connection);
-        CrawlNoVersionDAO crawlNoVersionDAO = new CrawlNoVersionDAO(connection);
-        final int NUM_VERSIONS = 3;
-        Double[] testNumbers = new Double[]{-1.0, Double.MAX_VALUE, Double.MIN_VALUE, 3.14159, 2.71828, 1.0};
-        Double[] testNumbersOfRange = Arrays.copyOfRange(testNumbers, testNumbers.length - NUM_VERSIONS, testNumbers.length);
-        // Written as unversioned, read as versioned
-        List<CrawlNoVersion> objs = new ArrayList<>();
-        for (Double n : testNumbers) {
-            objs.add(new CrawlNoVersion("key").setF1(n));
-        }
-        crawlNoVersionDAO.persist(objs);
-        Crawl crawl = crawlDAO.get("key", NUM_VERSIONS);
-        assertEquals("Issue with version history implementation when written as unversioned and read as versioned", 1.0, crawl.getF1().values().iterator().next(), 1e-9);
-        crawlDAO.delete("key");
-        Crawl versioned = crawlDAO.get("key");
-        assertNull("Deleted row (with key " + versioned + ") still exists when accessed as versioned DAO", versioned);
-        CrawlNoVersion versionless = crawlNoVersionDAO.get("key");
-        assertNull("Deleted row (with key " + versionless + ") still exists when accessed as versionless DAO", versionless);
-        // Written as versioned, read as unversioned+versioned
-        Crawl crawl2 = new Crawl("key2");
-        long timestamp = System.currentTimeMillis();
-        long i = 0;
-        for (Double n : testNumbers) {
-            crawl2.addF1(timestamp + i, n);
-            i++;
-        }
-        crawlDAO.persist(crawl2);
-        CrawlNoVersion crawlNoVersion = crawlNoVersionDAO.get("key2");
-        assertEquals("Entry with the highest version (i.e. timestamp) isn't the one that was returned by DAO get", crawlNoVersion.getF1(), testNumbers[testNumbers.length - 1]);
-        assertArrayEquals("Issue with version history implementation when written as versioned and read as unversioned", testNumbersOfRange, crawlDAO.get("key2", NUM_VERSIONS).getF1().values().toArray());
-
-        List<String> rowKeysList = new ArrayList<>();
-        for (int v = 0; v <= 9; v++) {
-            for (int k = 1; k <= 4; k++) {
-                String key = "oKey" + k;
-                crawlDAO.persist(new Crawl(key).addF1((double) v));
-                rowKeysList.add(key);
-            }
-        }
-        String[] rowKeys = rowKeysList.toArray(new String[rowKeysList.size()]);
-
-        Set<Double> oldestValuesRangeScan = new HashSet<>(), oldestValuesBulkScan = new HashSet<>();
-        for (int k = 1; k <= NUM_VERSIONS; k++) {
-            Set<Double> latestValuesRangeScan = new HashSet<>();
-            NavigableMap<String, NavigableMap<Long, Object>> fieldValues1 = crawlDAO.fetchFieldValues("oKey0", "oKey9", "f1", k);
-            for (NavigableMap.Entry<String, NavigableMap<Long, Object>> e : fieldValues1.entrySet()) {
-                latestValuesRangeScan.add((Double) e.getValue().lastEntry().getValue());
-                oldestValuesRangeScan.add((Double) e.getValue().firstEntry().getValue());
-            }
-            assertEquals("When fetching multiple versions of a field, the latest version of field is not as expected", 1, latestValuesRangeScan.size());
-            Set<Double> latestValuesBulkScan = new HashSet<>();
-            Map<String, NavigableMap<Long, Object>> fieldValues2 = crawlDAO.fetchFieldValues(rowKeys, "f1", k);
-            for (NavigableMap.Entry<String, NavigableMap<Long, Object>> e : fieldValues2.entrySet()) {
-                latestValuesBulkScan.add((Double) e.getValue().lastEntry().getValue());
-                oldestValuesBulkScan.add((Double) e.getValue().firstEntry().getValue());
-            }
-            assertEquals("When fetching multiple versions of a field, the latest version of field is not as expected", 1, latestValuesBulkScan.size());
-        }
-        assertEquals("When fetching multiple versions of a field through bulk scan, the oldest version of field is not as expected", NUM_VERSIONS, oldestValuesRangeScan.size());
-        assertEquals("When fetching multiple versions of a field through range scan, the oldest version of field is not as expected", NUM_VERSIONS, oldestValuesBulkScan.size());
-        assertEquals("Fetch by array and fetch by range differ", oldestValuesRangeScan, oldestValuesBulkScan);
-
-        // Deletion tests:
-
-        // Written as unversioned, deleted as unversioned:
-        final String deleteKey1 = "write_unversioned__delete_unversioned";
-        crawlNoVersionDAO.persist(new Crawl(deleteKey1).addF1(10.01));
-        crawlNoVersionDAO.delete(deleteKey1);
-        assertNull("Row with key '" + deleteKey1 + "' exists, when written through unversioned DAO and deleted through unversioned DAO!", crawlNoVersionDAO.get(deleteKey1));
-
-        // Written as versioned, deleted as versioned:
-        final String deleteKey2 = "write_versioned__delete_versioned";
-        crawlDAO.persist(new Crawl(deleteKey2).addF1(10.02));
-        crawlDAO.delete(deleteKey2);
-        assertNull("Row with key '" + deleteKey2 + "' exists, when written through versioned DAO and deleted through versioned DAO!", crawlNoVersionDAO.get(deleteKey2));
-
-        // Written as unversioned, deleted as versioned:
-        final String deleteKey3 = "write_unversioned__delete_versioned";
-        crawlNoVersionDAO.persist(new Crawl(deleteKey3).addF1(10.03));
-        crawlDAO.delete(deleteKey3);
-        assertNull("Row with key '" + deleteKey3 + "' exists, when written through unversioned DAO and deleted through versioned DAO!", crawlNoVersionDAO.get(deleteKey3));
-
-        // Written as versioned, deleted as unversioned:
-        final String deleteKey4 = "write_versioned__delete_unversioned";
-        crawlDAO.persist(new Crawl(deleteKey4).addF1(10.04));
-        crawlNoVersionDAO.delete(deleteKey4);
-        assertNull("Row with key '" + deleteKey4 + "' exists, when written through versioned DAO and deleted through unversioned DAO!", crawlNoVersionDAO.get(deleteKey4));
+        try (CrawlDAO crawlDAO = new CrawlDAO(connection);
+             CrawlNoVersionDAO crawlNoVersionDAO = new CrawlNoVersionDAO(connection)) {
+            final int NUM_VERSIONS = 3;
+            Double[] testNumbers = new Double[]{-1.0, Double.MAX_VALUE, Double.MIN_VALUE, 3.14159, 2.71828, 1.0};
+            Double[] testNumbersOfRange = Arrays.copyOfRange(testNumbers, testNumbers.length - NUM_VERSIONS, testNumbers.length);
+            // Written as unversioned, read as versioned
+            List<CrawlNoVersion> objs = new ArrayList<>();
+            for (Double n : testNumbers) {
+                objs.add(new CrawlNoVersion("key").setF1(n));
+            }
+            crawlNoVersionDAO.persist(objs);
+            Crawl crawl = crawlDAO.get("key", NUM_VERSIONS);
+            assertEquals("Issue with version history implementation when written as unversioned and read as versioned", 1.0, crawl.getF1().values().iterator().next(), 1e-9);
+            crawlDAO.delete("key");
+            Crawl versioned = crawlDAO.get("key");
+            assertNull("Deleted row (with key " + versioned + ") still exists when accessed as versioned DAO", versioned);
+            CrawlNoVersion versionless = crawlNoVersionDAO.get("key");
+            assertNull("Deleted row (with key " + versionless + ") still exists when accessed as versionless DAO", versionless);
+            // Written as versioned, read as unversioned+versioned
+            Crawl crawl2 = new Crawl("key2");
+            long timestamp = System.currentTimeMillis();
+            long i = 0;
+            for (Double n : testNumbers) {
+                crawl2.addF1(timestamp + i, n);
+                i++;
+            }
+            crawlDAO.persist(crawl2);
+            CrawlNoVersion crawlNoVersion = crawlNoVersionDAO.get("key2");
+            assertEquals("Entry with the highest version (i.e. timestamp) isn't the one that was returned by DAO get", crawlNoVersion.getF1(), testNumbers[testNumbers.length - 1]);
+            assertArrayEquals("Issue with version history implementation when written as versioned and read as unversioned", testNumbersOfRange, crawlDAO.get("key2", NUM_VERSIONS).getF1().values().toArray());
+
+            List<String> rowKeysList = new ArrayList<>();
+            for (int v = 0; v <= 9; v++) {
+                for (int k = 1; k <= 4; k++) {
+                    String key = "oKey" + k;
+                    crawlDAO.persist(new Crawl(key).addF1((double) v));
+                    rowKeysList.add(key);
+                }
+            }
+            String[] rowKeys = rowKeysList.toArray(new String[rowKeysList.size()]);
+
+            Set<Double> oldestValuesRangeScan = new HashSet<>(), oldestValuesBulkScan = new HashSet<>();
+            for (int k = 1; k <= NUM_VERSIONS; k++) {
+                Set<Double> latestValuesRangeScan = new HashSet<>();
+                NavigableMap<String, NavigableMap<Long, Object>> fieldValues1 = crawlDAO.fetchFieldValues("oKey0", "oKey9", "f1", k);
+                for (NavigableMap.Entry<String, NavigableMap<Long, Object>> e : fieldValues1.entrySet()) {
+                    latestValuesRangeScan.add((Double) e.getValue().lastEntry().getValue());
+                    oldestValuesRangeScan.add((Double) e.getValue().firstEntry().getValue());
+                }
+                assertEquals("When fetching multiple versions of a field, the latest version of field is not as expected", 1, latestValuesRangeScan.size());
+                Set<Double> latestValuesBulkScan = new HashSet<>();
+                Map<String, NavigableMap<Long, Object>> fieldValues2 = crawlDAO.fetchFieldValues(rowKeys, "f1", k);
+                for (NavigableMap.Entry<String, NavigableMap<Long, Object>> e : fieldValues2.entrySet()) {
+                    latestValuesBulkScan.add((Double) e.getValue().lastEntry().getValue());
+                    oldestValuesBulkScan.add((Double) e.getValue().firstEntry().getValue());
+                }
+                assertEquals("When fetching multiple versions of a field, the latest version of field is not as expected", 1, latestValuesBulkScan.size());
+            }
+            assertEquals("When fetching multiple versions of a field through bulk scan, the oldest version of field is not as expected", NUM_VERSIONS, oldestValuesRangeScan.size());
+            assertEquals("When fetching multiple versions of a field through range scan, the oldest version of field is not as expected", NUM_VERSIONS, oldestValuesBulkScan.size());
+            assertEquals("Fetch by array and fetch by range differ", oldestValuesRangeScan, oldestValuesBulkScan);
 
+            // Deletion tests:
+
+            // Written as unversioned, deleted as unversioned:
+            final String deleteKey1 = "write_unversioned__delete_unversioned";
+            crawlNoVersionDAO.persist(new Crawl(deleteKey1).addF1(10.01));
+            crawlNoVersionDAO.delete(deleteKey1);
+            assertNull("Row with key '" + deleteKey1 + "' exists, when written through unversioned DAO and deleted through unversioned DAO!", crawlNoVersionDAO.get(deleteKey1));
+
+            // Written as versioned, deleted as versioned:
+            final String deleteKey2 = "write_versioned__delete_versioned";
+            crawlDAO.persist(new Crawl(deleteKey2).addF1(10.02));
+            crawlDAO.delete(deleteKey2);
+            assertNull("Row with key '" + deleteKey2 + "' exists, when written through versioned DAO and deleted through versioned DAO!", crawlNoVersionDAO.get(deleteKey2));
+
+            // Written as unversioned, deleted as versioned:
+            final String deleteKey3 = "write_unversioned__delete_versioned";
+            crawlNoVersionDAO.persist(new Crawl(deleteKey3).addF1(10.03));
+            crawlDAO.delete(deleteKey3);
+            assertNull("Row with key '" + deleteKey3 + "' exists, when written through unversioned DAO and deleted through versioned DAO!", crawlNoVersionDAO.get(deleteKey3));
+
+            // Written as versioned, deleted as unversioned:
+            final String deleteKey4 = "write_versioned__delete_unversioned";
+            crawlDAO.persist(new Crawl(deleteKey4).addF1(10.04));
+            crawlNoVersionDAO.delete(deleteKey4);
+            assertNull("Row with key '" + deleteKey4 + "' exists, when written through versioned DAO and deleted through unversioned DAO!", crawlNoVersionDAO.get(deleteKey4));
+
+        }
     }
 
     @Test
     public void testNonStringRowkeys() throws IOException {
         hBaseCluster.createTable("employees", m(e("a", 1)));
-        EmployeeDAO employeeDAO = new EmployeeDAO(connection);
-        Employee ePre = new Employee(100L, "E1", (short) 3, System.currentTimeMillis());
-        Long rowKey = employeeDAO.persist(ePre);
-        Employee ePost = employeeDAO.get(rowKey);
-        assertEquals("Object got corrupted ", ePre, ePost);
+        try (EmployeeDAO employeeDAO = new EmployeeDAO(connection)) {
+            Employee ePre = new Employee(100L, "E1", (short) 3, System.currentTimeMillis());
+            Long rowKey = employeeDAO.persist(ePre);
+            Employee ePost = employeeDAO.get(rowKey);
+            assertEquals("Object got corrupted ", ePre, ePost);
+        }
     }
 
     @AfterClass
@@ -2,6 +2,7 @@ package com.flipkart.hbaseobjectmapper.testcases.daos;
 
 
 import com.flipkart.hbaseobjectmapper.AbstractHBDAO;
+import com.flipkart.hbaseobjectmapper.HBDAOOptions;
 import com.flipkart.hbaseobjectmapper.testcases.entities.Citizen;
 import org.apache.hadoop.hbase.client.Connection;
 
@@ -12,4 +13,8 @@ public class CitizenDAO extends AbstractHBDAO<String, Citizen> {
     public CitizenDAO(Connection connection) throws IOException {
         super(connection);
     }
+
+    public CitizenDAO(Connection connection, HBDAOOptions options) throws IOException {
+        super(connection, options);
+    }
 }
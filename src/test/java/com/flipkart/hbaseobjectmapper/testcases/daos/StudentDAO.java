@@ -0,0 +1,15 @@
+package com.flipkart.hbaseobjectmapper.testcases.daos;
+
+
+import com.flipkart.hbaseobjectmapper.AbstractHBDAO;
+import com.flipkart.hbaseobjectmapper.testcases.entities.Student;
+import org.apache.hadoop.hbase.client.Connection;
+
+import java.io.IOException;
+
+public class StudentDAO extends AbstractHBDAO<Integer, Student> {
+
+    public StudentDAO(Connection connection) throws IOException {
+        super(connection);
+    }
+}
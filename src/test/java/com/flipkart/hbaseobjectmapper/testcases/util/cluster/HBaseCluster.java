@@ -11,5 +11,7 @@ public interface HBaseCluster {
 
     void createTable(String tableName, Map<String, Integer> columnFamiliesAndVersions) throws IOException;
 
+    void createTable(String tableName, Map<String, Integer> columnFamiliesAndVersions, byte[][] splitKeys) throws IOException;
+
     void end() throws Exception;
 }
@@ -4,6 +4,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseTestingUtility;
 import org.apache.hadoop.hbase.MiniHBaseCluster;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.IOException;
@@ -67,6 +69,20 @@ public class InMemoryHBaseCluster implements HBaseCluster {
         utility.createTable(TableName.valueOf(tableName), families, versions);
     }
 
+    @Override
+    public void createTable(String tableName, Map<String, Integer> columnFamiliesAndVersions, byte[][] splitKeys) throws IOException {
+        TableDescriptorBuilder tableDescriptorBuilder = TableDescriptorBuilder.newBuilder(TableName.valueOf(tableName));
+        for (Map.Entry<String, Integer> e : columnFamiliesAndVersions.entrySet()) {
+            tableDescriptorBuilder.setColumnFamily(
+                    ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(e.getKey()))
+                            .setMaxVersions(e.getValue())
+                            .build()
+            );
+        }
+        utility.getAdmin().createTable(tableDescriptorBuilder.build(), splitKeys);
+        utility.waitUntilAllRegionsAssigned(TableName.valueOf(tableName));
+    }
+
     @Override
     public void end() throws Exception {
         utility.shutdownMiniCluster();
@@ -24,6 +24,11 @@ public class RealHBaseCluster implements HBaseCluster {
 
     @Override
     public void createTable(String table, Map<String, Integer> columnFamiliesAndVersions) throws IOException {
+        createTable(table, columnFamiliesAndVersions, null);
+    }
+
+    @Override
+    public void createTable(String table, Map<String, Integer> columnFamiliesAndVersions, byte[][] splitKeys) throws IOException {
         TableName tableName = TableName.valueOf(table);
         if (admin.tableExists(tableName)) {
             System.out.format("Disabling table '%s': ", tableName);
@@ -43,7 +48,11 @@ public class RealHBaseCluster implements HBaseCluster {
         }
         TableDescriptor tableDescriptor = tableDescriptorBuilder.build();
         System.out.format("Creating table '%s': ", tableName);
-        admin.createTable(tableDescriptor);
+        if (splitKeys == null) {
+            admin.createTable(tableDescriptor);
+        } else {
+            admin.createTable(tableDescriptor, splitKeys);
+        }
         System.out.println("[DONE]");
     }
 